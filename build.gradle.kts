@@ -10,12 +10,44 @@ repositories {
     mavenCentral()
 }
 
+// Benchmarks live in src/jmh/java and see the main classes, including package-private ones.
+val jmh: SourceSet by sourceSets.creating {
+    compileClasspath += sourceSets.main.get().output
+    runtimeClasspath += sourceSets.main.get().output
+}
+
+configurations[jmh.implementationConfigurationName].extendsFrom(configurations.implementation.get())
+configurations[jmh.runtimeOnlyConfigurationName].extendsFrom(configurations.runtimeOnly.get())
+
 dependencies {
     api("com.google.guava:guava:33.1.0-jre")
     testImplementation(platform("org.junit:junit-bom:5.9.1"))
     testImplementation("org.junit.jupiter:junit-jupiter")
+    testAnnotationProcessor(project(":processor"))
+
+    val jmhVersion = "1.37"
+    add(jmh.implementationConfigurationName, "org.openjdk.jmh:jmh-core:$jmhVersion")
+    add(jmh.annotationProcessorConfigurationName, "org.openjdk.jmh:jmh-generator-annprocess:$jmhVersion")
 }
 
 tasks.test {
     useJUnitPlatform()
 }
+
+// Runs the benchmarks, reporting throughput, average time and allocation rate.
+// Select benchmarks with -Pjmh.includes=<regex>, and pass further JMH options with -Pjmh.args="...".
+tasks.register<JavaExec>("jmh") {
+    group = "verification"
+    description = "Runs the JMH benchmarks."
+    classpath = jmh.runtimeClasspath
+    mainClass.set("org.openjdk.jmh.Main")
+    args(
+        "-bm", "thrpt,avgt",
+        "-prof", "gc",
+        "-rf", "json",
+        "-rff", layout.buildDirectory.file("reports/jmh/results.json").get().asFile.path,
+    )
+    (findProperty("jmh.args") as String?)?.let { args(it.split(" ").filter(String::isNotBlank)) }
+    (findProperty("jmh.includes") as String?)?.let { args(it) }
+    doFirst { layout.buildDirectory.dir("reports/jmh").get().asFile.mkdirs() }
+}
@@ -0,0 +1,13 @@
+plugins {
+    id("java")
+}
+
+group = "oop.project.cli"
+version = "1.0-SNAPSHOT"
+
+repositories {
+    mavenCentral()
+}
+
+// The processor finds the annotations of the main project by name, so it has no dependencies of its own.
+// Projects that use it add it with annotationProcessor(project(":processor")).
@@ -0,0 +1,602 @@
+package oop.project.cli.processor;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.*;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeMirror;
+import javax.tools.Diagnostic;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.*;
+
+/**
+ * Generates a parser class for every record or sealed interface annotated with {@code @Cli}.
+ * <p>
+ * The generated class tokenizes a line with the library's {@code Tokens}, selects sub-commands and flags with
+ * switches on the token length followed by character comparisons, converts each value with a direct call such as
+ * {@code Converters.parseInt}, and calls the record's canonical constructor. The only state it keeps is a few
+ * constant arrays and, for types that are not built in, one {@code Converter} looked up when the class is
+ * loaded. Errors are reported through {@code ParseError}, so they carry the same codes and messages as the
+ * runtime parser.
+ */
+@SupportedAnnotationTypes(CliProcessor.CLI)
+public final class CliProcessor extends AbstractProcessor {
+    static final String CLI = "oop.project.cli.annotations.Cli";
+    private static final String COMMAND = "oop.project.cli.annotations.Command";
+    private static final String POSITIONAL = "oop.project.cli.annotations.Positional";
+    private static final String FLAG = "oop.project.cli.annotations.Flag";
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment round) {
+        for (TypeElement annotation : annotations) {
+            for (Element element : round.getElementsAnnotatedWith(annotation)) {
+                try {
+                    generate(definitionOf((TypeElement) element));
+                } catch (InvalidDefinition e) {
+                    processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, e.getMessage(), e.element);
+                } catch (IOException e) {
+                    processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR,
+                            "Could not write parser: " + e.getMessage(), element);
+                }
+            }
+        }
+        return true;
+    }
+
+    /* MODEL */
+
+    /**
+     * A definition annotated with {@code @Cli}: either a single record, or a sealed interface whose permitted
+     * records are the sub-commands.
+     */
+    private record Definition(TypeElement type, String identifier, String name, String description,
+                              boolean stackTraces, Shape record, List<Shape> commands) {}
+
+    /**
+     * A record that a line is parsed into, with its components in declaration order.
+     */
+    private record Shape(TypeElement type, String identifier, List<String> aliases, String name,
+                         List<Field> fields) {}
+
+    /**
+     * A record component. The slot is its index in the record.
+     */
+    private record Field(int slot, String flag, TypeMirror type, Kind kind, boolean positional, boolean required,
+                         String help) {}
+
+    private enum Kind { INT, LONG, DOUBLE, BOOLEAN, STRING, ENUM, CONVERTER }
+
+    private static final class InvalidDefinition extends Exception {
+        private final transient Element element;
+
+        private InvalidDefinition(String message, Element element) {
+            super(message);
+            this.element = element;
+        }
+    }
+
+    private Definition definitionOf(TypeElement type) throws InvalidDefinition {
+        AnnotationMirror cli = annotation(type, CLI);
+        String identifier = (String) value(cli, "identifier");
+        String name = nameOr((String) value(cli, "name"), type);
+        String description = (String) value(cli, "description");
+        boolean stackTraces = (Boolean) value(cli, "stackTraces");
+
+        if (type.getKind() == ElementKind.RECORD) {
+            return new Definition(type, identifier, name, description, stackTraces,
+                    shapeOf(type, identifier, List.of(), name), List.of());
+        } else if (type.getKind() != ElementKind.INTERFACE || !type.getModifiers().contains(Modifier.SEALED)) {
+            throw new InvalidDefinition("@Cli must be placed on a record or a sealed interface.", type);
+        }
+
+        List<Shape> commands = new ArrayList<>();
+        Set<String> names = new HashSet<>();
+        for (TypeMirror permitted : type.getPermittedSubclasses()) {
+            TypeElement record = (TypeElement) processingEnv.getTypeUtils().asElement(permitted);
+            AnnotationMirror command = annotation(record, COMMAND);
+            if (record.getKind() != ElementKind.RECORD || command == null) {
+                throw new InvalidDefinition("Every permitted subclass of a @Cli interface must be a record "
+                        + "annotated with @Command.", record);
+            }
+            String commandIdentifier = (String) value(command, "identifier");
+            List<String> aliases = strings(value(command, "aliases"));
+            for (String commandName : concat(commandIdentifier, aliases)) {
+                if (!names.add(commandName)) {
+                    throw new InvalidDefinition("Command with name '" + commandName + "' already exists.", record);
+                }
+            }
+            commands.add(shapeOf(record, commandIdentifier, aliases,
+                    nameOr((String) value(command, "name"), record)));
+        }
+        return new Definition(type, identifier, name, description, stackTraces, null, commands);
+    }
+
+    private Shape shapeOf(TypeElement record, String identifier, List<String> aliases, String name)
+            throws InvalidDefinition {
+        List<Field> fields = new ArrayList<>();
+        Set<String> flags = new HashSet<>();
+        for (RecordComponentElement component : record.getRecordComponents()) {
+            if (fields.size() == Long.SIZE) {
+                throw new InvalidDefinition("A record can have at most " + Long.SIZE + " components.", component);
+            }
+            AnnotationMirror flag = annotation(component, FLAG);
+            AnnotationMirror positional = annotation(component, POSITIONAL);
+            String flagName = component.getSimpleName().toString();
+            boolean required = true;
+            String help = "";
+            if (flag != null && positional != null) {
+                throw new InvalidDefinition("A component cannot be both @Flag and @Positional.", component);
+            } else if (flag != null) {
+                flagName = ((String) value(flag, "name")).isEmpty() ? flagName : (String) value(flag, "name");
+                required = (Boolean) value(flag, "required");
+                help = (String) value(flag, "help");
+            } else if (positional != null) {
+                required = (Boolean) value(positional, "required");
+                help = (String) value(positional, "help");
+            }
+            if (!flags.add(flagName)) {
+                throw new InvalidDefinition("Argument with name '" + flagName + "' already exists.", component);
+            }
+            fields.add(new Field(fields.size(), flagName, component.asType(), kindOf(component),
+                    flag == null, required, help));
+        }
+        return new Shape(record, identifier, aliases, name, fields);
+    }
+
+    private Kind kindOf(RecordComponentElement component) throws InvalidDefinition {
+        TypeMirror type = component.asType();
+        switch (type.getKind()) {
+            case INT: return Kind.INT;
+            case LONG: return Kind.LONG;
+            case DOUBLE: return Kind.DOUBLE;
+            case BOOLEAN: return Kind.BOOLEAN;
+            case DECLARED: break;
+            default: throw new InvalidDefinition("Unsupported component type " + type + ".", component);
+        }
+        DeclaredType declared = (DeclaredType) type;
+        if (!declared.getTypeArguments().isEmpty()) {
+            throw new InvalidDefinition("Generic component types are not supported.", component);
+        }
+        TypeElement element = (TypeElement) declared.asElement();
+        switch (element.getQualifiedName().toString()) {
+            case "java.lang.Integer": return Kind.INT;
+            case "java.lang.Long": return Kind.LONG;
+            case "java.lang.Double": return Kind.DOUBLE;
+            case "java.lang.Boolean": return Kind.BOOLEAN;
+            case "java.lang.String": return Kind.STRING;
+            default: return element.getKind() == ElementKind.ENUM ? Kind.ENUM : Kind.CONVERTER;
+        }
+    }
+
+    /* CODE GENERATION */
+
+    private void generate(Definition definition) throws IOException {
+        TypeElement type = definition.type();
+        String packageName = processingEnv.getElementUtils().getPackageOf(type).getQualifiedName().toString();
+        String className = parserName(type);
+        String typeName = type.getQualifiedName().toString();
+        List<Shape> shapes = definition.record() != null ? List.of(definition.record()) : definition.commands();
+
+        StringBuilder out = new StringBuilder();
+        if (!packageName.isEmpty()) {
+            out.append("package ").append(packageName).append(";\n\n");
+        }
+        out.append("import oop.project.cli.CLIException;\n");
+        out.append("import oop.project.cli.Converter;\n");
+        out.append("import oop.project.cli.Converters;\n");
+        out.append("import oop.project.cli.ParseError;\n");
+        out.append("import oop.project.cli.Tokens;\n\n");
+        out.append("/**\n * Parses lines into {@link ").append(typeName).append("}.\n");
+        out.append(" * Generated from its annotations by ").append(CliProcessor.class.getName())
+                .append("; do not edit.\n */\n");
+        out.append("@javax.annotation.processing.Generated(\"").append(CliProcessor.class.getName()).append("\")\n");
+        out.append("public final class ").append(className).append(" {\n\n");
+
+        out.append("    private static final boolean STACK_TRACES = ").append(definition.stackTraces()).append(";\n");
+        out.append("    private static final String HELP = ").append(literal(help(definition))).append(";\n");
+        for (int s = 0; s < shapes.size(); s++) {
+            Shape shape = shapes.get(s);
+            out.append("    private static final String[] NAMES_").append(s).append(" = {");
+            joinLiterals(out, shape.fields().stream().map(Field::flag).toList());
+            out.append("};\n");
+            out.append("    private static final int[] POSITIONAL_").append(s).append(" = {");
+            StringJoiner positional = new StringJoiner(", ");
+            long required = 0;
+            for (Field field : shape.fields()) {
+                if (field.positional()) {
+                    positional.add(Integer.toString(field.slot()));
+                }
+                if (field.required()) {
+                    required |= 1L << field.slot();
+                }
+            }
+            out.append(positional).append("};\n");
+            out.append("    private static final long REQUIRED_").append(s).append(" = ").append(required).append("L;\n");
+            for (Field field : shape.fields()) {
+                if (field.kind() == Kind.CONVERTER) {
+                    String erased = erasure(field.type());
+                    out.append("    private static final Converter<").append(erased).append("> CONVERTER_")
+                            .append(s).append('_').append(field.slot()).append(" = Converters.forType(")
+                            .append(erased).append(".class);\n");
+                }
+            }
+        }
+
+        out.append("\n    private ").append(className).append("() {}\n\n");
+
+        out.append("    /**\n     * Returns the help message of the parser.\n     */\n");
+        out.append("    public static String help() {\n        return HELP;\n    }\n\n");
+
+        out.append("    /**\n     * Parses the input line into a new {@link ").append(type.getSimpleName()).append("}.\n");
+        out.append("     *\n     * @throws CLIException If the line fails to parse or convert.\n     */\n");
+        out.append("    public static ").append(typeName).append(" parse(CharSequence line) throws CLIException {\n");
+        out.append("        Tokens tokens = Tokens.borrow();\n");
+        out.append("        try {\n");
+        out.append("            return parse(tokens.reset(line));\n");
+        out.append("        } finally {\n");
+        out.append("            tokens.release();\n");
+        out.append("        }\n");
+        out.append("    }\n\n");
+
+        out.append("    /**\n     * Parses already tokenized input into a new {@link ").append(type.getSimpleName())
+                .append("}.\n");
+        out.append("     *\n     * @throws CLIException If the line fails to parse or convert.\n     */\n");
+        out.append("    public static ").append(typeName).append(" parse(Tokens tokens) throws CLIException {\n");
+        out.append("        if (tokens.size() == 0 || !tokens.matches(0, ").append(literal(definition.identifier()))
+                .append(")) {\n");
+        out.append("            throw fail(ParseError.Code.INCORRECT_IDENTIFIER, null, 0, tokens.size() == 0 ? -1 : "
+                + "tokens.offset(0),\n");
+        out.append("                    ").append(literal("Incorrect Identifier -> expected '"
+                + definition.identifier() + "'")).append(");\n");
+        out.append("        }\n");
+        if (definition.record() != null) {
+            out.append("        return parse0(tokens, 1);\n");
+        } else {
+            emitDispatch(out, definition);
+        }
+        out.append("    }\n");
+
+        for (int s = 0; s < shapes.size(); s++) {
+            emitRecord(out, shapes.get(s), s);
+        }
+
+        if (shapes.stream().flatMap(shape -> shape.fields().stream()).anyMatch(f -> f.kind() == Kind.CONVERTER)) {
+            out.append("""
+
+                        private static <T> T convert(Converter<T> converter, CharSequence text, int start, int end) {
+                            try {
+                                return converter.convert(text, start, end);
+                            } catch (RuntimeException e) {
+                                throw e;
+                            } catch (Exception e) {
+                                throw new IllegalArgumentException(e);
+                            }
+                        }
+                    """);
+        }
+        out.append("""
+
+                    private static boolean is(CharSequence text, int start, String name) {
+                        for (int i = 0; i < name.length(); i++) {
+                            if (text.charAt(start + i) != name.charAt(i)) {
+                                return false;
+                            }
+                        }
+                        return true;
+                    }
+
+                    private static CLIException fail(ParseError.Code code, String argument, int token, int offset,
+                                                     String detail) {
+                        return new ParseError(code, argument, token, offset, detail).toException(STACK_TRACES);
+                    }
+                }
+                """);
+
+        String qualifiedName = packageName.isEmpty() ? className : packageName + "." + className;
+        try (Writer writer = processingEnv.getFiler().createSourceFile(qualifiedName, type).openWriter()) {
+            writer.write(out.toString());
+        }
+    }
+
+    /**
+     * Emits the selection of a sub-command by the token after the identifier: a switch on its length, then
+     * character comparisons against the identifiers and aliases of that length.
+     */
+    private void emitDispatch(StringBuilder out, Definition definition) {
+        List<String> identifiers = definition.commands().stream().map(Shape::identifier).toList();
+        out.append("        if (tokens.size() < 2) {\n");
+        out.append("            throw fail(ParseError.Code.MISSING_COMMAND, null, -1, -1, ")
+                .append(literal("Missing Command -> expected one of " + String.join(", ", identifiers)))
+                .append(");\n");
+        out.append("        }\n");
+        out.append("        CharSequence text = tokens.text(1);\n");
+        out.append("        int start = tokens.start(1);\n");
+        out.append("        switch (tokens.end(1) - start) {\n");
+        SortedMap<Integer, List<String[]>> byLength = new TreeMap<>();
+        for (int s = 0; s < definition.commands().size(); s++) {
+            Shape shape = definition.commands().get(s);
+            for (String name : concat(shape.identifier(), shape.aliases())) {
+                byLength.computeIfAbsent(name.length(), length -> new ArrayList<>())
+                        .add(new String[] { name, Integer.toString(s) });
+            }
+        }
+        for (Map.Entry<Integer, List<String[]>> entry : byLength.entrySet()) {
+            out.append("            case ").append(entry.getKey()).append(" -> {\n");
+            for (String[] name : entry.getValue()) {
+                out.append("                if (is(text, start, ").append(literal(name[0])).append(")) {\n");
+                out.append("                    return parse").append(name[1]).append("(tokens, 2);\n");
+                out.append("                }\n");
+            }
+            out.append("            }\n");
+        }
+        out.append("        }\n");
+        out.append("        throw fail(ParseError.Code.UNKNOWN_COMMAND, null, 1, tokens.offset(1),\n");
+        out.append("                \"Unknown Command -> \" + tokens.toString(1));\n");
+    }
+
+    /**
+     * Emits the method that parses the tokens after a record's identifier, with the same rules as the runtime
+     * parser: flags in any order as {@code --name value} or {@code --name=value}, positional values filling the
+     * next positional component that was not given as a flag, and a lone {@code --} ending flags.
+     */
+    private void emitRecord(StringBuilder out, Shape shape, int s) {
+        String typeName = shape.type().getQualifiedName().toString();
+        List<Field> fields = shape.fields();
+        out.append("\n    private static ").append(typeName).append(" parse").append(s)
+                .append("(Tokens tokens, int from) throws CLIException {\n");
+        for (Field field : fields) {
+            out.append("        ").append(field.type()).append(" value").append(field.slot()).append(" = ")
+                    .append(defaultOf(field.type())).append(";\n");
+        }
+        out.append("""
+                        long seen = 0;
+                        int next = 0;
+                        boolean flags = true;
+                        for (int i = from; i < tokens.size(); i++) {
+                            CharSequence text = tokens.text(i);
+                            int start = tokens.start(i);
+                            int end = tokens.end(i);
+                            int slot;
+                            if (flags && end - start >= 2 && text.charAt(start) == '-' && text.charAt(start + 1) == '-') {
+                                if (end - start == 2) {
+                                    flags = false;
+                                    continue;
+                                }
+                                int separator = start + 2;
+                                while (separator < end && text.charAt(separator) != '=') {
+                                    separator++;
+                                }
+                                slot = switch (separator - start - 2) {
+                """);
+        SortedMap<Integer, List<Field>> byLength = new TreeMap<>();
+        for (Field field : fields) {
+            byLength.computeIfAbsent(field.flag().length(), length -> new ArrayList<>()).add(field);
+        }
+        for (Map.Entry<Integer, List<Field>> entry : byLength.entrySet()) {
+            out.append("                    case ").append(entry.getKey()).append(" -> ");
+            for (Field field : entry.getValue()) {
+                out.append("is(text, start + 2, ").append(literal(field.flag())).append(") ? ")
+                        .append(field.slot()).append(" : ");
+            }
+            out.append("-1;\n");
+        }
+        out.append("                    default -> -1;\n");
+        out.append("                };\n");
+        out.append("""
+                                if (slot < 0) {
+                                    throw fail(ParseError.Code.UNKNOWN_ARGUMENT, null, i, tokens.offset(i),
+                                            "Argument does not exist -> " + text.subSequence(start + 2, separator));
+                                } else if ((seen & (1L << slot)) != 0) {
+                                    throw fail(ParseError.Code.DUPLICATE_ARGUMENT, NAMES_%1$d[slot], i, tokens.offset(i),
+                                            "Duplicate Argument -> " + NAMES_%1$d[slot]);
+                                } else if (separator < end) {
+                                    start = separator + 1;
+                                } else if (i + 1 >= tokens.size()) {
+                                    throw fail(ParseError.Code.MISSING_VALUE, NAMES_%1$d[slot], i, tokens.offset(i),
+                                            "Missing Value -> " + NAMES_%1$d[slot]);
+                                } else {
+                                    i++;
+                                    text = tokens.text(i);
+                                    start = tokens.start(i);
+                                    end = tokens.end(i);
+                                }
+                            } else {
+                                while (next < POSITIONAL_%1$d.length && (seen & (1L << POSITIONAL_%1$d[next])) != 0) {
+                                    next++;
+                                }
+                                if (next >= POSITIONAL_%1$d.length) {
+                                    throw fail(ParseError.Code.UNEXPECTED_ARGUMENT, null, i, tokens.offset(i),
+                                            "Unexpected Argument -> " + tokens.toString(i));
+                                }
+                                slot = POSITIONAL_%1$d[next++];
+                            }
+                            try {
+                                switch (slot) {
+                """.formatted(s));
+        for (Field field : fields) {
+            out.append("                    case ").append(field.slot()).append(" -> value").append(field.slot())
+                    .append(" = ").append(conversion(field, s)).append(";\n");
+        }
+        out.append("                    default -> throw new IllegalStateException();\n");
+        out.append("""
+                                }
+                            } catch (RuntimeException e) {
+                                throw fail(ParseError.Code.CONVERSION_FAILED, NAMES_%1$d[slot], i, tokens.offset(i),
+                                        TYPES_%1$d[slot]);
+                            }
+                            seen |= 1L << slot;
+                        }
+                        if ((seen & REQUIRED_%1$d) != REQUIRED_%1$d) {
+                            int missing = Long.numberOfTrailingZeros(REQUIRED_%1$d & ~seen);
+                            throw fail(ParseError.Code.MISSING_REQUIRED_ARGUMENT, NAMES_%1$d[missing], -1, -1,
+                                    "Missing Required Argument -> " + NAMES_%1$d[missing]);
+                        }
+                """.formatted(s));
+        out.append("        return new ").append(typeName).append("(");
+        StringJoiner arguments = new StringJoiner(", ");
+        for (Field field : fields) {
+            arguments.add("value" + field.slot());
+        }
+        out.append(arguments).append(");\n");
+        out.append("    }\n");
+        out.append("\n    private static final String[] TYPES_").append(s).append(" = {");
+        joinLiterals(out, fields.stream().map(field -> typeString(field.type())).toList());
+        out.append("};\n");
+    }
+
+    private String conversion(Field field, int s) {
+        return switch (field.kind()) {
+            case INT -> "Converters.parseInt(text, start, end)";
+            case LONG -> "Converters.parseLong(text, start, end)";
+            case DOUBLE -> "Converters.parseDouble(text, start, end)";
+            case BOOLEAN -> "Converters.parseBoolean(text, start, end)";
+            case STRING -> "text.subSequence(start, end).toString()";
+            case ENUM -> erasure(field.type()) + ".valueOf(text.subSequence(start, end).toString())";
+            case CONVERTER -> "convert(CONVERTER_" + s + "_" + field.slot() + ", text, start, end)";
+        };
+    }
+
+    /* HELP MESSAGE */
+
+    private String help(Definition definition) {
+        StringBuilder help = new StringBuilder();
+        help.append(definition.name()).append("\n\n");
+        if (!definition.description().isEmpty()) {
+            help.append(definition.description()).append("\n\n");
+        }
+        help.append("Usage: ").append(definition.identifier())
+                .append(definition.record() != null ? " [ARGUMENTS]\n" : " COMMAND [ARGUMENTS]\n");
+
+        List<String[]> rows = new ArrayList<>();
+        if (definition.record() != null) {
+            for (Field field : definition.record().fields()) {
+                String description = "Type: " + typeName(field.type())
+                        + (field.required() ? ", Required: True" : ", Required: False")
+                        + (field.help().isEmpty() ? "" : ", MSG: " + field.help());
+                rows.add(new String[] { field.positional() ? field.flag() : "--" + field.flag(), description });
+            }
+        } else {
+            for (Shape command : definition.commands()) {
+                rows.add(new String[] { String.join(", ", concat(command.identifier(), command.aliases())),
+                        command.name() });
+            }
+        }
+        if (!rows.isEmpty()) {
+            int column = rows.stream().mapToInt(row -> row[0].length()).max().orElse(0) + 2;
+            help.append('\n').append(definition.record() != null ? "Arguments:\n" : "Commands:\n");
+            for (String[] row : rows) {
+                help.append("  ").append(row[0]).append(" ".repeat(column - row[0].length())).append(row[1])
+                        .append('\n');
+            }
+        }
+        return help.toString();
+    }
+
+    /* HELPERS */
+
+    private static AnnotationMirror annotation(Element element, String name) {
+        for (AnnotationMirror mirror : element.getAnnotationMirrors()) {
+            if (((TypeElement) mirror.getAnnotationType().asElement()).getQualifiedName().contentEquals(name)) {
+                return mirror;
+            }
+        }
+        return null;
+    }
+
+    private Object value(AnnotationMirror mirror, String name) {
+        for (Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> entry
+                : processingEnv.getElementUtils().getElementValuesWithDefaults(mirror).entrySet()) {
+            if (entry.getKey().getSimpleName().contentEquals(name)) {
+                return entry.getValue().getValue();
+            }
+        }
+        throw new IllegalStateException("Annotation has no member '" + name + "'.");
+    }
+
+    private static List<String> strings(Object values) {
+        List<String> strings = new ArrayList<>();
+        for (Object value : (List<?>) values) {
+            strings.add((String) ((AnnotationValue) value).getValue());
+        }
+        return strings;
+    }
+
+    private static List<String> concat(String first, List<String> rest) {
+        List<String> all = new ArrayList<>();
+        all.add(first);
+        all.addAll(rest);
+        return all;
+    }
+
+    private static String nameOr(String name, TypeElement type) {
+        return name.isEmpty() ? type.getSimpleName().toString() : name;
+    }
+
+    /**
+     * Names the parser after the type and any enclosing types, such as {@code Outer_CalcParser} for
+     * {@code Outer.Calc}.
+     */
+    private static String parserName(TypeElement type) {
+        String name = type.getSimpleName().toString();
+        for (Element enclosing = type.getEnclosingElement(); enclosing instanceof TypeElement;
+             enclosing = enclosing.getEnclosingElement()) {
+            name = enclosing.getSimpleName() + "_" + name;
+        }
+        return name + "Parser";
+    }
+
+    private String erasure(TypeMirror type) {
+        return processingEnv.getTypeUtils().erasure(type).toString();
+    }
+
+    private static String defaultOf(TypeMirror type) {
+        return switch (type.getKind()) {
+            case INT, LONG, DOUBLE -> "0";
+            case BOOLEAN -> "false";
+            default -> "null";
+        };
+    }
+
+    /**
+     * Returns the simple name of a type, as shown in help messages.
+     */
+    private String typeName(TypeMirror type) {
+        if (type.getKind().isPrimitive()) {
+            return type.toString();
+        }
+        return processingEnv.getTypeUtils().asElement(type).getSimpleName().toString();
+    }
+
+    /**
+     * Returns the text of {@code Class.toString()} for the type, which the runtime parser uses in conversion
+     * error messages.
+     */
+    private String typeString(TypeMirror type) {
+        if (type.getKind().isPrimitive()) {
+            return type.toString();
+        }
+        TypeElement element = (TypeElement) processingEnv.getTypeUtils().asElement(type);
+        String binaryName = processingEnv.getElementUtils().getBinaryName(element).toString();
+        return (element.getKind().isInterface() ? "interface " : "class ") + binaryName;
+    }
+
+    private String literal(String value) {
+        return processingEnv.getElementUtils().getConstantExpression(value);
+    }
+
+    private void joinLiterals(StringBuilder out, List<String> values) {
+        StringJoiner joiner = new StringJoiner(", ");
+        for (String value : values) {
+            joiner.add(literal(value));
+        }
+        out.append(joiner);
+    }
+}
@@ -0,0 +1,71 @@
+package oop.project.cli;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the phases of parsing one line in isolation, so a regression can be traced to tokenizing, command
+ * lookup, conversion or validation.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class PhasesBenchmark {
+
+    private final Tokens tokens = new Tokens();
+    private final String line = "sub --left 1.5 --right \"2.5\" 'quoted words' plain\\ escaped";
+    private final String number = "x 12345 -3.25e2 2024-01-01";
+
+    private CommandTrie trie;
+    private Argument<Integer> validated;
+
+    @Setup
+    public void setup() {
+        trie = new CommandTrie(List.of(List.of("add"), List.of("div"), List.of("sqrt", "root"), List.of("status"),
+                List.of("stash"), List.of("start")));
+        validated = new Argument.Builder<>("number", int.class)
+                .intValidationFunction(value -> value >= 0)
+                .build();
+    }
+
+    @Benchmark
+    public int tokenize() throws CLIException {
+        return tokens.reset(line).size();
+    }
+
+    @Benchmark
+    public int dispatch() {
+        return trie.find("calc sq 4", 5, 7);
+    }
+
+    @Benchmark
+    public int convertInt() {
+        return Converters.parseInt(number, 2, 7);
+    }
+
+    @Benchmark
+    public double convertDouble() {
+        return Converters.parseDouble(number, 8, 15);
+    }
+
+    @Benchmark
+    public LocalDate convertDate() {
+        return Converters.parseLocalDate(number, 16, 26);
+    }
+
+    @Benchmark
+    public LocalDate convertDateJdk() {
+        return LocalDate.parse(number.subSequence(16, 26));
+    }
+
+    @Benchmark
+    public int validate() throws CLIException {
+        return validated.validateInt(number, 2, 7);
+    }
+}
@@ -0,0 +1,87 @@
+package oop.project.cli;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.StringJoiner;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures how parsing scales with the size of the definition: the number of positional arguments, the number
+ * of flags given out of declaration order, and the number of sub-commands to choose from. The completion
+ * benchmarks complete the prefix of the last command and of the last flag.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ScalingBenchmark {
+
+    @Param({"1", "8", "64"})
+    public int size;
+
+    private CompiledParser arguments;
+    private String positionalLine;
+    private String flagLine;
+    private CompiledParser commands;
+    private String commandLine;
+    private String commandPrefix;
+    private String flagPrefix;
+
+    @Setup
+    public void setup() {
+        ArgumentParser argparse = new ArgumentParser("Arguments", "tool");
+        StringJoiner positional = new StringJoiner(" ", "tool ", "");
+        StringJoiner flags = new StringJoiner(" ", "tool ", "");
+        for (int i = 0; i < size; i++) {
+            argparse.addArgument(new Argument.Builder<>("arg" + i, int.class)
+                    .required(Boolean.TRUE)
+                    .build());
+            positional.add(Integer.toString(i));
+            // Reverse order, so every flag has to be looked up rather than matched in sequence.
+            flags.add("--arg" + (size - 1 - i)).add(Integer.toString(i));
+        }
+        arguments = argparse.compile();
+        positionalLine = positional.toString();
+        flagLine = flags.toString();
+
+        ArgumentParser tree = new ArgumentParser("Commands", "tool");
+        for (int i = 0; i < size; i++) {
+            Command command = new Command("Command " + i, "command" + i);
+            command.addArgument(new Argument.Builder<>("value", int.class)
+                    .required(Boolean.TRUE)
+                    .build());
+            tree.addCommand(command);
+        }
+        commands = tree.compile();
+        commandLine = "tool command" + (size - 1) + " 1";
+        commandPrefix = "tool command" + (size - 1);
+        flagPrefix = "tool --arg" + (size - 1);
+    }
+
+    @Benchmark
+    public ParseResult positional() throws CLIException {
+        return arguments.parse(positionalLine);
+    }
+
+    @Benchmark
+    public ParseResult flags() throws CLIException {
+        return arguments.parse(flagLine);
+    }
+
+    @Benchmark
+    public ParseResult commands() throws CLIException {
+        return commands.parse(commandLine);
+    }
+
+    @Benchmark
+    public CompiledParser.Completions completeCommand() {
+        return commands.complete(commandPrefix, commandPrefix.length());
+    }
+
+    @Benchmark
+    public CompiledParser.Completions completeFlag() {
+        return arguments.complete(flagPrefix, flagPrefix.length());
+    }
+}
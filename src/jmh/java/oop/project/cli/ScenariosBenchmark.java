@@ -0,0 +1,44 @@
+package oop.project.cli;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures each path of {@link Scenarios} end to end: tokenizing, command lookup, conversion, validation and
+ * building the result map.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ScenariosBenchmark {
+
+    @Benchmark
+    public Map<String, Object> add() throws Exception {
+        return Scenarios.dispatch("add 1 2");
+    }
+
+    @Benchmark
+    public Map<String, Object> sub() throws Exception {
+        return Scenarios.dispatch("sub --left 1.0 --right 2.0");
+    }
+
+    @Benchmark
+    public Map<String, Object> sqrt() throws Exception {
+        return Scenarios.dispatch("sqrt 16");
+    }
+
+    @Benchmark
+    public Map<String, Object> calc() throws Exception {
+        return Scenarios.dispatch("calc sqrt 16");
+    }
+
+    @Benchmark
+    public Map<String, Object> date() throws Exception {
+        return Scenarios.dispatch("date 2024-01-01");
+    }
+}
@@ -1,12 +1,19 @@
 package oop.project.cli;
 
-import java.lang.reflect.Method;
-import java.lang.reflect.Constructor;
+import java.time.Duration;
 
 /**
  * Represents an argument with configurable options.
+ * <p>
+ * Arguments declared with a primitive type such as {@code int.class} are parsed without boxing and stored in
+ * primitive slots of the {@link ParseResult}, where they are read with accessors like
+ * {@link ParseResult#getInt(String)}.
+ * <p>
+ * An argument whose {@link Builder#arity(int, int) arity} allows more than one value collects every value given
+ * for it, read with {@link ParseResult#getList(String)}; values of primitive types are kept unboxed in a
+ * {@link PrimitiveList}.
  *
- * @param <T> The type of the argument.
+ * @param <T> The type of the argument, or of each of its values if it takes several.
  */
 public class Argument<T> {
     // Required attributes
@@ -17,7 +24,44 @@ public class Argument<T> {
     private final Boolean required;
     private final String helpMsg;
     private final ValidationFunction<T> validationFunction;
-    private final String customTypeConversionMethod;
+    private final Converter<T> converter;
+    private final boolean customConverter;
+    private final Duration asyncTimeout;
+    private final ConversionCache<T> cache;
+    private final int minValues;
+    private final int maxValues;
+
+    // Primitive specialization
+    private final Primitive primitive;
+    private final ValidationFunction.OfInt intValidationFunction;
+    private final ValidationFunction.OfLong longValidationFunction;
+    private final ValidationFunction.OfDouble doubleValidationFunction;
+
+    /**
+     * The primitive types an argument can be specialized for.
+     */
+    enum Primitive { INT, LONG, DOUBLE, BOOLEAN }
+
+    /**
+     * The statistics of an argument's conversion cache.
+     *
+     * @param maxSize The most values the cache holds.
+     * @param size The number of values the cache holds.
+     * @param hits The number of tokens whose value was found in the cache.
+     * @param misses The number of tokens that were converted.
+     * @param evictions The number of values removed to make room for newer ones.
+     */
+    public record CacheStats(int maxSize, int size, long hits, long misses, long evictions) {
+
+        /**
+         * Returns the fraction of lookups that were hits.
+         * @return The hit rate, or {@code 0} if nothing was looked up.
+         */
+        public double hitRate() {
+            long lookups = hits + misses;
+            return lookups == 0 ? 0.0 : (double) hits / lookups;
+        }
+    }
 
     /* CONSTRUCTORS */
 
@@ -27,7 +71,55 @@ public class Argument<T> {
         this.required = builder.required;
         this.helpMsg = builder.helpMsg;
         this.validationFunction = builder.validationFunction;
-        this.customTypeConversionMethod = builder.customTypeConversionMethod;
+        this.asyncTimeout = builder.asyncTimeout;
+        this.minValues = builder.minValues;
+        this.maxValues = builder.maxValues;
+        if (maxValues > 1 && asyncTimeout != null) {
+            throw new IllegalArgumentException("Argument '" + name + "' takes several values and cannot be "
+                    + "validated asynchronously.");
+        }
+        if (builder.converter != null) {
+            this.converter = builder.converter;
+            this.customConverter = true;
+        } else if (builder.customTypeConversionMethod != null) {
+            this.converter = Converters.forMethod(type, builder.customTypeConversionMethod);
+            this.customConverter = true;
+        } else {
+            this.converter = Converters.forType(type);
+            this.customConverter = false;
+        }
+
+        this.primitive = primitiveOf(type);
+        if (builder.cacheSize > 0 && primitive != null) {
+            throw new IllegalArgumentException("Conversions of '" + name + "' (" + type.getSimpleName()
+                    + ") cannot be cached, because primitive values are converted without allocating.");
+        } else if (builder.cacheSize > 0 && !ConversionCache.isImmutable(type)) {
+            throw new IllegalArgumentException("Conversions of '" + name + "' (" + type.getSimpleName()
+                    + ") cannot be cached, because the type is not declared immutable.");
+        }
+        this.cache = builder.cacheSize > 0 ? new ConversionCache<>(builder.cacheSize) : null;
+        this.intValidationFunction = builder.intValidationFunction;
+        this.longValidationFunction = builder.longValidationFunction;
+        this.doubleValidationFunction = builder.doubleValidationFunction;
+        if ((intValidationFunction != null && primitive != Primitive.INT)
+                || (longValidationFunction != null && primitive != Primitive.LONG)
+                || (doubleValidationFunction != null && primitive != Primitive.DOUBLE)) {
+            throw new IllegalArgumentException("Primitive validation function does not match the type of '"
+                    + name + "' (" + type.getSimpleName() + ").");
+        }
+    }
+
+    private static Primitive primitiveOf(Class<?> type) {
+        if (type == int.class) {
+            return Primitive.INT;
+        } else if (type == long.class) {
+            return Primitive.LONG;
+        } else if (type == double.class) {
+            return Primitive.DOUBLE;
+        } else if (type == boolean.class) {
+            return Primitive.BOOLEAN;
+        }
+        return null;
     }
 
     /* GETTERS */
@@ -53,6 +145,76 @@ public class Argument<T> {
      */
     public Boolean required() { return required; }
 
+    /**
+     * Retrieves the help message of the argument.
+     *
+     * @return The help message, or {@code null} if none was given.
+     */
+    public String helpMsg() { return helpMsg; }
+
+    /**
+     * Retrieves the primitive type this argument is specialized for.
+     *
+     * @return The primitive kind, or {@code null} if the argument has a reference type.
+     */
+    Primitive primitive() { return primitive; }
+
+    /**
+     * Returns whether the validation of this argument is deferred while parsing a line and run asynchronously,
+     * which is the case if a timeout was given and the argument has a validation function.
+     */
+    boolean validatesAsync() {
+        return asyncTimeout != null && (validationFunction != null || intValidationFunction != null
+                || longValidationFunction != null || doubleValidationFunction != null);
+    }
+
+    /**
+     * Returns how long an asynchronous validation may run before the value is rejected.
+     *
+     * @return The timeout, or {@code null} if the argument is validated synchronously.
+     */
+    public Duration asyncTimeout() { return asyncTimeout; }
+
+    /**
+     * Returns the fewest values the argument takes when it is given.
+     * @return The minimum number of values, {@code 1} unless an arity was set.
+     */
+    public int minValues() { return minValues; }
+
+    /**
+     * Returns the most values the argument takes.
+     * @return The maximum number of values, {@code 1} unless an arity was set, or {@link Integer#MAX_VALUE} if
+     *         the number is unbounded.
+     */
+    public int maxValues() { return maxValues; }
+
+    /**
+     * Returns whether the argument takes several values, which are collected into a list.
+     * @return {@code true} if the arity allows more than one value.
+     */
+    public boolean multiple() { return maxValues > 1; }
+
+    /**
+     * Describes the arity, such as {@code "2 to 5"} or {@code "at least 1"}, for help and error messages.
+     */
+    String arity() {
+        if (maxValues == Integer.MAX_VALUE) {
+            return "at least " + minValues;
+        } else if (minValues == maxValues) {
+            return String.valueOf(minValues);
+        }
+        return minValues + " to " + maxValues;
+    }
+
+    /**
+     * Returns the statistics of the argument's conversion cache.
+     *
+     * @return The statistics, or {@code null} if conversions are not cached.
+     */
+    public CacheStats cacheStats() {
+        return cache == null ? null : cache.stats();
+    }
+
     /* ARGUMENT BUILDER */
 
     /**
@@ -69,7 +231,15 @@ public class Argument<T> {
         private Boolean required = Boolean.FALSE;
         private String helpMsg = null;
         private ValidationFunction<T> validationFunction = null;
+        private Converter<T> converter = null;
         private String customTypeConversionMethod = null;
+        private ValidationFunction.OfInt intValidationFunction = null;
+        private ValidationFunction.OfLong longValidationFunction = null;
+        private ValidationFunction.OfDouble doubleValidationFunction = null;
+        private Duration asyncTimeout = null;
+        private int cacheSize = 0;
+        private int minValues = 1;
+        private int maxValues = 1;
 
         /**
          * Constructs a new builder with the specified name and type.
@@ -116,11 +286,128 @@ public class Argument<T> {
         }
 
         /**
-         * Sets the custom type conversion method for the argument.
+         * Sets an unboxed validation function for an {@code int.class} argument.
+         *
+         * @param intValidationFunction The validation function to set.
+         * @return This builder instance for method chaining.
+         */
+        public Builder<T> intValidationFunction(ValidationFunction.OfInt intValidationFunction) {
+            this.intValidationFunction = intValidationFunction;
+            return this;
+        }
+
+        /**
+         * Sets an unboxed validation function for a {@code long.class} argument.
+         *
+         * @param longValidationFunction The validation function to set.
+         * @return This builder instance for method chaining.
+         */
+        public Builder<T> longValidationFunction(ValidationFunction.OfLong longValidationFunction) {
+            this.longValidationFunction = longValidationFunction;
+            return this;
+        }
+
+        /**
+         * Sets an unboxed validation function for a {@code double.class} argument.
+         *
+         * @param doubleValidationFunction The validation function to set.
+         * @return This builder instance for method chaining.
+         */
+        public Builder<T> doubleValidationFunction(ValidationFunction.OfDouble doubleValidationFunction) {
+            this.doubleValidationFunction = doubleValidationFunction;
+            return this;
+        }
+
+        /**
+         * Runs the validation function asynchronously when parsing a line. Instead of running as soon as its token
+         * is converted, the function runs after the whole line is converted, on its own virtual thread, concurrently
+         * with the asynchronous validation functions of the other arguments. A function that does not return within
+         * the timeout fails the line with {@link ParseError.Code#VALIDATION_TIMEOUT}, and the first rejected or late
+         * value cancels the validations still running.
+         * <p>
+         * Meant for expensive checks, such as checksums or lookups in large tables. Cheap functions are faster
+         * validated synchronously, which is the default. {@link Argument#validate(String)} always validates
+         * synchronously.
+         *
+         * @param timeout How long the validation function may run.
+         * @return This builder instance for method chaining.
+         * @throws IllegalArgumentException If the timeout is not positive.
+         */
+        public Builder<T> asyncValidation(Duration timeout) {
+            if (timeout.isNegative() || timeout.isZero()) {
+                throw new IllegalArgumentException("Validation timeout must be positive.");
+            }
+            this.asyncTimeout = timeout;
+            return this;
+        }
+
+        /**
+         * Caches converted values by their token, so a token that repeats is converted once. The cache holds at
+         * most {@code maxSize} values and evicts the least recently used one when full. It is shared by every
+         * parse of the argument, including concurrent ones.
+         * <p>
+         * Because parse results share the cached values, the type must be immutable: a JDK value type such as
+         * {@code String}, {@code BigDecimal} or {@code LocalDate}, an enum, or a type annotated with
+         * {@link oop.project.cli.annotations.Immutable}. Worth it for expensive conversions, such as dates or
+         * custom types; primitive types are already converted without allocating and cannot be cached.
+         *
+         * @param maxSize The most values the cache holds.
+         * @return This builder instance for method chaining.
+         * @throws IllegalArgumentException If the size is not positive.
+         */
+        public Builder<T> cacheConversions(int maxSize) {
+            if (maxSize <= 0) {
+                throw new IllegalArgumentException("Cache size must be positive.");
+            }
+            this.cacheSize = maxSize;
+            return this;
+        }
+
+        /**
+         * Sets how many values the argument takes. An argument that takes more than one value collects them in
+         * the order given: as a flag it may be repeated, as in {@code --file a --file b}, and as a positional
+         * argument it takes consecutive values until its maximum is reached, as in {@code sum 1 2 3}. A positional
+         * argument with an unbounded maximum therefore takes every remaining value, and is best declared last.
+         * <p>
+         * The minimum only applies when the argument is given; use {@link #required(Boolean)} to require it.
+         * Values are converted and validated one by one, with the validation function of the argument's type.
+         *
+         * @param min The fewest values, at least {@code 0}.
+         * @param max The most values, or {@link Integer#MAX_VALUE} for no limit.
+         * @return This builder instance for method chaining.
+         * @throws IllegalArgumentException If the minimum is negative, or the maximum is less than {@code 1} or
+         *                                  than the minimum.
+         */
+        public Builder<T> arity(int min, int max) {
+            if (min < 0 || max < 1 || min > max) {
+                throw new IllegalArgumentException("Arity must satisfy 0 <= min <= max and max >= 1.");
+            }
+            this.minValues = min;
+            this.maxValues = max;
+            return this;
+        }
+
+        /**
+         * Sets the custom converter for the argument, replacing the default converter of its type.
+         *
+         * @param converter The converter to set, such as {@code LocalDate::parse}.
+         * @return This builder instance for method chaining.
+         */
+        public Builder<T> converter(Converter<T> converter) {
+            this.converter = converter;
+            return this;
+        }
+
+        /**
+         * Sets the custom type conversion method for the argument. The method must be a public static method of
+         * the argument's type taking a {@code CharSequence} or {@code String}. It is resolved once when the
+         * argument is built.
          *
          * @param customTypeConversionMethod The custom type conversion method to set.
          * @return This builder instance for method chaining.
+         * @deprecated Use {@link #converter(Converter)} with a method reference instead.
          */
+        @Deprecated
         public Builder<T> customTypeConversionMethod(String customTypeConversionMethod) {
             this.customTypeConversionMethod = customTypeConversionMethod;
             return this;
@@ -130,6 +417,10 @@ public class Argument<T> {
          * Builds and returns an instance of the {@link Argument} class with the configured options.
          *
          * @return An instance of the {@link Argument} class.
+         * @throws IllegalArgumentException if no converter can be resolved for the argument's type, a
+         *                                  primitive validation function does not match the argument's type,
+         *                                  conversions are cached for a type that is not declared immutable, or
+         *                                  an argument that takes several values is validated asynchronously.
          */
         public Argument<T> build() {
             return new Argument<>(this);
@@ -146,48 +437,390 @@ public class Argument<T> {
      * @throws ValidationCustomConversionException if custom type conversion fails.
      * @throws ValidationDefaultConversionException if default type conversion fails.
      * @throws ValidationFunctionException if the validation function returns false.
-     * @throws NullPointerException if the parsed input is null.
-     * @throws Exception if any other exception occurs during validation and parsing.
      */
-    public T validate(String input) throws Exception {
-        T parsedInput = null;
-        if(customTypeConversionMethod != null) {
+    public T validate(String input) throws CLIException {
+        return validate(input, 0, input.length());
+    }
+
+    /**
+     * Validates the token between {@code start} and {@code end} of a line and returns the parsed result.
+     * The token is only copied into a string if the argument's converter needs one.
+     *
+     * @param line The line holding the token.
+     * @param start The start of the token, inclusive.
+     * @param end The end of the token, exclusive.
+     * @return The parsed result of type T.
+     * @throws ValidationCustomConversionException if custom type conversion fails or returns null.
+     * @throws ValidationDefaultConversionException if default type conversion fails.
+     * @throws ValidationFunctionException if the validation function returns false.
+     */
+    @SuppressWarnings("unchecked")
+    public T validate(CharSequence line, int start, int end) throws CLIException {
+        if (primitive == null) {
+            Object[] value = new Object[1];
+            check(storeValue(line, start, end, value, null, 0, null, true));
+            return (T) value[0];
+        }
+        long[] value = new long[1];
+        check(storeValue(line, start, end, null, value, 0, null, true));
+        Object boxed = switch (primitive) {
+            case INT -> (int) value[0];
+            case LONG -> value[0];
+            case DOUBLE -> Double.longBitsToDouble(value[0]);
+            case BOOLEAN -> value[0] != 0;
+        };
+        return (T) boxed;
+    }
+
+    /**
+     * Validates the token between {@code start} and {@code end} of a line for an {@code int.class}
+     * argument and returns the unboxed result.
+     *
+     * @param line The line holding the token.
+     * @param start The start of the token, inclusive.
+     * @param end The end of the token, exclusive.
+     * @return The parsed value.
+     * @throws ValidationException if conversion fails or a validation function returns false.
+     * @throws IllegalStateException if the argument is not an {@code int.class} argument.
+     */
+    public int validateInt(CharSequence line, int start, int end) throws CLIException {
+        requirePrimitive(Primitive.INT);
+        long[] value = new long[1];
+        check(storeValue(line, start, end, null, value, 0, null, true));
+        return (int) value[0];
+    }
+
+    /**
+     * Validates the token between {@code start} and {@code end} of a line for a {@code long.class}
+     * argument and returns the unboxed result.
+     *
+     * @param line The line holding the token.
+     * @param start The start of the token, inclusive.
+     * @param end The end of the token, exclusive.
+     * @return The parsed value.
+     * @throws ValidationException if conversion fails or a validation function returns false.
+     * @throws IllegalStateException if the argument is not a {@code long.class} argument.
+     */
+    public long validateLong(CharSequence line, int start, int end) throws CLIException {
+        requirePrimitive(Primitive.LONG);
+        long[] value = new long[1];
+        check(storeValue(line, start, end, null, value, 0, null, true));
+        return value[0];
+    }
+
+    /**
+     * Validates the token between {@code start} and {@code end} of a line for a {@code double.class}
+     * argument and returns the unboxed result.
+     *
+     * @param line The line holding the token.
+     * @param start The start of the token, inclusive.
+     * @param end The end of the token, exclusive.
+     * @return The parsed value.
+     * @throws ValidationException if conversion fails or a validation function returns false.
+     * @throws IllegalStateException if the argument is not a {@code double.class} argument.
+     */
+    public double validateDouble(CharSequence line, int start, int end) throws CLIException {
+        requirePrimitive(Primitive.DOUBLE);
+        long[] value = new long[1];
+        check(storeValue(line, start, end, null, value, 0, null, true));
+        return Double.longBitsToDouble(value[0]);
+    }
+
+    /**
+     * Validates the token between {@code start} and {@code end} of a line for a {@code boolean.class}
+     * argument and returns the unboxed result.
+     *
+     * @param line The line holding the token.
+     * @param start The start of the token, inclusive.
+     * @param end The end of the token, exclusive.
+     * @return The parsed value.
+     * @throws ValidationException if conversion fails or the validation function returns false.
+     * @throws IllegalStateException if the argument is not a {@code boolean.class} argument.
+     */
+    public boolean validateBoolean(CharSequence line, int start, int end) throws CLIException {
+        requirePrimitive(Primitive.BOOLEAN);
+        long[] value = new long[1];
+        check(storeValue(line, start, end, null, value, 0, null, true));
+        return value[0] != 0;
+    }
+
+    /**
+     * Converts and validates the token between {@code start} and {@code end} of a line and stores the result at
+     * the slot, as {@link #storeValue}. For an argument that takes several values, the result is appended to the
+     * list at the slot of {@code values} instead, which is created for the first value; the validation function
+     * always runs.
+     *
+     * @return {@code null} if the value was stored, or the reason the token was rejected.
+     */
+    ParseError.Code store(CharSequence line, int start, int end, Object[] values, long[] primitives, int slot,
+                          PhaseTimer timer, boolean validate) {
+        return maxValues > 1
+                ? storeElement(line, start, end, values, slot, timer)
+                : storeValue(line, start, end, values, primitives, slot, timer, validate);
+    }
+
+    @SuppressWarnings("unchecked")
+    private ParseError.Code storeElement(CharSequence line, int start, int end, Object[] values, int slot,
+                                         PhaseTimer timer) {
+        ParseError.Code failure;
+        if (primitive == null) {
+            ReferenceList<T> list = (ReferenceList<T>) values[slot];
+            if (list == null) {
+                values[slot] = list = new ReferenceList<>();
+            } else if (list.size() >= maxValues) {
+                return ParseError.Code.ARITY_MISMATCH;
+            }
+            failure = storeValue(line, start, end, list.reserve(), null, list.size(), timer, true);
+            if (failure == null) {
+                list.added();
+            }
+        } else {
+            PrimitiveList list = (PrimitiveList) values[slot];
+            if (list == null) {
+                values[slot] = list = new PrimitiveList(primitive);
+            } else if (list.size() >= maxValues) {
+                return ParseError.Code.ARITY_MISMATCH;
+            }
+            failure = storeValue(line, start, end, null, list.reserve(), list.size(), timer, true);
+            if (failure == null) {
+                list.added();
+            }
+        }
+        return failure;
+    }
+
+    /**
+     * Returns the number of values collected at the slot of an argument that takes several values.
+     */
+    int count(Object[] values, int slot) {
+        Object list = values[slot];
+        if (list == null) {
+            return 0;
+        }
+        return list instanceof PrimitiveList primitives ? primitives.size() : ((ReferenceList<?>) list).size();
+    }
+
+    /**
+     * Converts and validates the token between {@code start} and {@code end} of a line and stores the result at
+     * the slot: in {@code values} for reference types, or in {@code primitives} for primitive types, with doubles
+     * stored as raw bits and booleans as 0 or 1.
+     * <p>
+     * Rejected tokens are reported through the return value instead of an exception. The built-in {@code int},
+     * {@code long} and {@code boolean} conversions check the token first, so they reject it without throwing at
+     * all. A validation function that throws rejects the value.
+     * <p>
+     * If a timer is given, the end of the conversion is marked on it, so the caller can split the time spent
+     * converting from the time spent validating. If {@code validate} is {@code false}, the value is stored
+     * without running the validation function, which the caller then runs through {@link #validateStored}.
+     *
+     * @return {@code null} if the value was stored, or the reason the token was rejected.
+     */
+    private ParseError.Code storeValue(CharSequence line, int start, int end, Object[] values, long[] primitives,
+                                       int slot, PhaseTimer timer, boolean validate) {
+        try {
+            if (primitive == null) {
+                return storeReference(line, start, end, values, slot, timer, validate);
+            }
+            return switch (primitive) {
+                case INT -> storeInt(line, start, end, primitives, slot, timer, validate);
+                case LONG -> storeLong(line, start, end, primitives, slot, timer, validate);
+                case DOUBLE -> storeDouble(line, start, end, primitives, slot, timer, validate);
+                case BOOLEAN -> storeBoolean(line, start, end, primitives, slot, timer, validate);
+            };
+        } catch (RuntimeException e) {
+            // Conversion failures are caught below, so this was thrown by a validation function.
+            return ParseError.Code.VALIDATION_FAILED;
+        }
+    }
+
+    private ParseError.Code storeReference(CharSequence line, int start, int end, Object[] values, int slot,
+                                           PhaseTimer timer, boolean validate) {
+        T parsedInput;
+        try {
+            parsedInput = cache != null
+                    ? cache.get(line, start, end, converter)
+                    : converter.convert(line, start, end);
+        } catch (Exception e) {
+            return conversionFailure();
+        }
+        if (parsedInput == null) {
+            return conversionFailure();
+        }
+        if (timer != null) {
+            timer.converted();
+        }
+        if (validate && !validateBoxed(parsedInput)) {
+            return ParseError.Code.VALIDATION_FAILED;
+        }
+        values[slot] = parsedInput;
+        return null;
+    }
+
+    private ParseError.Code storeInt(CharSequence line, int start, int end, long[] primitives, int slot,
+                                     PhaseTimer timer, boolean validate) {
+        int parsedInput;
+        if (customConverter) {
             try {
-                parsedInput = customConversion(input, type, customTypeConversionMethod);
+                parsedInput = (Integer) converter.convert(line, start, end);
             } catch (Exception e) {
-                throw new ValidationCustomConversionException(name, type.toString());
+                return conversionFailure();
             }
         } else {
+            long parsed = Converters.tryParseInt(line, start, end);
+            if (parsed == Converters.NOT_AN_INT) {
+                return conversionFailure();
+            }
+            parsedInput = (int) parsed;
+        }
+        if (timer != null) {
+            timer.converted();
+        }
+        if (validate && !validateInt(parsedInput)) {
+            return ParseError.Code.VALIDATION_FAILED;
+        }
+        primitives[slot] = parsedInput;
+        return null;
+    }
+
+    private ParseError.Code storeLong(CharSequence line, int start, int end, long[] primitives, int slot,
+                                      PhaseTimer timer, boolean validate) {
+        long parsedInput;
+        if (customConverter) {
             try {
-                parsedInput = defaultConversion(input, type);
+                parsedInput = (Long) converter.convert(line, start, end);
             } catch (Exception e) {
-                throw new ValidationDefaultConversionException(name, type.toString());
+                return conversionFailure();
             }
+        } else if (Converters.isLong(line, start, end)) {
+            parsedInput = Converters.parseLong(line, start, end);
+        } else {
+            return conversionFailure();
+        }
+        if (timer != null) {
+            timer.converted();
+        }
+        if (validate && !validateLong(parsedInput)) {
+            return ParseError.Code.VALIDATION_FAILED;
+        }
+        primitives[slot] = parsedInput;
+        return null;
+    }
 
+    private ParseError.Code storeDouble(CharSequence line, int start, int end, long[] primitives, int slot,
+                                        PhaseTimer timer, boolean validate) {
+        double parsedInput;
+        try {
+            parsedInput = customConverter
+                    ? (Double) converter.convert(line, start, end)
+                    : Converters.parseDouble(line, start, end);
+        } catch (Exception e) {
+            return conversionFailure();
+        }
+        if (timer != null) {
+            timer.converted();
         }
+        if (validate && !validateDouble(parsedInput)) {
+            return ParseError.Code.VALIDATION_FAILED;
+        }
+        primitives[slot] = Double.doubleToRawLongBits(parsedInput);
+        return null;
+    }
 
-        if(validationFunction != null) {
-            if(validationFunction.validate(parsedInput)) {
-                return parsedInput;
-            } else {
-                throw new ValidationFunctionException(name);
+    private ParseError.Code storeBoolean(CharSequence line, int start, int end, long[] primitives, int slot,
+                                         PhaseTimer timer, boolean validate) {
+        boolean parsedInput;
+        if (customConverter) {
+            try {
+                parsedInput = (Boolean) converter.convert(line, start, end);
+            } catch (Exception e) {
+                return conversionFailure();
             }
+        } else {
+            parsedInput = Converters.parseBoolean(line, start, end);
+        }
+        if (timer != null) {
+            timer.converted();
+        }
+        if (validate && !validateBoxed(parsedInput)) {
+            return ParseError.Code.VALIDATION_FAILED;
         }
+        primitives[slot] = parsedInput ? 1L : 0L;
+        return null;
+    }
+
+    /**
+     * Runs the validation function on the value that {@link #storeValue} left at the slot without validating it.
+     *
+     * @return {@code true} if the value is valid, {@code false} if it is rejected or the function throws.
+     */
+    boolean validateStored(Object[] values, long[] primitives, int slot) {
+        try {
+            if (primitive == null) {
+                return validateBoxed(values[slot]);
+            }
+            return switch (primitive) {
+                case INT -> validateInt((int) primitives[slot]);
+                case LONG -> validateLong(primitives[slot]);
+                case DOUBLE -> validateDouble(Double.longBitsToDouble(primitives[slot]));
+                case BOOLEAN -> validateBoxed(primitives[slot] != 0);
+            };
+        } catch (RuntimeException e) {
+            return false;
+        }
+    }
+
+    private boolean validateInt(int parsedInput) {
+        return intValidationFunction != null ? intValidationFunction.validate(parsedInput) : validateBoxed(parsedInput);
+    }
+
+    private boolean validateLong(long parsedInput) {
+        return longValidationFunction != null ? longValidationFunction.validate(parsedInput)
+                : validateBoxed(parsedInput);
+    }
+
+    private boolean validateDouble(double parsedInput) {
+        return doubleValidationFunction != null ? doubleValidationFunction.validate(parsedInput)
+                : validateBoxed(parsedInput);
+    }
+
+    @SuppressWarnings("unchecked")
+    private boolean validateBoxed(Object parsedInput) {
+        return validationFunction == null || validationFunction.validate((T) parsedInput);
+    }
 
-        if(parsedInput != null) {
-            return parsedInput;
+    private void requirePrimitive(Primitive expected) {
+        if (primitive != expected) {
+            throw new IllegalStateException("Argument '" + name + "' is not of type "
+                    + expected.name().toLowerCase() + ".");
         }
-        throw new NullPointerException("Validation Exception: Result was null.");
     }
 
-    private static <T> T defaultConversion(String value, Class<T> type) throws Exception {
-        Constructor<T> constructor = type.getConstructor(String.class);
-        return constructor.newInstance(value);
+    private ParseError.Code conversionFailure() {
+        return customConverter ? ParseError.Code.CUSTOM_CONVERSION_FAILED : ParseError.Code.CONVERSION_FAILED;
     }
 
-    private static <T> T customConversion(String value, Class<T> type, String methodName) throws Exception {
-        Method method = type.getMethod(methodName, CharSequence.class);
-        return type.cast(method.invoke(null, value));
+    private void check(ParseError.Code failure) throws CLIException {
+        if (failure != null) {
+            throw error(failure, -1, -1).toException();
+        }
+    }
+
+    /**
+     * Describes a token of this argument that was rejected for the given reason.
+     *
+     * @param code The reason returned by {@link #store}, or {@link ParseError.Code#ARITY_MISMATCH} for a list
+     *             with too few values.
+     * @param token The index of the token, or {@code -1}.
+     * @param offset The offset of the token in the line, or {@code -1}.
+     * @return The error.
+     */
+    ParseError error(ParseError.Code code, int token, int offset) {
+        String detail = switch (code) {
+            case VALIDATION_FAILED, VALIDATION_TIMEOUT -> null;
+            case ARITY_MISMATCH -> "Arity Mismatch -> " + name + " takes " + arity() + " values";
+            default -> type.toString();
+        };
+        return new ParseError(code, name, token, offset, detail);
     }
 
     /* HELP MESSAGE */
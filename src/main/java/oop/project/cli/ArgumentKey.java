@@ -0,0 +1,46 @@
+package oop.project.cli;
+
+/**
+ * A typed handle to an argument, returned by {@link Parser#addArgument(Argument)}.
+ * <p>
+ * The key records the argument's slot when it is added, so {@link ParseResult#get(ArgumentKey)} reads the value
+ * straight from the result's arrays, with no name lookup and no cast at the call site. Values of primitive
+ * arguments, such as {@code int.class}, are typed as their wrapper and can also be read unboxed with
+ * {@link ParseResult#getInt(ArgumentKey)} and its siblings.
+ *
+ * @param <T> The type of the argument's value.
+ */
+public final class ArgumentKey<T> {
+    private final Argument<T> argument;
+    private final int slot;
+
+    /* CONSTRUCTORS */
+
+    ArgumentKey(Argument<T> argument, int slot) {
+        this.argument = argument;
+        this.slot = slot;
+    }
+
+    /* GETTER METHODS */
+
+    /**
+     * Returns the name of the argument.
+     * @return The name of the argument.
+     */
+    public String name() { return argument.name(); }
+
+    /**
+     * Returns the type of the argument.
+     * @return The type of the argument.
+     */
+    public Class<T> type() { return argument.type(); }
+
+    Argument<T> argument() { return argument; }
+
+    int slot() { return slot; }
+
+    @Override
+    public String toString() {
+        return "ArgumentKey[" + argument.name() + ", " + argument.type().getSimpleName() + "]";
+    }
+}
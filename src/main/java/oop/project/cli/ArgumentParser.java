@@ -1,12 +1,5 @@
 package oop.project.cli;
 
-import org.checkerframework.checker.units.qual.A;
-import org.checkerframework.checker.units.qual.C;
-import com.google.common.base.Splitter;
-
-import java.util.*;
-
-
 /**
  * ArgumentParser is a utility class designed to parse and handle command-line arguments for applications.
  * It supports both positional arguments and named flags, as well as sub-commands with their own sets
@@ -14,10 +7,6 @@ import java.util.*;
  * and commands, and can validate argument values using custom validation functions.
  */
 public class ArgumentParser extends Parser {
-    //Storage
-
-    protected Map<String, Command> commands = new LinkedHashMap<>();
-
     /* CONSTRUCTORS */
     /**
      * Constructs a basic ArgumentParser with the specified name and identifier. This constructor
@@ -42,122 +31,71 @@ public class ArgumentParser extends Parser {
         super(name, identifier, description);
     }
 
-    /* COMMAND METHOD */
-    /**
-     * Adds a Command object to the parser. If a command with the same name already exists,
-     * an IllegalArgumentException is thrown to avoid command name conflicts.
-     *
-     * @param command The Command object to add to the parser.
-     */
-    public void addCommand(Command command) {
-        storeCommandInMap(command.identifier(), command);
-    }
-
-    /* MAP STORAGE METHODS */
-    private Command getCommandFromMap(String identifier) {
-        if (!commands.containsKey(identifier)) {
-            throw new IllegalArgumentException("Command with name '" + identifier + "' not found.");
-        }
-        return commands.get(identifier);
-    }
-
-    private void storeCommandInMap(String identifier, Command command) {
-        if(commands.containsKey(identifier)) {
-            throw new IllegalArgumentException("Value with name '" + identifier + "' already exists.");
-        }
-        commands.put(identifier, command);
-    }
-
     /* HELP MESSAGE */
 
     /**
      * Prints all the arguments and commands attached to this Command object.
      *
      * The message is formatted and displays information about the Command including its description, usage syntax,
-     * arguments, and optional arguments.
+     * arguments, and optional arguments. It is rendered once per {@link #compile() compiled} definition and
+     * written in a single call.
      */
     public void printHelpMessage() {
-        System.out.println(name);
-        System.out.println();
-        if(description != null) {
-            System.out.println(description);
-            System.out.println();
-        }
-        System.out.println("Usage: " + identifier + " [ARGUMENTS] [COMMAND]");
-        if (!arguments.isEmpty()) {
-            System.out.println();
-            System.out.println("Arguments:");
-            for (Map.Entry<String, Argument> entry : arguments.entrySet()) {
-                Argument argument = entry.getValue();
-                System.out.println(argument.getMessage());
-            }
-        }
-        if (!commands.isEmpty()) {
-            System.out.println();
-            System.out.println("Commands:");
-            for (Map.Entry<String, Command> entry : commands.entrySet()) {
-                Command command = entry.getValue();
-                System.out.println(command.getMessage());
-            }
-        }
-        System.out.println();
-        System.out.println("Optional Arguments:");
-        System.out.println("\t--help\tMSG: Show the help message.");
+        System.out.print(compile().help());
     }
 
+    /* PARSING METHODS */
+
     /**
-     * Getter for a specific argument in a command.
+     * Parses the input string to handle different types of command arguments or flags.
+     * This method tokenizes the input on whitespace (see {@link Tokens} for quoting), validates, then routes
+     * the command processing based on the type of argument or command detected.
+     * <p>
+     * The parsed values are stored on this parser and on each command of the path the line took. Callers that
+     * parse repeatedly or from several threads should {@link #compile()} once and use {@link CompiledParser#parse(CharSequence)} instead.
      *
-     * @param command The identifier of the command to retrieve the command from the map of Commands.
-     * @param name The name of the Argument to retreive from the command's map of arguments.
-     * @return The parsed value of the command line argument that is stored in the Command object.
+     * @param input The raw input string containing the command and its arguments.
+     * @throws CLIException If the first token does not match the expected command identifier, indicating that
+     *                   the input is not intended for this parser, or if any other parsing error occurs.
      */
-    public Object getParsedCommandArgument(String command, String name) {
-        return getCommandFromMap(command).getParsedArgument(name);
+    public void parseArgs(String input) throws CLIException {
+        store(compile().parse(input));
     }
+
     /**
-     * Getter for all the parsed arguments in a Command.
+     * Parses a slice of the arguments given to a {@code main} method, without joining them into a line. The
+     * words hold only the arguments, so the identifier of this parser is not expected, and each word is one
+     * argument exactly as given, so an argument may contain spaces or quotes. The values are stored as by
+     * {@link #parseArgs(String)}.
      *
-     * @param command String representation of the unique identifier of the Command for retrieval in the map.
-     * @return A map parsed Commands where the keys are the command's unique identifier.
+     * @param argv The arguments, such as the {@code args} of {@code main}.
+     * @param offset The index of the first argument to parse.
+     * @param length The number of arguments to parse.
+     * @throws CLIException If the arguments fail to parse or validate.
+     * @throws IndexOutOfBoundsException If the range lies outside the array.
      */
-    public Map<String, Object> getParsedCommandArguments(String command) {
-        return getCommandFromMap(command).getParsedArguments();
+    public void parseArgs(String[] argv, int offset, int length) throws CLIException {
+        parseArgs((CharSequence[]) argv, offset, length);
     }
 
     /**
-     * Parses the input string to handle different types of command arguments or flags.
-     * This method tokenizes the input based on spaces, validates,then routes
-     * the command processing based on the type of argument or command detected.
+     * Parses a slice of an array of arguments like {@link #parseArgs(String[], int, int)}, for arguments held
+     * in other character sequences, such as slices of a buffer.
      *
-     * @param input The raw input string containing the command and its arguments.
-     * @throws Exception If the first token does not match the expected command identifier, indicating that
-     *                   the input is not intended for this parser, or if any other parsing error occurs.
+     * @param argv The arguments, without the identifier of this parser.
+     * @param offset The index of the first argument to parse.
+     * @param length The number of arguments to parse.
+     * @throws CLIException If the arguments fail to parse or validate.
+     * @throws IndexOutOfBoundsException If the range lies outside the array.
      */
-    public void parseArgs(String input) throws Exception {
-        //Tokenizes
-        List<String> tokens = new ArrayList<>();
-        for (String token : Splitter.on(' ')
-                .trimResults()
-                .omitEmptyStrings()
-                .split(input)) {
-            tokens.add(token);
-        }
-
-        // Validate Identifier
-        if(!(Objects.equals(tokens.getFirst(), identifier))) {
-            throw new Exception("Incorrect Identifier in ArgumentParser");
-        }
-        tokens.removeFirst();
+    public void parseArgs(CharSequence[] argv, int offset, int length) throws CLIException {
+        store(compile().parseArgs(argv, offset, length));
+    }
 
-        if(!commands.isEmpty() && commands.containsKey(tokens.getFirst())) {
-            Command command = getCommandFromMap(tokens.getFirst());
-            command.parseArgs(tokens);
-        } else if (tokens.getFirst() == "-h" || tokens.getFirst() == "--help") {
-            printHelpMessage();
-        } else {
-            parse(tokens);
+    private void store(ParseResult result) {
+        Parser leaf = storeParsedArguments(result);
+        if (result.leaf().helpRequested()) {
+            System.out.print(leaf.compile().help());
         }
     }
 }
-
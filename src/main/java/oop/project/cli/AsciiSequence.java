@@ -0,0 +1,58 @@
+package oop.project.cli;
+
+import java.nio.ByteBuffer;
+
+/**
+ * A reusable {@link CharSequence} view over ASCII bytes in a {@link ByteBuffer}, so lines read from a file or
+ * channel can be parsed without first being decoded into strings.
+ * <p>
+ * The view is only valid until it is {@link #reset(ByteBuffer, int, int) reset} or the buffer changes.
+ * {@link #subSequence(int, int)} and {@link #toString()} copy, so values taken from a parsed line stay valid.
+ */
+final class AsciiSequence implements CharSequence {
+    private ByteBuffer buffer;
+    private int offset;
+    private int length;
+
+    /**
+     * Points the view at {@code length} bytes of the buffer starting at {@code offset}.
+     *
+     * @return This view.
+     */
+    AsciiSequence reset(ByteBuffer buffer, int offset, int length) {
+        this.buffer = buffer;
+        this.offset = offset;
+        this.length = length;
+        return this;
+    }
+
+    @Override
+    public int length() {
+        return length;
+    }
+
+    @Override
+    public char charAt(int index) {
+        if (index < 0 || index >= length) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for length " + length);
+        }
+        return (char) (buffer.get(offset + index) & 0xFF);
+    }
+
+    @Override
+    public CharSequence subSequence(int start, int end) {
+        if (start < 0 || end > length || start > end) {
+            throw new IndexOutOfBoundsException("Range [" + start + ", " + end + ") out of bounds for length " + length);
+        }
+        char[] chars = new char[end - start];
+        for (int i = 0; i < chars.length; i++) {
+            chars[i] = (char) (buffer.get(offset + start + i) & 0xFF);
+        }
+        return new String(chars);
+    }
+
+    @Override
+    public String toString() {
+        return subSequence(0, length).toString();
+    }
+}
@@ -0,0 +1,141 @@
+package oop.project.cli;
+
+import java.util.concurrent.*;
+
+/**
+ * Runs the deferred validation functions of one parsed line concurrently, each on its own virtual thread.
+ * <p>
+ * Every function has its own deadline, counted from when the batch starts. The caller waits for the functions in
+ * the order they finish, so the first rejection, exception or missed deadline is seen as soon as it happens and
+ * cancels the functions still running by interrupting their threads.
+ * <p>
+ * If the waiting thread is interrupted, the functions are cancelled and {@link #INTERRUPTED} is returned, with
+ * the thread's interrupt status left set, rather than blaming any argument.
+ */
+final class AsyncValidation {
+    // Virtual threads do not keep the JVM alive, so the executor is never shut down.
+    private static final ExecutorService EXECUTOR =
+            Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("cli-validation-", 0).factory());
+
+    /**
+     * The validation that failed a batch.
+     *
+     * @param index The index in the validated slots of the value that failed, or {@code -1} if none did.
+     * @param code {@link ParseError.Code#VALIDATION_FAILED} for a rejected value,
+     *             {@link ParseError.Code#VALIDATION_TIMEOUT} for a missed deadline, or
+     *             {@link ParseError.Code#VALIDATION_INTERRUPTED} if the waiting thread was interrupted.
+     */
+    record Failure(int index, ParseError.Code code) {}
+
+    /** Returned by {@link #validate} when the waiting thread is interrupted. */
+    static final Failure INTERRUPTED = new Failure(-1, ParseError.Code.VALIDATION_INTERRUPTED);
+
+    private AsyncValidation() {}
+
+    /**
+     * A validation of one argument that reports itself to the completion queue when it finishes.
+     */
+    private static final class Task extends FutureTask<Boolean> {
+        private final int index;
+        private final BlockingQueue<Task> completed;
+
+        Task(int index, Argument<?> argument, Object[] values, long[] primitives, int slot,
+             BlockingQueue<Task> completed) {
+            super(() -> argument.validateStored(values, primitives, slot));
+            this.index = index;
+            this.completed = completed;
+        }
+
+        @Override
+        protected void done() {
+            completed.add(this);
+        }
+
+        boolean valid() {
+            try {
+                return !isCancelled() && get();
+            } catch (InterruptedException | ExecutionException e) {
+                return false;
+            }
+        }
+    }
+
+    /**
+     * Validates the values stored at the given slots.
+     *
+     * @param arguments The arguments of the parser, indexed by slot.
+     * @param slots The slots to validate; only the first {@code count} are used.
+     * @param count The number of slots to validate.
+     * @param values The reference values of the line.
+     * @param primitives The primitive values of the line.
+     * @return {@code null} if all values are valid, the first value that was rejected or missed its deadline, or
+     *         {@link #INTERRUPTED}.
+     */
+    static Failure validate(Argument<?>[] arguments, int[] slots, int count, Object[] values, long[] primitives) {
+        BlockingQueue<Task> completed = new LinkedBlockingQueue<>();
+        Task[] tasks = new Task[count];
+        long[] deadlines = new long[count];
+        long start = System.nanoTime();
+        for (int i = 0; i < count; i++) {
+            Argument<?> argument = arguments[slots[i]];
+            deadlines[i] = start + argument.asyncTimeout().toNanos();
+            tasks[i] = new Task(i, argument, values, primitives, slots[i], completed);
+            EXECUTOR.execute(tasks[i]);
+        }
+
+        Failure failed = null;
+        try {
+            int remaining = count;
+            while (remaining > 0 && failed == null) {
+                Task task = completed.poll(waitNanos(tasks, deadlines), TimeUnit.NANOSECONDS);
+                if (task == null) {
+                    int expired = expired(tasks, deadlines);
+                    if (expired >= 0) {
+                        failed = new Failure(expired, ParseError.Code.VALIDATION_TIMEOUT);
+                    }
+                } else {
+                    remaining--;
+                    if (!task.valid()) {
+                        failed = new Failure(task.index, ParseError.Code.VALIDATION_FAILED);
+                    }
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            failed = INTERRUPTED;
+        } finally {
+            for (Task task : tasks) {
+                task.cancel(true);
+            }
+        }
+        return failed;
+    }
+
+    /**
+     * Returns how long to wait until the earliest deadline of the validations still running.
+     */
+    private static long waitNanos(Task[] tasks, long[] deadlines) {
+        long now = System.nanoTime();
+        long wait = Long.MAX_VALUE;
+        for (int i = 0; i < tasks.length; i++) {
+            if (!tasks[i].isDone()) {
+                wait = Math.min(wait, deadlines[i] - now);
+            }
+        }
+        return wait;
+    }
+
+    /**
+     * Returns the index of a running validation whose deadline has passed, or {@code -1} if the late validation
+     * finished after all.
+     */
+    private static int expired(Task[] tasks, long[] deadlines) {
+        long now = System.nanoTime();
+        for (int i = 0; i < tasks.length; i++) {
+            if (!tasks[i].isDone() && deadlines[i] - now <= 0) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
@@ -2,11 +2,21 @@ package oop.project.cli;
 
 /**
  * This class handles custom exceptions
+ * <p>
+ * Each exception can be created without a stack trace, which makes rejecting input far cheaper when the trace
+ * is never read. See {@link Parser#setStackTraces(boolean)}.
  */
 public class CLIException extends Exception {
     public CLIException(String message) {
         super(message);
     }
+
+    /**
+     * Constructs a CLIException that only records its stack trace if {@code writableStackTrace} is {@code true}.
+     */
+    protected CLIException(String message, boolean writableStackTrace) {
+        super(message, null, true, writableStackTrace);
+    }
 }
 
 /* PARSE EXCEPTIONS */
@@ -16,7 +26,11 @@ public class CLIException extends Exception {
  */
 class ParseException extends CLIException {
     public ParseException(String message) {
-        super("Parsing Exception: " + message);
+        this(message, true);
+    }
+
+    ParseException(String message, boolean writableStackTrace) {
+        super("Parsing Exception: " + message, writableStackTrace);
     }
 }
 
@@ -26,7 +40,11 @@ class ParseException extends CLIException {
  */
 class ValidationException extends CLIException {
     public ValidationException(String message) {
-        super("Validation Exception: " + message);
+        this(message, true);
+    }
+
+    ValidationException(String message, boolean writableStackTrace) {
+        super("Validation Exception: " + message, writableStackTrace);
     }
 }
 /**
@@ -35,7 +53,26 @@ class ValidationException extends CLIException {
  */
 class ValidationFunctionException extends ValidationException {
     public ValidationFunctionException(String argument) {
-        super("'" + argument + "' argument does not meet the limits of the provided validation function.");
+        this(argument, true);
+    }
+
+    ValidationFunctionException(String argument, boolean writableStackTrace) {
+        super("'" + argument + "' argument does not meet the limits of the provided validation function.",
+                writableStackTrace);
+    }
+}
+/**
+ * Constructs an {@code ValidationTimeoutException} that tells the user when the asynchronous validation of their
+ * argument did not finish in time.
+ */
+class ValidationTimeoutException extends ValidationException {
+    public ValidationTimeoutException(String argument) {
+        this(argument, true);
+    }
+
+    ValidationTimeoutException(String argument, boolean writableStackTrace) {
+        super("'" + argument + "' argument's validation function did not finish within its timeout.",
+                writableStackTrace);
     }
 }
 /**
@@ -44,7 +81,11 @@ class ValidationFunctionException extends ValidationException {
  */
 class ValidationCustomConversionException extends ValidationException {
     public ValidationCustomConversionException(String argument, String type) {
-        super("'" + argument + "''s custom class (" + type + ") failed to convert.");
+        this(argument, type, true);
+    }
+
+    ValidationCustomConversionException(String argument, String type, boolean writableStackTrace) {
+        super("'" + argument + "''s custom class (" + type + ") failed to convert.", writableStackTrace);
     }
 }
 
@@ -56,7 +97,10 @@ class ValidationCustomConversionException extends ValidationException {
  */
 class ValidationDefaultConversionException extends ValidationException {
     public ValidationDefaultConversionException(String argument, String type) {
-        super("'" + argument + "''s custom class (" + type + ") failed to convert.");
+        this(argument, type, true);
     }
-}
 
+    ValidationDefaultConversionException(String argument, String type, boolean writableStackTrace) {
+        super("'" + argument + "''s custom class (" + type + ") failed to convert.", writableStackTrace);
+    }
+}
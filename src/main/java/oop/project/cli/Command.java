@@ -1,16 +1,26 @@
 package oop.project.cli;
 
-import com.google.common.base.Splitter;
-import org.checkerframework.checker.units.qual.A;
-
 import java.util.*;
 
 /**
- * Represents a subcommand with user defined arguments.
+ * Represents a subcommand with user defined arguments. A command may hold sub-commands of its own, to any depth.
  *
  * Example:
+ * <pre>{@code
+ * ArgumentParser tool = new ArgumentParser("Tool", "tool");
+ * Command cluster = new Command("Cluster", "cluster");
+ * Command node = new Command("Node", "node");
+ * Command drain = new Command("Drain", "drain");
+ * drain.addArgument(new Argument.Builder<>("force", boolean.class).build());
+ * node.addCommand(drain);
+ * cluster.addCommand(node);
+ * tool.addCommand(cluster);
+ * tool.compile().parse("tool cluster node drain --force true");
+ * }</pre>
  */
 public class Command extends Parser {
+    //Storage
+    protected List<String> aliases = new ArrayList<>();
 
     /* CONSTRUCTORS */
     /**
@@ -38,6 +48,39 @@ public class Command extends Parser {
         super(name, identifier, description);
     }
 
+    /* ALIAS METHODS */
+
+    /**
+     * Adds an alternative identifier that selects this command, such as {@code rm} for {@code remove}.
+     *
+     * @param alias The alternative identifier.
+     * @throws IllegalArgumentException If the alias is already the identifier or an alias of this command.
+     */
+    public void addAlias(String alias) {
+        if (alias.equals(identifier) || aliases.contains(alias)) {
+            throw new IllegalArgumentException("Alias with name '" + alias + "' already exists.");
+        }
+        aliases.add(alias);
+        modCount++;
+    }
+
+    /**
+     * Returns the alternative identifiers of this command.
+     * @return An unmodifiable list of aliases.
+     */
+    public List<String> aliases() { return Collections.unmodifiableList(aliases); }
+
+    /**
+     * Builds a compiled snapshot of the current arguments, aliases and sub-commands of this command.
+     *
+     * @return A new compiled snapshot of this command.
+     */
+    @Override
+    protected CompiledParser newCompiledParser() {
+        return new CompiledParser(name, identifier, description, aliases, arguments.values(), commands.values(),
+                stackTraces, metrics, handler, argumentFiles, lazyConversion);
+    }
+
     /* HELP MESSAGE */
 
     /**
@@ -62,40 +105,10 @@ public class Command extends Parser {
      * Prints all the arguments and commands of this command object.
      *
      * The message is formatted and displays information about the command including its description, usage syntax,
-     * arguments, and optional arguments.
+     * arguments, and optional arguments. It is rendered once per {@link #compile() compiled} definition and
+     * written in a single call.
      */
     public void printHelpMessage() {
-        System.out.println(name);
-        System.out.println();
-        if(description != null) {
-            System.out.println(description);
-            System.out.println();
-        }
-        System.out.println("Usage: " + identifier + " [ARGUMENTS] [COMMAND]");
-        System.out.println();
-        System.out.println("Arguments:");
-        for (Map.Entry<String, Argument> entry : arguments.entrySet()) {
-            Argument argument = entry.getValue();
-            System.out.println(argument.getMessage());
-        }
-        System.out.println();
-        System.out.println();
-        System.out.println("Optional Arguments:");
-        System.out.println("\t--help\tMSG: Show the help message.");
-    }
-
-    /* PARSING METHODS */
-
-    protected void parseArgs(List<String> tokens) throws Exception {
-        if(!(Objects.equals(tokens.getFirst(), identifier))) {
-            throw new Exception("Incorrect Identifier in Command");
-        }
-        tokens.removeFirst();
-
-        if (Objects.equals(tokens.getFirst(), "-h") || Objects.equals(tokens.getFirst(), "--help")) {
-            printHelpMessage();
-        } else {
-            parse(tokens);
-        }
+        System.out.print(compile().help());
     }
 }
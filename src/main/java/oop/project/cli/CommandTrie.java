@@ -0,0 +1,140 @@
+package oop.project.cli;
+
+import java.util.*;
+
+/**
+ * An immutable character trie over the identifiers and aliases of a parser's sub-commands, built once when the
+ * parser is compiled.
+ * <p>
+ * A lookup walks one node per character of the token, so resolving a command costs time linear in the token's
+ * length no matter how many commands are registered. Every node records whether all names below it belong to a
+ * single command, which lets unique prefixes such as {@code sq} resolve to {@code sqrt} without a further search.
+ */
+final class CommandTrie {
+    /** Returned by {@link #find} when no command matches. */
+    static final int NONE = -1;
+    /** Returned by {@link #find} when the token is a prefix of several commands. */
+    static final int AMBIGUOUS = -2;
+
+    // Flattened nodes; node 0 is the root.
+    private final char[][] labels;
+    private final int[][] children;
+    private final int[] terminal;
+    private final int[] unique;
+    private final String[] names;
+
+    /**
+     * Builds a trie from command names to command indices.
+     *
+     * @param names For each command index, the identifier followed by any aliases.
+     * @throws IllegalArgumentException If two commands share a name.
+     */
+    CommandTrie(List<List<String>> names) {
+        Node root = new Node();
+        for (int command = 0; command < names.size(); command++) {
+            for (String name : names.get(command)) {
+                Node node = root;
+                for (int i = 0; i < name.length(); i++) {
+                    node = node.children.computeIfAbsent(name.charAt(i), c -> new Node());
+                }
+                if (node.command != NONE) {
+                    throw new IllegalArgumentException("Command with name '" + name + "' already exists.");
+                }
+                node.command = command;
+                node.name = name;
+            }
+        }
+
+        List<Node> nodes = new ArrayList<>();
+        number(root, nodes);
+        labels = new char[nodes.size()][];
+        children = new int[nodes.size()][];
+        terminal = new int[nodes.size()];
+        unique = new int[nodes.size()];
+        this.names = new String[nodes.size()];
+        for (int id = 0; id < nodes.size(); id++) {
+            Node node = nodes.get(id);
+            labels[id] = new char[node.children.size()];
+            children[id] = new int[node.children.size()];
+            int i = 0;
+            for (Map.Entry<Character, Node> child : node.children.entrySet()) {
+                labels[id][i] = child.getKey();
+                children[id][i] = child.getValue().id;
+                i++;
+            }
+            terminal[id] = node.command;
+            unique[id] = node.unique;
+            this.names[id] = node.name;
+        }
+    }
+
+    /**
+     * Numbers the nodes depth-first and computes, bottom up, the single command each subtree belongs to.
+     */
+    private static void number(Node node, List<Node> nodes) {
+        node.id = nodes.size();
+        nodes.add(node);
+        node.unique = node.command;
+        for (Node child : node.children.values()) {
+            number(child, nodes);
+            if (node.unique == NONE) {
+                node.unique = child.unique;
+            } else if (node.unique != child.unique) {
+                node.unique = AMBIGUOUS;
+            }
+        }
+    }
+
+    /**
+     * Resolves the token between {@code start} and {@code end} of the text to a command. An exact identifier or
+     * alias always wins; otherwise the token must be a prefix of names that all belong to one command.
+     *
+     * @return The index of the command, {@link #NONE}, or {@link #AMBIGUOUS}.
+     */
+    int find(CharSequence text, int start, int end) {
+        int node = walk(text, start, end);
+        if (node < 0 || start == end) {
+            return NONE;
+        }
+        return terminal[node] != NONE ? terminal[node] : unique[node];
+    }
+
+    /**
+     * Returns every name that begins with the token between {@code start} and {@code end} of the text, in
+     * lexicographic order. Only the subtree below the token is visited.
+     */
+    List<String> candidates(CharSequence text, int start, int end) {
+        List<String> candidates = new ArrayList<>();
+        int node = walk(text, start, end);
+        if (node >= 0) {
+            collect(node, candidates);
+        }
+        return candidates;
+    }
+
+    private void collect(int node, List<String> candidates) {
+        if (names[node] != null) {
+            candidates.add(names[node]);
+        }
+        for (int child : children[node]) {
+            collect(child, candidates);
+        }
+    }
+
+    private int walk(CharSequence text, int start, int end) {
+        int node = 0;
+        for (int i = start; i < end && node >= 0; i++) {
+            int child = Arrays.binarySearch(labels[node], text.charAt(i));
+            node = child < 0 ? -1 : children[node][child];
+        }
+        return node;
+    }
+
+    private static final class Node {
+        private final SortedMap<Character, Node> children = new TreeMap<>();
+        private int command = NONE;
+        private String name = null;
+        private int unique;
+        private int id;
+    }
+}
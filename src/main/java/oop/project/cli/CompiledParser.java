@@ -0,0 +1,978 @@
+package oop.project.cli;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Stream;
+
+/**
+ * An immutable, thread-safe snapshot of a {@link Parser} and its sub-commands.
+ * <p>
+ * A CompiledParser is created once through {@link Parser#compile()} and can then parse any number of inputs,
+ * from any number of threads. Parsed values are never stored on the parser itself; every call to
+ * {@link #parse(CharSequence)} returns a fresh {@link ParseResult}.
+ */
+public final class CompiledParser {
+    //Required
+    private final String name;
+    private final String identifier;
+
+    //Optional
+    private final String description;
+    private final List<String> aliases;
+    private final boolean stackTraces;
+    private final ParseMetrics metrics;
+    private final Handler handler;
+    private final boolean argumentFiles;
+    private final boolean lazyConversion;
+
+    //Storage
+    private static final Object[] NO_VALUES = new Object[0];
+    private static final long[] NO_PRIMITIVES = new long[0];
+    private static final int DEFAULT_CHUNK_SIZE = 1024;
+
+    private final Argument<?>[] arguments;
+    private final NameTable argumentIndex;
+    private final BitSet required;
+    private final boolean hasReferences;
+    private final boolean hasPrimitives;
+    private final boolean hasAsyncValidation;
+    private final int[] lists;
+    private final CompiledParser[] commands;
+    private final CommandTrie commandIndex;
+
+    // Rendered on first use; HelpText is immutable, so a racy read at worst renders it twice.
+    private volatile HelpText help;
+    private volatile HelpText wrappedHelp;
+    // Built on first completion; the trie is immutable, so a racy read at worst builds it twice.
+    private volatile CommandTrie flagIndex;
+
+    /* CONSTRUCTORS */
+
+    /**
+     * Freezes the given definition. The argument and command collections are copied, so later changes
+     * to the originating {@link Parser} do not affect this instance.
+     *
+     * @param name The display name of the parser.
+     * @param identifier The unique identifier for the parser.
+     * @param description A description of the parser, or {@code null}.
+     * @param aliases Alternative identifiers of the parser when used as a sub-command.
+     * @param arguments The arguments of the parser, in declaration order.
+     * @param commands The sub-commands of the parser, in declaration order.
+     * @param stackTraces Whether exceptions thrown by {@link #parse(CharSequence)} record a stack trace.
+     * @param metrics The metrics that parses are recorded to, or {@code null} to record none.
+     * @param handler The action run for lines parsed by this level, or {@code null}.
+     * @param argumentFiles Whether {@code @path} tokens of lines given to this parser are expanded.
+     * @param lazyConversion Whether values of lines given to this parser are converted when first read.
+     * @throws IllegalArgumentException If two sub-commands share an identifier or alias.
+     */
+    CompiledParser(String name, String identifier, String description, Collection<String> aliases,
+                   Collection<Argument> arguments, Collection<Command> commands, boolean stackTraces,
+                   ParseMetrics metrics, Handler handler, boolean argumentFiles, boolean lazyConversion) {
+        this.name = name;
+        this.identifier = identifier;
+        this.description = description;
+        this.aliases = List.copyOf(aliases);
+        this.stackTraces = stackTraces;
+        this.metrics = metrics;
+        this.handler = handler;
+        this.argumentFiles = argumentFiles;
+        this.lazyConversion = lazyConversion;
+
+        this.arguments = arguments.toArray(new Argument<?>[0]);
+        List<String> names = new ArrayList<>();
+        BitSet required = new BitSet(this.arguments.length);
+        boolean hasReferences = false;
+        boolean hasPrimitives = false;
+        boolean hasAsyncValidation = false;
+        int[] lists = new int[this.arguments.length];
+        int listCount = 0;
+        for (int i = 0; i < this.arguments.length; i++) {
+            names.add(this.arguments[i].name());
+            required.set(i, this.arguments[i].required());
+            hasAsyncValidation |= this.arguments[i].validatesAsync();
+            if (this.arguments[i].multiple()) {
+                // Values are collected into a list held in the reference slot.
+                lists[listCount++] = i;
+                hasReferences = true;
+            } else if (this.arguments[i].primitive() == null) {
+                hasReferences = true;
+            } else {
+                hasPrimitives = true;
+            }
+        }
+        this.argumentIndex = new NameTable(names);
+        this.required = required;
+        this.hasReferences = hasReferences;
+        this.hasPrimitives = hasPrimitives;
+        this.hasAsyncValidation = hasAsyncValidation;
+        this.lists = Arrays.copyOf(lists, listCount);
+
+        this.commands = new CompiledParser[commands.size()];
+        List<List<String>> commandNames = new ArrayList<>();
+        int i = 0;
+        for (Command command : commands) {
+            CompiledParser compiled = command.compile();
+            this.commands[i++] = compiled;
+            List<String> namesOfCommand = new ArrayList<>();
+            namesOfCommand.add(compiled.identifier());
+            namesOfCommand.addAll(compiled.aliases());
+            commandNames.add(namesOfCommand);
+        }
+        this.commandIndex = new CommandTrie(commandNames);
+    }
+
+    /* GETTER METHODS */
+
+    /**
+     * Returns the name of the parser.
+     * @return The name of the parser.
+     */
+    public String name() { return name; }
+
+    /**
+     * Returns the identifier of the parser.
+     * @return The identifier of the parser.
+     */
+    public String identifier() { return identifier; }
+
+    /**
+     * Returns the description of the parser.
+     * @return The description of the parser, or {@code null} if none was given.
+     */
+    public String description() { return description; }
+
+    /**
+     * Returns the alternative identifiers of the parser when it is used as a sub-command.
+     * @return An unmodifiable list of aliases.
+     */
+    public List<String> aliases() { return aliases; }
+
+    /**
+     * Returns the arguments of the parser in declaration order.
+     * @return An unmodifiable list of the parser's arguments.
+     */
+    public List<Argument<?>> arguments() { return List.of(arguments); }
+
+    /**
+     * Returns the sub-commands of the parser in declaration order.
+     * @return An unmodifiable list of the parser's compiled sub-commands.
+     */
+    public List<CompiledParser> commands() { return List.of(commands); }
+
+    /**
+     * Returns the metrics that this parser records its parses to.
+     * @return The metrics, or {@code null} if metrics are disabled.
+     */
+    public ParseMetrics metrics() { return metrics; }
+
+    /**
+     * Returns the action run for lines parsed by this level.
+     * @return The handler, or {@code null} if none is attached.
+     */
+    public Handler handler() { return handler; }
+
+    boolean stackTraces() { return stackTraces; }
+
+    int argumentCount() { return arguments.length; }
+
+    /**
+     * Returns the slot of the named argument, or {@code -1} if this parser has no such argument.
+     */
+    int indexOf(String name) {
+        return argumentIndex.get(name);
+    }
+
+    Argument<?> argument(int index) { return arguments[index]; }
+
+    CompiledParser command(int index) { return commands[index]; }
+
+    CommandTrie commandIndex() { return commandIndex; }
+
+    /**
+     * Returns a prefix trie over the argument names, mapping each name to its slot.
+     */
+    CommandTrie flagIndex() {
+        CommandTrie index = flagIndex;
+        if (index == null) {
+            List<List<String>> names = new ArrayList<>();
+            for (Argument<?> argument : arguments) {
+                names.add(List.of(argument.name()));
+            }
+            flagIndex = index = new CommandTrie(names);
+        }
+        return index;
+    }
+
+    /* HELP METHODS */
+
+    /**
+     * Returns the help message of the parser, listing its arguments and sub-commands. The message is rendered
+     * once and cached, so repeated calls do not rebuild it.
+     *
+     * @return The help message, ending with a line break.
+     */
+    public String help() {
+        return renderedHelp().text();
+    }
+
+    /**
+     * Returns the help message of the parser with descriptions wrapped to fit the given width. The most recently
+     * requested width is cached.
+     *
+     * @param width The maximum line width, such as the width of the terminal. Values of zero or less disable wrapping.
+     * @return The help message, ending with a line break.
+     */
+    public String help(int width) {
+        return renderedHelp(width).text();
+    }
+
+    /**
+     * Writes the help message to the destination in a single call.
+     *
+     * @param out The destination, such as {@code System.out} or a {@link StringBuilder}.
+     * @throws IOException If the destination fails to accept the message.
+     */
+    public void writeHelp(Appendable out) throws IOException {
+        out.append(renderedHelp().text());
+    }
+
+    /**
+     * Writes the help message, wrapped to the given width, to the destination in a single call.
+     *
+     * @param out The destination, such as {@code System.out} or a {@link StringBuilder}.
+     * @param width The maximum line width. Values of zero or less disable wrapping.
+     * @throws IOException If the destination fails to accept the message.
+     */
+    public void writeHelp(Appendable out, int width) throws IOException {
+        out.append(renderedHelp(width).text());
+    }
+
+    /**
+     * Writes the UTF-8 encoded help message to the channel from a cached byte array, without encoding it again.
+     *
+     * @param channel The destination channel.
+     * @throws IOException If the channel fails to accept the message.
+     */
+    public void writeHelp(WritableByteChannel channel) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(renderedHelp().bytes()).asReadOnlyBuffer();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    private HelpText renderedHelp() {
+        HelpText rendered = help;
+        if (rendered == null) {
+            help = rendered = HelpText.render(this, HelpText.UNWRAPPED);
+        }
+        return rendered;
+    }
+
+    private HelpText renderedHelp(int width) {
+        if (width <= HelpText.UNWRAPPED) {
+            return renderedHelp();
+        }
+        HelpText rendered = wrappedHelp;
+        if (rendered == null || rendered.width() != width) {
+            wrappedHelp = rendered = HelpText.render(this, width);
+        }
+        return rendered;
+    }
+
+    /* COMPLETION METHODS */
+
+    /**
+     * Completion candidates for the token under the cursor.
+     *
+     * @param start The start of the text in the line that a candidate replaces.
+     * @param end The end of the text in the line that a candidate replaces, which is the cursor.
+     * @param candidates The candidates, best first.
+     */
+    public record Completions(int start, int end, List<String> candidates) {}
+
+    /**
+     * Suggests completions for the token ending at the cursor, or for a new token if the cursor follows
+     * whitespace. The suggestions depend on where the cursor is:
+     * <ul>
+     *     <li>where a sub-command may be named, the sub-commands of the current level whose identifier or alias
+     *     starts with the token;</li>
+     *     <li>for a token starting with {@code -}, the flags of the current level not given yet, required flags
+     *     first, followed by {@code --help};</li>
+     *     <li>for the value of a flag or the next positional argument, the constants of an enum type or
+     *     {@code true} and {@code false} for a boolean.</li>
+     * </ul>
+     * Names are looked up in prefix tries built once per compiled parser, so the cost depends on the number of
+     * matching names rather than on the number of commands or arguments. Quoted or escaped tokens are not
+     * completed.
+     *
+     * @param partialLine The line typed so far.
+     * @param cursor The position of the cursor in the line.
+     * @return The candidates, and the part of the line they replace.
+     * @throws IndexOutOfBoundsException If the cursor is outside the line.
+     */
+    public Completions complete(String partialLine, int cursor) {
+        return Completer.complete(this, partialLine, cursor);
+    }
+
+    /* PARSING METHODS */
+
+    /**
+     * Parses the input line into a new {@link ParseResult}.
+     * The first token must match this parser's identifier. The tokens after it are parsed as this parser's
+     * arguments until one names a sub-command before any positional value is given; the remaining tokens are then
+     * parsed by that sub-command in the same way, to any depth. Flags of a level may also be given after its
+     * sub-command, as in {@code tool cluster drain --verbose true} for a {@code verbose} argument of {@code tool}.
+     * <p>
+     * If {@link Parser#setArgumentFiles(boolean) argument files} are enabled, a token {@code @path} is replaced by
+     * the tokens of the file at that path, which are converted as the file is read.
+     * <p>
+     * The line is scanned once into token offsets, and values are converted straight from the line, so
+     * tokens are only copied into strings for arguments that need one.
+     *
+     * @param input The raw input line containing the identifier and its arguments.
+     * @return The values parsed from the input.
+     * @throws CLIException If the identifier does not match, or the arguments fail to parse or validate. The
+     *                      exception has no stack trace if the parser was built with stack traces disabled.
+     */
+    public ParseResult parse(CharSequence input) throws CLIException {
+        return orElseThrow(tryParse(input));
+    }
+
+    /**
+     * Parses already tokenized input into a new {@link ParseResult}.
+     * The first token must match this parser's identifier.
+     *
+     * @param tokens The tokens of the input line.
+     * @return The values parsed from the input.
+     * @throws CLIException If the identifier does not match, or the arguments fail to parse or validate.
+     */
+    public ParseResult parse(Tokens tokens) throws CLIException {
+        return orElseThrow(tryParse(tokens));
+    }
+
+    /**
+     * Parses the input line like {@link #parse(CharSequence)}, but returns a rejected line as a
+     * {@link ParseOutcome.Failure} holding a {@link ParseError} instead of throwing. No exception is created for
+     * errors found by the parser itself or by the built-in {@code int}, {@code long} and {@code boolean}
+     * conversions, which makes rejecting input about as cheap as accepting it.
+     *
+     * @param input The raw input line containing the identifier and its arguments.
+     * @return The parse result, or the first error in the line.
+     */
+    public ParseOutcome tryParse(CharSequence input) {
+        Tokens tokens = Tokens.borrow();
+        try {
+            PhaseTimer timer = metrics != null ? new PhaseTimer() : null;
+            int unterminated = tokens.scan(input);
+            if (timer != null) {
+                timer.tokenized();
+            }
+            if (unterminated >= 0) {
+                return record(timer, failure(ParseError.Code.UNTERMINATED_QUOTE, null, tokens.size(), unterminated,
+                        "Unterminated quote at position " + unterminated));
+            }
+            return tryParse(tokens, timer);
+        } finally {
+            tokens.release();
+        }
+    }
+
+    /**
+     * Parses already tokenized input like {@link #parse(Tokens)}, but returns a rejected line as a
+     * {@link ParseOutcome.Failure} instead of throwing.
+     *
+     * @param tokens The tokens of the input line.
+     * @return The parse result, or the first error in the line.
+     */
+    public ParseOutcome tryParse(Tokens tokens) {
+        return tryParse(tokens, metrics != null ? new PhaseTimer() : null);
+    }
+
+    /**
+     * Parses the arguments of a {@code main} method, or any slice of an argument array, into a new
+     * {@link ParseResult}. Unlike {@link #parse(CharSequence)}, the words hold only the arguments, without this
+     * parser's identifier, and each word is one token exactly as given: words are not split on whitespace and
+     * quotes are not removed. The words are read in place; neither the array nor the words are copied.
+     *
+     * @param argv The array holding the arguments, such as the {@code args} of {@code main}.
+     * @param offset The index of the first argument.
+     * @param length The number of arguments.
+     * @return The values parsed from the arguments.
+     * @throws CLIException If the arguments fail to parse or validate.
+     * @throws IndexOutOfBoundsException If the range lies outside the array.
+     */
+    public ParseResult parseArgs(CharSequence[] argv, int offset, int length) throws CLIException {
+        return orElseThrow(tryParseArgs(argv, offset, length));
+    }
+
+    /**
+     * Parses a slice of an argument array like {@link #parseArgs(CharSequence[], int, int)}, but returns rejected
+     * arguments as a {@link ParseOutcome.Failure} instead of throwing.
+     *
+     * @param argv The array holding the arguments, without this parser's identifier.
+     * @param offset The index of the first argument.
+     * @param length The number of arguments.
+     * @return The parse result, or the first error in the arguments.
+     * @throws IndexOutOfBoundsException If the range lies outside the array.
+     */
+    public ParseOutcome tryParseArgs(CharSequence[] argv, int offset, int length) {
+        Tokens tokens = Tokens.borrow();
+        try {
+            PhaseTimer timer = metrics != null ? new PhaseTimer() : null;
+            tokens.reset(argv, offset, length);
+            if (timer != null) {
+                timer.tokenized();
+            }
+            return record(timer, parse(tokens, 0, timer));
+        } finally {
+            tokens.release();
+        }
+    }
+
+    private ParseOutcome tryParse(Tokens tokens, PhaseTimer timer) {
+        if (timer != null) {
+            timer.start();
+        }
+        boolean matches = tokens.size() > 0 && tokens.matches(0, identifier);
+        if (timer != null) {
+            timer.dispatched();
+        }
+        if (!matches) {
+            return record(timer, failure(ParseError.Code.INCORRECT_IDENTIFIER, null, 0,
+                    tokens.size() == 0 ? -1 : tokens.offset(0), "Incorrect Identifier -> expected '" + identifier + "'"));
+        }
+        return record(timer, parse(tokens, 1, timer));
+    }
+
+    private ParseOutcome record(PhaseTimer timer, ParseOutcome outcome) {
+        return timer == null ? outcome : metrics.record(timer, outcome);
+    }
+
+    private ParseResult orElseThrow(ParseOutcome outcome) throws CLIException {
+        return outcome.orElseThrow();
+    }
+
+    private ParseOutcome failure(ParseError.Code code, String argument, int token, int offset, String detail) {
+        return new ParseOutcome.Failure(new ParseError(code, argument, token, offset, detail), stackTraces);
+    }
+
+    /**
+     * Parses the input line and runs the handler of the most specific level that has one, as in
+     * {@link ParseResult#execute()}.
+     *
+     * @param input The raw input line containing the identifier and its arguments.
+     * @return The outcome of the handler, or the values of the most specific level if no level has a handler.
+     * @throws CLIException If the line fails to parse.
+     * @throws Exception If the handler fails.
+     */
+    public Object execute(CharSequence input) throws Exception {
+        return parse(input).execute();
+    }
+
+    /* BATCH METHODS */
+
+    /**
+     * Parses every line on the common fork-join pool and returns the outcomes in input order. A line that fails
+     * to parse is returned as a {@link ParseOutcome.Failure} and does not stop the rest of the batch.
+     *
+     * @param lines The lines to parse.
+     * @return One outcome per line, in the same order as the lines.
+     */
+    public List<ParseOutcome> parseAll(List<? extends CharSequence> lines) {
+        int parallelism = ForkJoinPool.getCommonPoolParallelism();
+        int chunkSize = Math.clamp((lines.size() + 4L * parallelism - 1) / (4L * parallelism), 1, DEFAULT_CHUNK_SIZE);
+        return parseAll(lines, ForkJoinPool.commonPool(), chunkSize);
+    }
+
+    /**
+     * Parses every line on the given executor and returns the outcomes in input order. The lines are split into
+     * chunks of {@code chunkSize} consecutive lines, and each chunk is parsed as one task, so parallelism is
+     * bounded by the executor, for example a {@code new ForkJoinPool(n)} or
+     * {@code Executors.newVirtualThreadPerTaskExecutor()}. A line that fails to parse is returned as a
+     * {@link ParseOutcome.Failure} and does not stop the rest of the batch.
+     *
+     * @param lines The lines to parse.
+     * @param executor The executor that runs the chunks.
+     * @param chunkSize The number of consecutive lines parsed by each task.
+     * @return One outcome per line, in the same order as the lines.
+     * @throws IllegalArgumentException If the chunk size is not positive.
+     */
+    public List<ParseOutcome> parseAll(List<? extends CharSequence> lines, Executor executor, int chunkSize) {
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException("Chunk size must be positive.");
+        }
+        ParseOutcome[] outcomes = new ParseOutcome[lines.size()];
+        List<CompletableFuture<Void>> chunks = new ArrayList<>();
+        for (int from = 0; from < lines.size(); from += chunkSize) {
+            int start = from;
+            int end = Math.min(lines.size(), from + chunkSize);
+            chunks.add(CompletableFuture.runAsync(() -> {
+                for (int i = start; i < end; i++) {
+                    outcomes[i] = tryParse(lines.get(i));
+                }
+            }, executor));
+        }
+        CompletableFuture.allOf(chunks.toArray(new CompletableFuture<?>[0])).join();
+        return Arrays.asList(outcomes);
+    }
+
+    /**
+     * Maps a stream of lines to their outcomes. The returned stream keeps the encounter order of the input and
+     * is parsed in parallel if the input stream is parallel. A line that fails to parse is returned as a
+     * {@link ParseOutcome.Failure} and does not stop the stream.
+     *
+     * @param lines The lines to parse.
+     * @return A stream with one outcome per line.
+     */
+    public Stream<ParseOutcome> parseAll(Stream<? extends CharSequence> lines) {
+        return lines.map(this::tryParse);
+    }
+
+    /**
+     * The values of one level of a line being parsed, and how far its tokens have been read.
+     */
+    private static final class Level {
+        final CompiledParser parser;
+        final Level parent;
+        final Object[] values;
+        final long[] primitives;
+        final BitSet present;
+        // The slots whose validation was deferred to the end of the line, and the token of each
+        final BitSet deferredSlots;
+        final int[] deferred;
+        // The text of the tokens left unconverted, shared by every level of the line, or null if conversion is eager
+        final StringBuilder unconvertedText;
+        // The start, end, token index and offset of the unconverted token of each slot
+        final int[] unconvertedTokens;
+        final BitSet unconverted;
+
+        // The first slot that may still take a positional value
+        int next = 0;
+        // The slot of the argument with several values that takes the following positional values, or -1
+        int filling = -1;
+        // Whether tokens starting with -- are still read as flags
+        boolean flags = true;
+        // Whether a positional value was given, after which no sub-command is named
+        boolean positional = false;
+        boolean help = false;
+
+        Level(CompiledParser parser, Level parent, StringBuilder unconvertedText) {
+            this.parser = parser;
+            this.parent = parent;
+            this.values = parser.hasReferences ? new Object[parser.arguments.length] : NO_VALUES;
+            this.primitives = parser.hasPrimitives ? new long[parser.arguments.length] : NO_PRIMITIVES;
+            this.present = new BitSet(parser.arguments.length);
+            this.deferredSlots = parser.hasAsyncValidation ? new BitSet(parser.arguments.length) : null;
+            this.deferred = parser.hasAsyncValidation ? new int[parser.arguments.length] : null;
+            this.unconvertedText = unconvertedText;
+            this.unconvertedTokens = unconvertedText != null ? new int[4 * parser.arguments.length] : null;
+            this.unconverted = unconvertedText != null ? new BitSet(parser.arguments.length) : null;
+        }
+
+        /**
+         * Returns the values this level left unconverted, or {@code null} if every value was converted.
+         */
+        LazyValues lazyValues() {
+            return unconverted == null || unconverted.isEmpty()
+                    ? null
+                    : new LazyValues(unconvertedText, unconvertedTokens, unconverted);
+        }
+    }
+
+    /**
+     * The state of one line being parsed. Tokens are handed to {@link #accept} one at a time, from the line or
+     * from an argument file, and each is converted as soon as it is read. The line dispatches to a sub-command by
+     * replacing the current level with a child of it, so the tokens are read once, left to right, however deep the
+     * command tree is.
+     */
+    private static final class Parse {
+        private static final IOException STOP = new StopReading();
+
+        final Tokens tokens;
+        final PhaseTimer timer;
+        final boolean argumentFiles;
+        final boolean stackTraces;
+        Level level;
+        ParseError error;
+
+        // A flag given without = whose value is the next token
+        Level pendingLevel;
+        int pendingSlot = -1;
+        int pendingToken;
+        int pendingOffset;
+
+        Parse(CompiledParser root, Tokens tokens, PhaseTimer timer) {
+            this.tokens = tokens;
+            this.timer = timer;
+            this.argumentFiles = root.argumentFiles;
+            this.stackTraces = root.stackTraces;
+            this.level = new Level(root, null, root.lazyConversion ? new StringBuilder() : null);
+        }
+
+        /**
+         * Returns whether no error was found and no help was requested, so more tokens should be read.
+         */
+        boolean reading() {
+            return error == null && !level.help;
+        }
+
+        /**
+         * Reads the token of the line at the given index, expanding it if it names an argument file.
+         */
+        void read(int index) {
+            CharSequence text = tokens.text(index);
+            int start = tokens.start(index);
+            int end = tokens.end(index);
+            if (argumentFiles && level.flags && end - start > 1 && text.charAt(start) == '@') {
+                expand(text.subSequence(start + 1, end).toString(), index, tokens.offset(index));
+            } else {
+                accept(text, start, end, index, tokens.offset(index));
+            }
+        }
+
+        /**
+         * Reads every token of an argument file, line by line, as if the tokens were given in place of the
+         * {@code @path} token. The file is memory-mapped in windows by {@link LineReader}, so only the line being
+         * read is held, and errors point at the {@code @path} token. Tokens cannot span lines, and tokens starting
+         * with {@code @} inside the file are not expanded again.
+         */
+        void expand(String file, int token, int offset) {
+            Tokens words = new Tokens();
+            try (FileChannel channel = FileChannel.open(Path.of(file), StandardOpenOption.READ)) {
+                LineReader.read(channel, line -> {
+                    int unterminated = words.scan(line);
+                    if (unterminated >= 0) {
+                        error = new ParseError(ParseError.Code.UNTERMINATED_QUOTE, null, token, offset,
+                                "Unterminated quote in argument file " + file);
+                        throw STOP;
+                    }
+                    for (int i = 0; i < words.size(); i++) {
+                        accept(words.text(i), words.start(i), words.end(i), token, offset);
+                        if (!reading()) {
+                            throw STOP;
+                        }
+                    }
+                });
+            } catch (StopReading e) {
+                // The error or help request is already recorded.
+            } catch (IOException | InvalidPathException e) {
+                error = new ParseError(ParseError.Code.UNREADABLE_ARGUMENT_FILE, null, token, offset,
+                        "Unreadable Argument File -> " + file);
+            }
+        }
+
+        /**
+         * Reads one token at the current level. Tokens starting with {@code --} are looked up as flags, either
+         * as {@code --name value} or {@code --name=value}, in any order. A flag that the level does not have is
+         * looked up in the enclosing levels, innermost first. Every other token fills the next argument, in
+         * declaration order, that was not already given as a flag, unless no positional value was given yet and
+         * the token names a sub-command, which then reads the following tokens. An argument that takes several
+         * values keeps taking positional values until it has its maximum. A lone {@code --} ends flag parsing,
+         * so later tokens are taken as positional values even if they start with {@code --}.
+         *
+         * @param token The index of the token in the line, which for tokens of an argument file is the index of
+         *              the {@code @path} token.
+         * @param offset The offset of that token in the line.
+         */
+        void accept(CharSequence text, int start, int end, int token, int offset) {
+            Level level = this.level;
+            if (pendingSlot >= 0) {
+                int slot = pendingSlot;
+                pendingSlot = -1;
+                error = pendingLevel.parser.store(slot, text, start, end, token, offset, pendingLevel,
+                        pendingLevel == level, timer);
+            } else if (level.flags && (matches(text, start, end, "-h") || matches(text, start, end, "--help"))) {
+                level.help = true;
+            } else if (level.flags && matches(text, start, end, "--")) {
+                level.flags = false;
+            } else if (level.flags && startsWith(text, start, end, "--")) {
+                flag(text, start, end, token, offset);
+            } else if (level.flags && !level.positional && level.parser.commands.length > 0
+                    && !startsWith(text, start, end, "-") && dispatch(text, start, end, token, offset)) {
+                return;
+            } else {
+                positional(text, start, end, token, offset);
+            }
+        }
+
+        /**
+         * Selects the sub-command named by the token, if any.
+         *
+         * @return {@code true} if the token named a sub-command or was ambiguous, {@code false} if it is a value.
+         */
+        private boolean dispatch(CharSequence text, int start, int end, int token, int offset) {
+            CompiledParser parser = level.parser;
+            if (timer != null) {
+                timer.start();
+            }
+            int command = parser.commandIndex.find(text, start, end);
+            if (timer != null) {
+                timer.dispatched();
+            }
+            if (command == CommandTrie.AMBIGUOUS) {
+                error = new ParseError(ParseError.Code.AMBIGUOUS_COMMAND, null, token, offset,
+                        "Ambiguous Command -> '" + text.subSequence(start, end) + "' could be "
+                                + String.join(", ", parser.commandIndex.candidates(text, start, end)));
+                return true;
+            } else if (command == CommandTrie.NONE) {
+                return false;
+            }
+            level = new Level(parser.commands[command], level, level.unconvertedText);
+            return true;
+        }
+
+        private void positional(CharSequence text, int start, int end, int token, int offset) {
+            Level level = this.level;
+            CompiledParser parser = level.parser;
+            level.positional = true;
+            int slot = level.filling;
+            if (slot < 0 || parser.arguments[slot].count(level.values, slot) >= parser.arguments[slot].maxValues()) {
+                slot = level.next = level.present.nextClearBit(level.next);
+                if (slot >= parser.arguments.length) {
+                    error = new ParseError(ParseError.Code.UNEXPECTED_ARGUMENT, null, token, offset,
+                            "Unexpected Argument -> " + text.subSequence(start, end));
+                    return;
+                }
+                level.filling = parser.arguments[slot].multiple() ? slot : -1;
+            }
+            error = parser.store(slot, text, start, end, token, offset, level, true, timer);
+        }
+
+        /**
+         * Reads the flag and stores its value, which follows the {@code =} if the token has one and is the next
+         * token otherwise. A flag the current level does not have is stored on the innermost enclosing level
+         * that has it.
+         */
+        private void flag(CharSequence text, int start, int end, int token, int offset) {
+            int separator = start + 2;
+            while (separator < end && text.charAt(separator) != '=') {
+                separator++;
+            }
+            Level owner = level;
+            int slot = owner.parser.argumentIndex.get(text, start + 2, separator);
+            while (slot < 0 && owner.parent != null) {
+                owner = owner.parent;
+                slot = owner.parser.argumentIndex.get(text, start + 2, separator);
+            }
+            if (slot < 0) {
+                error = new ParseError(ParseError.Code.UNKNOWN_ARGUMENT, null, token, offset,
+                        "Argument does not exist -> " + text.subSequence(start + 2, separator));
+                return;
+            }
+            Argument<?> argument = owner.parser.arguments[slot];
+            if (owner.present.get(slot) && !argument.multiple()) {
+                error = new ParseError(ParseError.Code.DUPLICATE_ARGUMENT, argument.name(), token, offset,
+                        "Duplicate Argument -> " + argument.name());
+            } else if (separator < end) {
+                error = owner.parser.store(slot, text, separator + 1, end, token, offset, owner, owner == level,
+                        timer);
+            } else {
+                pendingLevel = owner;
+                pendingSlot = slot;
+                pendingToken = token;
+                pendingOffset = offset;
+            }
+        }
+
+        /**
+         * Checks every level once all tokens are read, from the innermost out, and builds their results.
+         * Required arguments are only enforced at the innermost level, as a line that names a sub-command only
+         * needs that sub-command's arguments.
+         */
+        ParseOutcome finish() {
+            if (error == null && pendingSlot >= 0) {
+                String name = pendingLevel.parser.arguments[pendingSlot].name();
+                error = new ParseError(ParseError.Code.MISSING_VALUE, name, pendingToken, pendingOffset,
+                        "Missing Value -> " + name);
+            }
+            if (error != null) {
+                return new ParseOutcome.Failure(error, stackTraces);
+            }
+            ParseResult result = null;
+            for (Level current = level; current != null; current = current.parent) {
+                if (current.help) {
+                    result = new ParseResult(current.parser, current.values, current.primitives, current.present,
+                            null, true, null);
+                    continue;
+                }
+                ParseError error = current.parser.check(current, current == level, tokens, timer);
+                if (error != null) {
+                    return new ParseOutcome.Failure(error, stackTraces);
+                }
+                result = new ParseResult(current.parser, current.values, current.primitives, current.present,
+                        result, false, current.lazyValues());
+            }
+            return new ParseOutcome.Success(result);
+        }
+    }
+
+    /**
+     * Stops reading an argument file early. Thrown without a stack trace from a single shared instance.
+     */
+    private static final class StopReading extends IOException {
+        private static final long serialVersionUID = 1L;
+
+        StopReading() {
+            super(null, null);
+        }
+
+        @Override
+        public synchronized Throwable fillInStackTrace() {
+            return this;
+        }
+    }
+
+    private static boolean matches(CharSequence text, int start, int end, String value) {
+        return end - start == value.length() && startsWith(text, start, end, value);
+    }
+
+    private static boolean startsWith(CharSequence text, int start, int end, String prefix) {
+        if (end - start < prefix.length()) {
+            return false;
+        }
+        for (int i = 0; i < prefix.length(); i++) {
+            if (text.charAt(start + i) != prefix.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Parses the tokens after this level's identifier in a single pass, as described by {@link Parse#accept}.
+     * <p>
+     * Arguments with asynchronous validation are only converted while the tokens are read, and are validated
+     * together once every required argument is known to be present. Flags stored on an enclosing level are
+     * validated as they are read.
+     * <p>
+     * Errors are returned as a {@link ParseOutcome.Failure} rather than thrown. If a timer is given, the time
+     * spent looking up sub-commands and converting and validating values is added to it.
+     */
+    private ParseOutcome parse(Tokens tokens, int from, PhaseTimer timer) {
+        Parse parse = new Parse(this, tokens, timer);
+        for (int index = from; index < tokens.size() && parse.reading(); index++) {
+            parse.read(index);
+        }
+        return parse.finish();
+    }
+
+    /**
+     * Checks a level whose tokens are all read: its required arguments if it is the innermost level, the
+     * number of values of its arguments that take several, and its asynchronous validation functions.
+     *
+     * @return {@code null} if the level is valid, or the first error.
+     */
+    private ParseError check(Level level, boolean innermost, Tokens tokens, PhaseTimer timer) {
+        if (innermost) {
+            for (int i = required.nextSetBit(0); i >= 0; i = required.nextSetBit(i + 1)) {
+                if (!level.present.get(i)) {
+                    return new ParseError(ParseError.Code.MISSING_REQUIRED_ARGUMENT, arguments[i].name(), -1, -1,
+                            "Missing Required Argument -> " + arguments[i].name());
+                }
+            }
+        }
+        for (int slot : lists) {
+            if (level.present.get(slot) && arguments[slot].count(level.values, slot) < arguments[slot].minValues()) {
+                return arguments[slot].error(ParseError.Code.ARITY_MISMATCH, -1, -1);
+            }
+        }
+        if (level.deferred != null) {
+            return validateDeferred(tokens, level.values, level.primitives, level.deferredSlots, level.deferred,
+                    timer);
+        }
+        return null;
+    }
+
+    /**
+     * Runs the asynchronous validation functions of the given arguments concurrently. Only the slots whose
+     * validation was deferred while reading are validated; a flag stored on an enclosing level was already
+     * validated as it was read.
+     *
+     * @return {@code null} if every value is valid, the error of the first value that was rejected or missed its
+     *         deadline, or {@link ParseError.Code#VALIDATION_INTERRUPTED} if the thread was interrupted.
+     */
+    private ParseError validateDeferred(Tokens tokens, Object[] values, long[] primitives, BitSet deferredSlots,
+                                        int[] deferred, PhaseTimer timer) {
+        int[] slots = new int[deferredSlots.cardinality()];
+        int count = 0;
+        for (int i = deferredSlots.nextSetBit(0); i >= 0; i = deferredSlots.nextSetBit(i + 1)) {
+            slots[count++] = i;
+        }
+        if (count == 0) {
+            return null;
+        }
+        if (timer != null) {
+            timer.start();
+        }
+        AsyncValidation.Failure failed = AsyncValidation.validate(arguments, slots, count, values, primitives);
+        if (timer != null) {
+            timer.validated();
+        }
+        if (failed == null) {
+            return null;
+        } else if (failed == AsyncValidation.INTERRUPTED) {
+            return new ParseError(ParseError.Code.VALIDATION_INTERRUPTED, null, -1, -1,
+                    "Interrupted while waiting for validation");
+        }
+        int token = deferred[slots[failed.index()]];
+        return arguments[slots[failed.index()]].error(failed.code(), token, tokens.offset(token));
+    }
+
+    /**
+     * Validates the text of the argument at the given slot and stores the result on the level, unboxed for
+     * primitive arguments. Arguments that validate asynchronously are only converted if {@code defer} is set,
+     * and their token is recorded so a later rejection can point at it. If conversion is lazy, the token of an
+     * argument that takes a single value is only recorded, and converted when the {@link ParseResult} is read.
+     *
+     * @return {@code null} if the value was stored, or the error, pointing at the given token.
+     */
+    private ParseError store(int slot, CharSequence text, int start, int end, int token, int offset, Level level,
+                             boolean defer, PhaseTimer timer) {
+        Argument<?> argument = arguments[slot];
+        if (level.unconvertedText != null && !argument.multiple() && !argument.validatesAsync()) {
+            // Keep a copy of the token, as the line or argument file it was read from may be reused.
+            int[] tokens = level.unconvertedTokens;
+            tokens[4 * slot] = level.unconvertedText.length();
+            level.unconvertedText.append(text, start, end);
+            tokens[4 * slot + 1] = level.unconvertedText.length();
+            tokens[4 * slot + 2] = token;
+            tokens[4 * slot + 3] = offset;
+            level.unconverted.set(slot);
+            level.present.set(slot);
+            return null;
+        }
+        if (timer != null) {
+            timer.start();
+        }
+        boolean async = defer && level.deferred != null && argument.validatesAsync();
+        if (async) {
+            level.deferred[slot] = token;
+        }
+        ParseError.Code failure = argument.store(text, start, end, level.values, level.primitives, slot, timer,
+                !async);
+        if (timer != null) {
+            if (failure == ParseError.Code.CONVERSION_FAILED || failure == ParseError.Code.CUSTOM_CONVERSION_FAILED) {
+                timer.converted();
+            } else {
+                timer.validated();
+            }
+        }
+        if (failure != null) {
+            return argument.error(failure, token, offset);
+        }
+        if (async) {
+            level.deferredSlots.set(slot);
+        }
+        level.present.set(slot);
+        return null;
+    }
+}
@@ -0,0 +1,212 @@
+package oop.project.cli;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * Suggests completions for the token under the cursor of a partially typed line.
+ * <p>
+ * The line up to the cursor is tokenized like a parsed line, and the complete tokens are walked the way
+ * {@link CompiledParser} parses them: sub-commands are followed to the level the cursor is in, and the flags and
+ * positional slots already given at that level are marked. A flag the level does not have is looked up in the
+ * enclosing levels, innermost first, as the parser does, so an inherited flag and its value are skipped wherever
+ * they are given. Candidates for the last token then come from the level's prefix tries over command names and
+ * flag names, so only names starting with the typed prefix are visited, however many commands or arguments the
+ * level has.
+ */
+final class Completer {
+    private static final List<String> BOOLEANS = List.of("false", "true");
+
+    private Completer() {}
+
+    /**
+     * Completes the token that ends at the cursor, or a new token if the cursor follows whitespace.
+     */
+    static CompiledParser.Completions complete(CompiledParser root, String line, int cursor) {
+        if (cursor < 0 || cursor > line.length()) {
+            throw new IndexOutOfBoundsException("Cursor " + cursor + " is outside the line.");
+        }
+        int tokenStart = cursor;
+        while (tokenStart > 0 && !Character.isWhitespace(line.charAt(tokenStart - 1))) {
+            tokenStart--;
+        }
+        String prefix = line.substring(tokenStart, cursor);
+
+        Tokens tokens = Tokens.borrow();
+        try {
+            if (tokens.scan(line.subSequence(0, tokenStart)) >= 0 || prefix.indexOf('"') >= 0
+                    || prefix.indexOf('\'') >= 0 || prefix.indexOf('\\') >= 0) {
+                // Quoted or escaped text is not completed.
+                return none(cursor);
+            }
+            if (tokens.size() == 0) {
+                return root.identifier().startsWith(prefix)
+                        ? new CompiledParser.Completions(tokenStart, cursor, List.of(root.identifier()))
+                        : none(cursor);
+            } else if (!tokens.matches(0, root.identifier())) {
+                return none(cursor);
+            }
+            return complete(root, null, tokens, 1, prefix, tokenStart, cursor);
+        } finally {
+            tokens.release();
+        }
+    }
+
+    /**
+     * The arguments already given at one level of the line with the number of values given for each, and the
+     * scope of the level enclosing it.
+     */
+    private record Scope(CompiledParser level, BitSet present, int[] counts, Scope parent) {
+
+        Scope(CompiledParser level, Scope parent) {
+            this(level, new BitSet(level.argumentCount()), new int[level.argumentCount()], parent);
+        }
+
+        /**
+         * Returns the innermost scope, starting with this one, whose level has the flag, or {@code null}.
+         */
+        Scope owner(String name) {
+            Scope owner = this;
+            while (owner != null && owner.level.indexOf(name) < 0) {
+                owner = owner.parent;
+            }
+            return owner;
+        }
+    }
+
+    private static CompiledParser.Completions complete(CompiledParser level, Scope parent, Tokens tokens, int from,
+                                                       String prefix, int tokenStart, int cursor) {
+        Scope scope = new Scope(level, parent);
+        BitSet present = scope.present();
+        int[] counts = scope.counts();
+        int next = 0;
+        int filling = -1;
+        boolean flags = true;
+        boolean positional = false;
+        Argument<?> awaitingValue = null;
+        for (int index = from; index < tokens.size(); index++) {
+            if (awaitingValue != null) {
+                awaitingValue = null;
+            } else if (flags && tokens.matches(index, "--")) {
+                flags = false;
+            } else if (flags && tokens.startsWith(index, "--")) {
+                String flag = tokens.toString(index);
+                int separator = flag.indexOf('=');
+                String name = separator < 0 ? flag.substring(2) : flag.substring(2, separator);
+                Scope owner = scope.owner(name);
+                if (owner != null) {
+                    int slot = owner.level().indexOf(name);
+                    owner.present().set(slot);
+                    owner.counts()[slot]++;
+                    awaitingValue = separator < 0 ? owner.level().argument(slot) : null;
+                }
+            } else {
+                // Follow a sub-command named before the first positional value of this level.
+                if (flags && !positional && level.commands().size() > 0 && !tokens.startsWith(index, "-")) {
+                    int command = level.commandIndex().find(tokens.text(index), tokens.start(index), tokens.end(index));
+                    if (command == CommandTrie.AMBIGUOUS) {
+                        return none(cursor);
+                    } else if (command != CommandTrie.NONE) {
+                        return complete(level.command(command), scope, tokens, index + 1, prefix, tokenStart, cursor);
+                    }
+                }
+                // Stay on a positional argument that takes several values until it has its most.
+                positional = true;
+                if (!filling(level, counts, filling)) {
+                    filling = next = present.nextClearBit(next);
+                }
+                if (filling < level.argumentCount()) {
+                    present.set(filling);
+                    counts[filling]++;
+                }
+            }
+        }
+
+        List<String> candidates = new ArrayList<>();
+        if (awaitingValue != null) {
+            values(awaitingValue, prefix, candidates);
+        } else if (flags && prefix.startsWith("--") && prefix.indexOf('=') >= 0) {
+            int separator = prefix.indexOf('=');
+            String name = prefix.substring(2, separator);
+            Scope owner = scope.owner(name);
+            if (owner != null) {
+                values(owner.level().argument(owner.level().indexOf(name)), prefix.substring(separator + 1),
+                        candidates);
+            }
+            return new CompiledParser.Completions(tokenStart + separator + 1, cursor, List.copyOf(candidates));
+        } else if (flags && prefix.startsWith("-")) {
+            flags(scope, prefix, candidates);
+        } else {
+            if (flags && !positional && level.commands().size() > 0) {
+                candidates.addAll(level.commandIndex().candidates(prefix, 0, prefix.length()));
+            }
+            int slot = filling(level, counts, filling) ? filling : present.nextClearBit(next);
+            if (slot < level.argumentCount()) {
+                values(level.argument(slot), prefix, candidates);
+            }
+            if (flags && prefix.isEmpty()) {
+                flags(scope, prefix, candidates);
+            }
+        }
+        return new CompiledParser.Completions(tokenStart, cursor, List.copyOf(candidates));
+    }
+
+    /**
+     * Returns whether the positional slot being filled takes another value.
+     */
+    private static boolean filling(CompiledParser level, int[] counts, int slot) {
+        return slot >= 0 && slot < level.argumentCount() && counts[slot] < level.argument(slot).maxValues();
+    }
+
+    /**
+     * Adds the flags that start with the prefix and take another value, required flags first, then
+     * {@code --help}. A flag that takes several values is offered again until it has its most.
+     */
+    private static void flags(Scope scope, String prefix, List<String> candidates) {
+        CompiledParser level = scope.level();
+        if (prefix.length() > 2 ? !prefix.startsWith("--") : !"--".startsWith(prefix)) {
+            return;
+        }
+        String name = prefix.length() > 2 ? prefix.substring(2) : "";
+        List<String> names = level.flagIndex().candidates(name, 0, name.length());
+        for (boolean required : new boolean[] { true, false }) {
+            for (String candidate : names) {
+                int slot = level.indexOf(candidate);
+                Argument<?> argument = level.argument(slot);
+                if (scope.counts()[slot] < argument.maxValues() && argument.required() == required) {
+                    candidates.add("--" + candidate);
+                }
+            }
+        }
+        if ("--help".startsWith(prefix)) {
+            candidates.add("--help");
+        }
+    }
+
+    /**
+     * Adds the values of an enum or boolean argument that start with the prefix. Other types have no fixed set
+     * of values to suggest.
+     */
+    private static void values(Argument<?> argument, String prefix, List<String> candidates) {
+        Class<?> type = argument.type();
+        if (type.isEnum()) {
+            for (Object constant : type.getEnumConstants()) {
+                String value = ((Enum<?>) constant).name();
+                if (value.startsWith(prefix)) {
+                    candidates.add(value);
+                }
+            }
+        } else if (type == boolean.class || type == Boolean.class) {
+            for (String value : BOOLEANS) {
+                if (value.startsWith(prefix)) {
+                    candidates.add(value);
+                }
+            }
+        }
+    }
+
+    private static CompiledParser.Completions none(int cursor) {
+        return new CompiledParser.Completions(cursor, cursor, List.of());
+    }
+}
@@ -0,0 +1,190 @@
+package oop.project.cli;
+
+import oop.project.cli.annotations.Immutable;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.net.URI;
+import java.nio.file.Path;
+import java.time.*;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A bounded cache of converted values keyed by the raw token, with least-recently-used eviction.
+ * <p>
+ * The cache is split into stripes, each an access-ordered {@link LinkedHashMap} behind its own lock, so parses on
+ * different threads rarely wait on each other. A token is looked up straight from the line through a reusable
+ * probe key, so a hit neither copies the token nor allocates. The conversion itself runs outside the lock; two
+ * threads missing on the same token may both convert it, and the first value stored is kept.
+ *
+ * @param <T> The type of the cached values.
+ */
+final class ConversionCache<T> {
+    private static final int MAX_STRIPES = 16;
+    private static final int MIN_STRIPE_SIZE = 8;
+
+    /**
+     * JDK types whose instances cannot change, so cached values may be shared between parse results.
+     */
+    private static final Set<Class<?>> IMMUTABLE_TYPES = Set.of(
+            String.class, Boolean.class, Character.class, Byte.class, Short.class, Integer.class, Long.class,
+            Float.class, Double.class, BigInteger.class, BigDecimal.class, UUID.class, URI.class, Path.class,
+            Instant.class, Duration.class, Period.class, LocalDate.class, LocalTime.class, LocalDateTime.class,
+            OffsetTime.class, OffsetDateTime.class, ZonedDateTime.class, ZoneId.class, ZoneOffset.class,
+            Year.class, YearMonth.class, MonthDay.class);
+
+    private final int maxSize;
+    private final Stripe<T>[] stripes;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    @SuppressWarnings("unchecked")
+    ConversionCache(int maxSize) {
+        this.maxSize = maxSize;
+        int count = Integer.highestOneBit(Math.clamp(maxSize / MIN_STRIPE_SIZE, 1, MAX_STRIPES));
+        stripes = (Stripe<T>[]) new Stripe<?>[count];
+        for (int i = 0; i < count; i++) {
+            // Spread the remainder so the stripes together hold exactly maxSize values.
+            stripes[i] = new Stripe<>(maxSize / count + (i < maxSize % count ? 1 : 0), evictions);
+        }
+    }
+
+    /**
+     * Returns whether values of the type may be cached: JDK value types, enums, and types annotated with
+     * {@link Immutable}.
+     */
+    static boolean isImmutable(Class<?> type) {
+        return IMMUTABLE_TYPES.contains(type) || type.isEnum() || type.isAnnotationPresent(Immutable.class);
+    }
+
+    /**
+     * Returns the cached value of the token, converting and caching it on a miss. Failed conversions and
+     * {@code null} results are not cached.
+     */
+    T get(CharSequence line, int start, int end, Converter<T> converter) throws Exception {
+        int hash = hash(line, start, end);
+        Stripe<T> stripe = stripes[(hash ^ (hash >>> 16)) & (stripes.length - 1)];
+        T value = stripe.get(line, start, end, hash);
+        if (value != null) {
+            hits.increment();
+            return value;
+        }
+        misses.increment();
+        value = converter.convert(line, start, end);
+        return value == null ? null : stripe.put(line.subSequence(start, end).toString(), value);
+    }
+
+    Argument.CacheStats stats() {
+        int size = 0;
+        for (Stripe<T> stripe : stripes) {
+            size += stripe.size();
+        }
+        return new Argument.CacheStats(maxSize, size, hits.sum(), misses.sum(), evictions.sum());
+    }
+
+    /**
+     * Computes {@link String#hashCode()} of the token without copying it, so it matches the hash of the stored key.
+     */
+    private static int hash(CharSequence line, int start, int end) {
+        int hash = 0;
+        for (int i = start; i < end; i++) {
+            hash = 31 * hash + line.charAt(i);
+        }
+        return hash;
+    }
+
+    /**
+     * One lock-guarded part of the cache.
+     */
+    private static final class Stripe<T> {
+        private final ReentrantLock lock = new ReentrantLock();
+        private final Probe probe = new Probe();
+        private final LinkedHashMap<Object, T> values;
+
+        Stripe(int capacity, LongAdder evictions) {
+            values = new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<Object, T> eldest) {
+                    if (size() > capacity) {
+                        evictions.increment();
+                        return true;
+                    }
+                    return false;
+                }
+            };
+        }
+
+        T get(CharSequence line, int start, int end, int hash) {
+            lock.lock();
+            try {
+                probe.set(line, start, end, hash);
+                T value = values.get(probe);
+                probe.set(null, 0, 0, 0);
+                return value;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        T put(String key, T value) {
+            lock.lock();
+            try {
+                T existing = values.putIfAbsent(key, value);
+                return existing != null ? existing : value;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        int size() {
+            lock.lock();
+            try {
+                return values.size();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * A lookup key that views a token of a line and equals the {@link String} key with the same characters.
+     * The map calls {@code probe.equals(storedKey)}, so the probe is never stored.
+     */
+    private static final class Probe {
+        private CharSequence line;
+        private int start;
+        private int end;
+        private int hash;
+
+        void set(CharSequence line, int start, int end, int hash) {
+            this.line = line;
+            this.start = start;
+            this.end = end;
+            this.hash = hash;
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (!(other instanceof String key) || key.length() != end - start) {
+                return false;
+            }
+            for (int i = 0; i < key.length(); i++) {
+                if (key.charAt(i) != line.charAt(start + i)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
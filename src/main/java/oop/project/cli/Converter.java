@@ -0,0 +1,34 @@
+package oop.project.cli;
+
+/**
+ * This class represents the user defined function for converting an input token into an argument's type.
+ * @param <T> The type of the argument.
+ */
+@FunctionalInterface
+public interface Converter<T> {
+    T convert(CharSequence value) throws Exception;
+
+    /**
+     * Converts the token between {@code start} and {@code end} of a line. By default the token is copied out with
+     * {@link CharSequence#subSequence(int, int)}; converters that can read the line directly implement
+     * {@link Slice} instead.
+     */
+    default T convert(CharSequence line, int start, int end) throws Exception {
+        return convert(line.subSequence(start, end));
+    }
+
+    /**
+     * A converter that reads its token straight out of the line, without copying it into a string first.
+     * @param <T> The type of the argument.
+     */
+    @FunctionalInterface
+    interface Slice<T> extends Converter<T> {
+        @Override
+        T convert(CharSequence line, int start, int end) throws Exception;
+
+        @Override
+        default T convert(CharSequence value) throws Exception {
+            return convert(value, 0, value.length());
+        }
+    }
+}
@@ -0,0 +1,454 @@
+package oop.project.cli;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.time.*;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * A registry of {@link Converter}s used by {@link Argument} to turn input tokens into typed values.
+ * <p>
+ * Common types are converted by built-in converters. The {@code int}, {@code long}, {@code double} and
+ * {@link LocalDate} converters read the token straight out of the line: the common shapes of each, such as plain
+ * decimal digits or {@code yyyy-MM-dd}, are parsed by hand, and anything else is handed to the JDK's parser, so
+ * every token gives the same value or the same exception as the JDK. Any other type is resolved once into a cached
+ * {@link MethodHandle} for its public {@code (String)} constructor, or for a named static factory method such as
+ * {@code parse(CharSequence)}, so no reflective lookup happens while parsing.
+ */
+public final class Converters {
+
+    private static final MethodHandles.Lookup LOOKUP = MethodHandles.publicLookup();
+    private static final MethodHandle TO_STRING;
+    static {
+        try {
+            TO_STRING = LOOKUP.findVirtual(CharSequence.class, "toString", MethodType.methodType(String.class));
+        } catch (NoSuchMethodException | IllegalAccessException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private static final Map<Class<?>, Converter<?>> BUILT_IN = Map.ofEntries(
+            Map.entry(String.class, (Converter.Slice<String>) (line, start, end) ->
+                    line.subSequence(start, end).toString()),
+            Map.entry(Integer.class, (Converter.Slice<Integer>) Converters::parseInt),
+            Map.entry(int.class, (Converter.Slice<Integer>) Converters::parseInt),
+            Map.entry(Long.class, (Converter.Slice<Long>) Converters::parseLong),
+            Map.entry(long.class, (Converter.Slice<Long>) Converters::parseLong),
+            Map.entry(Short.class, value -> Short.valueOf(value.toString())),
+            Map.entry(Byte.class, value -> Byte.valueOf(value.toString())),
+            Map.entry(Double.class, (Converter.Slice<Double>) Converters::parseDouble),
+            Map.entry(double.class, (Converter.Slice<Double>) Converters::parseDouble),
+            Map.entry(Float.class, value -> Float.valueOf(value.toString())),
+            Map.entry(Boolean.class, (Converter.Slice<Boolean>) Converters::parseBoolean),
+            Map.entry(boolean.class, (Converter.Slice<Boolean>) Converters::parseBoolean),
+            Map.entry(Character.class, Converters::toCharacter),
+            Map.entry(BigDecimal.class, value -> new BigDecimal(value.toString())),
+            Map.entry(BigInteger.class, value -> new BigInteger(value.toString())),
+            Map.entry(LocalDate.class, (Converter.Slice<LocalDate>) Converters::parseLocalDate),
+            Map.entry(LocalTime.class, LocalTime::parse),
+            Map.entry(LocalDateTime.class, LocalDateTime::parse),
+            Map.entry(OffsetDateTime.class, OffsetDateTime::parse),
+            Map.entry(ZonedDateTime.class, ZonedDateTime::parse),
+            Map.entry(Instant.class, Instant::parse),
+            Map.entry(Duration.class, Duration::parse),
+            Map.entry(Period.class, Period::parse),
+            Map.entry(Year.class, Year::parse),
+            Map.entry(YearMonth.class, YearMonth::parse),
+            Map.entry(ZoneId.class, value -> ZoneId.of(value.toString()))
+    );
+
+    // Returned by tryParseInt for invalid text; outside the range of int.
+    static final long NOT_AN_INT = Long.MIN_VALUE;
+    // Returned by parseAsciiDecimal for text it does not handle; no sign and 18 digits can reach it.
+    private static final long NOT_ASCII_DECIMAL = Long.MIN_VALUE;
+    private static final int MAX_ASCII_DIGITS = 18;
+    // Every power of ten up to 10^22 is exact as a double.
+    private static final double[] POWERS_OF_TEN = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+            1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+    private static final long MAX_EXACT_MANTISSA = 1L << 53;
+
+    private static final ConcurrentMap<Class<?>, Converter<?>> REGISTERED = new ConcurrentHashMap<>();
+    private static final ConcurrentMap<Class<?>, Converter<?>> CONSTRUCTORS = new ConcurrentHashMap<>();
+    private static final ConcurrentMap<MethodKey, Converter<?>> METHODS = new ConcurrentHashMap<>();
+
+    private Converters() {}
+
+    /**
+     * Registers the default converter for a type, replacing any built-in or previously registered converter.
+     * Only arguments built after the call use the new converter.
+     *
+     * @param type The type the converter produces.
+     * @param converter The converter to use for arguments of that type.
+     */
+    public static <T> void register(Class<T> type, Converter<T> converter) {
+        REGISTERED.put(type, converter);
+    }
+
+    /**
+     * Returns the default converter for a type. Registered converters take precedence over built-in ones;
+     * any other type falls back to its public {@code (String)} constructor.
+     *
+     * @param type The type to convert to.
+     * @return The converter for the type.
+     * @throws IllegalArgumentException If the type has no registered converter and no public (String) constructor.
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> Converter<T> forType(Class<T> type) {
+        Converter<?> converter = REGISTERED.get(type);
+        if (converter == null) {
+            converter = BUILT_IN.get(type);
+        }
+        if (converter == null) {
+            converter = CONSTRUCTORS.computeIfAbsent(type, Converters::constructorConverter);
+        }
+        return (Converter<T>) converter;
+    }
+
+    /**
+     * Returns a converter that calls a public static method of the type, taking a {@code CharSequence}
+     * (or {@code String}) and returning the type, such as {@code LocalDate.parse}.
+     *
+     * @param type The type to convert to.
+     * @param methodName The name of the static factory method.
+     * @return The converter for the type and method.
+     * @throws IllegalArgumentException If the type has no such method.
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> Converter<T> forMethod(Class<T> type, String methodName) {
+        return (Converter<T>) METHODS.computeIfAbsent(new MethodKey(type, methodName), Converters::methodConverter);
+    }
+
+    /* PRIMITIVE CONVERSIONS */
+
+    /**
+     * Parses a decimal {@code int} from part of a line without boxing, with the same rules as
+     * {@link Integer#parseInt(String)}.
+     *
+     * @param line The line holding the text.
+     * @param start The start of the text, inclusive.
+     * @param end The end of the text, exclusive.
+     * @return The parsed value.
+     * @throws NumberFormatException If the text is not a valid {@code int}.
+     */
+    public static int parseInt(CharSequence line, int start, int end) {
+        long value = parseAsciiDecimal(line, start, end);
+        if (value == NOT_ASCII_DECIMAL || value != (int) value) {
+            return Integer.parseInt(line, start, end, 10);
+        }
+        return (int) value;
+    }
+
+    /**
+     * Parses a decimal {@code long} from part of a line without boxing, with the same rules as
+     * {@link Long#parseLong(String)}.
+     *
+     * @param line The line holding the text.
+     * @param start The start of the text, inclusive.
+     * @param end The end of the text, exclusive.
+     * @return The parsed value.
+     * @throws NumberFormatException If the text is not a valid {@code long}.
+     */
+    public static long parseLong(CharSequence line, int start, int end) {
+        long value = parseAsciiDecimal(line, start, end);
+        return value != NOT_ASCII_DECIMAL ? value : Long.parseLong(line, start, end, 10);
+    }
+
+    /**
+     * Parses the text like {@link #parseInt(CharSequence, int, int)}, but rejects invalid input without an
+     * exception being thrown.
+     *
+     * @return The value, or {@link #NOT_AN_INT} if the text is not a valid {@code int}.
+     */
+    static long tryParseInt(CharSequence line, int start, int end) {
+        long value = parseAsciiDecimal(line, start, end);
+        if (value != NOT_ASCII_DECIMAL) {
+            return value == (int) value ? value : NOT_AN_INT;
+        }
+        return isDecimal(line, start, end, Integer.MIN_VALUE) ? Integer.parseInt(line, start, end, 10) : NOT_AN_INT;
+    }
+
+    /**
+     * Returns whether {@link #parseLong(CharSequence, int, int)} accepts the text, so invalid input can be rejected
+     * without an exception being thrown.
+     */
+    static boolean isLong(CharSequence line, int start, int end) {
+        return parseAsciiDecimal(line, start, end) != NOT_ASCII_DECIMAL || isDecimal(line, start, end, Long.MIN_VALUE);
+    }
+
+    /**
+     * Parses the common case of an optional sign followed by at most 18 ASCII digits, which cannot overflow a
+     * {@code long}, in a single pass.
+     *
+     * @return The value, or {@link #NOT_ASCII_DECIMAL} if the text has another shape, which the JDK then parses
+     *         or rejects.
+     */
+    private static long parseAsciiDecimal(CharSequence line, int start, int end) {
+        int i = start;
+        boolean negative = false;
+        if (i < end && (line.charAt(i) == '-' || line.charAt(i) == '+')) {
+            negative = line.charAt(i++) == '-';
+        }
+        if (i == end || end - i > MAX_ASCII_DIGITS) {
+            return NOT_ASCII_DECIMAL;
+        }
+        long value = 0;
+        for (; i < end; i++) {
+            int digit = line.charAt(i) - '0';
+            if (digit < 0 || digit > 9) {
+                return NOT_ASCII_DECIMAL;
+            }
+            value = value * 10 + digit;
+        }
+        return negative ? -value : value;
+    }
+
+    /**
+     * Checks the text with the same rules as {@link Long#parseLong(String)}, but within {@code [min, -(min + 1)]}:
+     * an optional sign followed by at least one decimal digit. Digits are accumulated negatively, as in the JDK,
+     * so the minimum value does not overflow.
+     */
+    private static boolean isDecimal(CharSequence line, int start, int end, long min) {
+        if (start >= end) {
+            return false;
+        }
+        int i = start;
+        boolean negative = false;
+        char first = line.charAt(i);
+        if (first == '-' || first == '+') {
+            negative = first == '-';
+            if (++i == end) {
+                return false;
+            }
+        }
+        long limit = negative ? min : min + 1;
+        long multiplyMin = limit / 10;
+        long result = 0;
+        for (; i < end; i++) {
+            int digit = Character.digit(line.charAt(i), 10);
+            if (digit < 0 || result < multiplyMin) {
+                return false;
+            }
+            result *= 10;
+            if (result < limit + digit) {
+                return false;
+            }
+            result -= digit;
+        }
+        return true;
+    }
+
+    /**
+     * Parses a {@code double} from part of a line without boxing, with the same rules as
+     * {@link Double#parseDouble(String)}.
+     * <p>
+     * Plain decimals such as {@code -12.5} or {@code 3e-4}, whose digits form an integer of at most 2<sup>53</sup>
+     * scaled by a power of ten of at most 10<sup>22</sup>, are parsed without copying the text: both numbers are
+     * exact as doubles, so a single multiplication or division rounds correctly and gives the same bits as the
+     * JDK (Clinger's fast path). Other text, including hexadecimal, {@code NaN}, {@code Infinity}, surrounding
+     * whitespace and type suffixes, is parsed by the JDK.
+     *
+     * @param line The line holding the text.
+     * @param start The start of the text, inclusive.
+     * @param end The end of the text, exclusive.
+     * @return The parsed value.
+     * @throws NumberFormatException If the text is not a valid {@code double}.
+     */
+    public static double parseDouble(CharSequence line, int start, int end) {
+        int i = start;
+        boolean negative = false;
+        if (i < end && (line.charAt(i) == '-' || line.charAt(i) == '+')) {
+            negative = line.charAt(i++) == '-';
+        }
+        long mantissa = 0;
+        int digits = 0;
+        int fractionDigits = 0;
+        boolean point = false;
+        for (; i < end; i++) {
+            char c = line.charAt(i);
+            if (c >= '0' && c <= '9') {
+                if (++digits > MAX_ASCII_DIGITS) {
+                    return parseDoubleSlow(line, start, end);
+                }
+                mantissa = mantissa * 10 + (c - '0');
+                if (point) {
+                    fractionDigits++;
+                }
+            } else if (c == '.' && !point) {
+                point = true;
+            } else {
+                break;
+            }
+        }
+        if (digits == 0) {
+            return parseDoubleSlow(line, start, end);
+        }
+        int exponent = 0;
+        if (i < end && (line.charAt(i) == 'e' || line.charAt(i) == 'E')) {
+            i++;
+            boolean negativeExponent = false;
+            if (i < end && (line.charAt(i) == '-' || line.charAt(i) == '+')) {
+                negativeExponent = line.charAt(i++) == '-';
+            }
+            int exponentStart = i;
+            for (; i < end && line.charAt(i) >= '0' && line.charAt(i) <= '9'; i++) {
+                if (i - exponentStart >= 3) {
+                    return parseDoubleSlow(line, start, end);
+                }
+                exponent = exponent * 10 + (line.charAt(i) - '0');
+            }
+            if (i == exponentStart) {
+                return parseDoubleSlow(line, start, end);
+            }
+            if (negativeExponent) {
+                exponent = -exponent;
+            }
+        }
+        int power = exponent - fractionDigits;
+        if (i != end || mantissa > MAX_EXACT_MANTISSA || power < -22 || power > 22) {
+            return parseDoubleSlow(line, start, end);
+        }
+        double value = power >= 0 ? mantissa * POWERS_OF_TEN[power] : mantissa / POWERS_OF_TEN[-power];
+        return negative ? -value : value;
+    }
+
+    private static double parseDoubleSlow(CharSequence line, int start, int end) {
+        return Double.parseDouble(line.subSequence(start, end).toString());
+    }
+
+    /**
+     * Parses a {@code boolean} from part of a line, with the same rules as {@link Boolean#parseBoolean(String)}.
+     *
+     * @param line The line holding the text.
+     * @param start The start of the text, inclusive.
+     * @param end The end of the text, exclusive.
+     * @return {@code true} if the text is {@code "true"}, ignoring case, and {@code false} otherwise.
+     */
+    public static boolean parseBoolean(CharSequence line, int start, int end) {
+        if (end - start != 4) {
+            return false;
+        }
+        for (int i = 0; i < 4; i++) {
+            if (Character.toLowerCase(line.charAt(start + i)) != "true".charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /* DATE CONVERSIONS */
+
+    /**
+     * Parses a {@link LocalDate} from part of a line, with the same rules as {@link LocalDate#parse(CharSequence)}.
+     * Dates written as {@code yyyy-MM-dd} with a valid day are read directly, without the
+     * {@link java.time.format.DateTimeFormatter} machinery. Other text, such as years beyond 9999 or an invalid
+     * day, is parsed by the JDK, which gives the same result or exception as a direct call.
+     *
+     * @param line The line holding the text.
+     * @param start The start of the text, inclusive.
+     * @param end The end of the text, exclusive.
+     * @return The parsed date.
+     * @throws java.time.format.DateTimeParseException If the text is not a valid ISO date.
+     */
+    public static LocalDate parseLocalDate(CharSequence line, int start, int end) {
+        if (end - start == 10 && line.charAt(start + 4) == '-' && line.charAt(start + 7) == '-') {
+            int year = parseDigits(line, start, start + 4);
+            int month = parseDigits(line, start + 5, start + 7);
+            int day = parseDigits(line, start + 8, end);
+            if (year >= 0 && month >= 1 && month <= 12 && day >= 1
+                    && day <= Month.of(month).length(Year.isLeap(year))) {
+                return LocalDate.of(year, month, day);
+            }
+        }
+        return LocalDate.parse(line.subSequence(start, end));
+    }
+
+    /**
+     * Parses a short run of ASCII digits.
+     *
+     * @return The value, or {@code -1} if any character is not an ASCII digit.
+     */
+    private static int parseDigits(CharSequence line, int start, int end) {
+        int value = 0;
+        for (int i = start; i < end; i++) {
+            int digit = line.charAt(i) - '0';
+            if (digit < 0 || digit > 9) {
+                return -1;
+            }
+            value = value * 10 + digit;
+        }
+        return value;
+    }
+
+    /* METHOD HANDLES */
+
+    private static Converter<?> constructorConverter(Class<?> type) {
+        MethodHandle handle;
+        try {
+            handle = LOOKUP.findConstructor(type, MethodType.methodType(void.class, String.class));
+        } catch (NoSuchMethodException | IllegalAccessException e) {
+            throw new IllegalArgumentException("No converter for type '" + type.getName() + "'.", e);
+        }
+        MethodHandle exact = handle.asType(MethodType.methodType(Object.class, String.class));
+        return value -> {
+            try {
+                return exact.invokeExact(value.toString());
+            } catch (Throwable t) {
+                throw rethrow(t);
+            }
+        };
+    }
+
+    private static Converter<?> methodConverter(MethodKey key) {
+        MethodHandle handle = findStatic(key, CharSequence.class);
+        if (handle == null) {
+            handle = findStatic(key, String.class);
+        }
+        if (handle == null) {
+            throw new IllegalArgumentException("No method '" + key.methodName() + "' for type '"
+                    + key.type().getName() + "'.");
+        }
+        MethodHandle exact = handle.asType(MethodType.methodType(Object.class, CharSequence.class));
+        return value -> {
+            try {
+                return exact.invokeExact(value);
+            } catch (Throwable t) {
+                throw rethrow(t);
+            }
+        };
+    }
+
+    private static MethodHandle findStatic(MethodKey key, Class<?> parameter) {
+        try {
+            MethodHandle handle = LOOKUP.findStatic(key.type(), key.methodName(),
+                    MethodType.methodType(key.type(), parameter));
+            return parameter == String.class
+                    ? MethodHandles.filterArguments(handle, 0, TO_STRING)
+                    : handle;
+        } catch (NoSuchMethodException | IllegalAccessException e) {
+            return null;
+        }
+    }
+
+    private static Character toCharacter(CharSequence value) {
+        if (value.length() != 1) {
+            throw new IllegalArgumentException("Expected a single character.");
+        }
+        return value.charAt(0);
+    }
+
+    private static Exception rethrow(Throwable t) {
+        if (t instanceof Error error) {
+            throw error;
+        }
+        return (Exception) t;
+    }
+
+    private record MethodKey(Class<?> type, String methodName) {}
+}
@@ -0,0 +1,164 @@
+package oop.project.cli;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.*;
+
+/**
+ * Parses lines and runs their {@link Handler}s on an executor, so the next line can be parsed while earlier lines
+ * are still executing.
+ * <p>
+ * A line is parsed and dispatched on the thread that submits it, because callers such as {@link LineReader} reuse
+ * the line between calls. Only the handler runs on the executor. At most {@code capacity} lines are submitted but
+ * not yet finished; a further {@link #submit(CharSequence)} blocks until one finishes, so a fast producer cannot
+ * queue an unbounded backlog. The latency of every handler is recorded by command path, such as
+ * {@code "calc add"}, in a {@link LatencyHistogram}.
+ */
+public final class ExecutionPipeline implements AutoCloseable {
+
+    //Required
+    private final ParserRegistry registry;
+    private final Executor executor;
+    private final int capacity;
+
+    //Storage
+    private final boolean ownsExecutor;
+    private final Semaphore permits;
+    private final ConcurrentHashMap<String, LatencyHistogram> latencies = new ConcurrentHashMap<>();
+
+    /* CONSTRUCTORS */
+
+    /**
+     * Constructs a pipeline that runs handlers on the given executor. The executor is not shut down when the
+     * pipeline is closed.
+     *
+     * @param registry The programs that lines are parsed with.
+     * @param executor The executor that runs the handlers.
+     * @param capacity The number of lines that may be submitted but not yet finished.
+     * @throws IllegalArgumentException If the capacity is not positive.
+     */
+    public ExecutionPipeline(ParserRegistry registry, Executor executor, int capacity) {
+        this(registry, executor, capacity, false);
+    }
+
+    private ExecutionPipeline(ParserRegistry registry, Executor executor, int capacity, boolean ownsExecutor) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Pipeline capacity must be positive.");
+        }
+        this.registry = registry;
+        this.executor = executor;
+        this.capacity = capacity;
+        this.ownsExecutor = ownsExecutor;
+        this.permits = new Semaphore(capacity);
+    }
+
+    /**
+     * Constructs a pipeline that runs every handler on its own virtual thread. The threads' executor is shut down
+     * when the pipeline is closed.
+     *
+     * @param registry The programs that lines are parsed with.
+     * @param capacity The number of lines that may be submitted but not yet finished.
+     * @return The pipeline.
+     * @throws IllegalArgumentException If the capacity is not positive.
+     */
+    public static ExecutionPipeline virtualThreads(ParserRegistry registry, int capacity) {
+        ExecutorService executor =
+                Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("cli-handler-", 0).factory());
+        return new ExecutionPipeline(registry, executor, capacity, true);
+    }
+
+    /* EXECUTION METHODS */
+
+    /**
+     * Parses the line on the calling thread and schedules its handler, as in {@link ParseResult#execute()}.
+     * Blocks while the pipeline is at capacity.
+     *
+     * @param input The raw input line. It is not used after this method returns, so it may be reused.
+     * @return A future completed with the outcome of the handler, or completed exceptionally with the
+     *         {@link CLIException} of a line that failed to parse or the exception thrown by the handler.
+     * @throws InterruptedException If the calling thread is interrupted while the pipeline is at capacity.
+     * @throws RejectedExecutionException If the executor does not accept the handler.
+     */
+    public CompletableFuture<Object> submit(CharSequence input) throws InterruptedException {
+        ParseResult result;
+        try {
+            result = registry.parse(input);
+        } catch (CLIException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        CompletableFuture<Object> future = new CompletableFuture<>();
+        permits.acquire();
+        try {
+            executor.execute(() -> run(result, future));
+        } catch (RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+        return future;
+    }
+
+    private void run(ParseResult result, CompletableFuture<Object> future) {
+        long start = System.nanoTime();
+        Object value = null;
+        Throwable failure = null;
+        try {
+            value = result.execute();
+        } catch (Throwable e) {
+            failure = e;
+        }
+        latency(String.join(" ", result.commandPath())).record(System.nanoTime() - start);
+        permits.release();
+        if (failure == null) {
+            future.complete(value);
+        } else {
+            future.completeExceptionally(failure);
+        }
+    }
+
+    private LatencyHistogram latency(String path) {
+        LatencyHistogram histogram = latencies.get(path);
+        return histogram != null ? histogram : latencies.computeIfAbsent(path, key -> new LatencyHistogram());
+    }
+
+    /* STATISTICS */
+
+    /**
+     * Returns the number of lines submitted whose handlers have not finished.
+     * @return The number of lines in flight.
+     */
+    public int inFlight() { return capacity - permits.availablePermits(); }
+
+    /**
+     * Returns the latency of the handlers run so far, including handlers that threw.
+     * @return A snapshot of each command's handler latency, by command path such as {@code "calc add"}.
+     */
+    public Map<String, LatencyHistogram.Snapshot> handlerLatency() {
+        Map<String, LatencyHistogram.Snapshot> snapshots = new TreeMap<>();
+        latencies.forEach((path, histogram) -> snapshots.put(path, histogram.snapshot()));
+        return snapshots;
+    }
+
+    /**
+     * Waits for every submitted handler to finish, then shuts down the executor if the pipeline created it.
+     * Lines must not be submitted while or after the pipeline is closed.
+     */
+    @Override
+    public void close() {
+        boolean interrupted = false;
+        while (true) {
+            try {
+                permits.acquire(capacity);
+                break;
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        permits.release(capacity);
+        if (ownsExecutor) {
+            ((ExecutorService) executor).close();
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package oop.project.cli;
+
+/**
+ * The action run for a parsed line, attached to a parser or command with {@link Parser#setHandler(Handler)}.
+ * <p>
+ * A handler receives the {@link ParseResult} of the level it is attached to, so it reads its own arguments
+ * directly, for example through {@link ArgumentKey}s, instead of inspecting the line again.
+ */
+@FunctionalInterface
+public interface Handler {
+    /**
+     * Runs the action for a parsed line.
+     *
+     * @param result The values of the level the handler is attached to. A line that asks for help is passed on
+     *               too, with {@link ParseResult#helpRequested()} set.
+     * @return The outcome of the action, returned by {@link ParseResult#execute()}.
+     * @throws Exception If the action fails.
+     */
+    Object handle(ParseResult result) throws Exception;
+}
@@ -0,0 +1,147 @@
+package oop.project.cli;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The rendered help message of a {@link CompiledParser}, kept both as text and as UTF-8 bytes so it can be written
+ * to a character or byte destination without being rebuilt.
+ * <p>
+ * Each section lists one row per argument or command, with the descriptions aligned in a single column. When a
+ * width is given, descriptions are wrapped at word boundaries to fit it, and continuation lines are indented to
+ * the description column.
+ */
+final class HelpText {
+    /** Renders without wrapping. */
+    static final int UNWRAPPED = 0;
+
+    private static final String INDENT = "  ";
+    private static final int GAP = 2;
+    private static final int MIN_DESCRIPTION_WIDTH = 20;
+
+    private final int width;
+    private final String text;
+    private final byte[] bytes;
+
+    private HelpText(int width, String text) {
+        this.width = width;
+        this.text = text;
+        this.bytes = text.getBytes(StandardCharsets.UTF_8);
+    }
+
+    int width() { return width; }
+
+    String text() { return text; }
+
+    /**
+     * Returns the UTF-8 encoding of the text. The array is shared and must not be modified.
+     */
+    byte[] bytes() { return bytes; }
+
+    /**
+     * Renders the help message of a parser.
+     *
+     * @param parser The parser to describe.
+     * @param width The maximum line width, or {@link #UNWRAPPED}.
+     * @return The rendered help message.
+     */
+    static HelpText render(CompiledParser parser, int width) {
+        StringBuilder out = new StringBuilder(256);
+        out.append(parser.name()).append("\n\n");
+        if (parser.description() != null) {
+            wrap(out, parser.description(), 0, width);
+            out.append("\n\n");
+        }
+        out.append("Usage: ").append(parser.identifier()).append(" [ARGUMENTS]");
+        if (!parser.commands().isEmpty()) {
+            out.append(" [COMMAND]");
+        }
+        out.append('\n');
+
+        List<String[]> arguments = new ArrayList<>();
+        for (Argument<?> argument : parser.arguments()) {
+            arguments.add(new String[] { argument.name(), describe(argument) });
+        }
+        List<String[]> commands = new ArrayList<>();
+        for (CompiledParser command : parser.commands()) {
+            String label = command.aliases().isEmpty()
+                    ? command.identifier()
+                    : command.identifier() + ", " + String.join(", ", command.aliases());
+            commands.add(new String[] { label, command.description() != null ? command.description() : command.name() });
+        }
+        List<String[]> optional = List.<String[]>of(new String[] { "-h, --help", "MSG: Show the help message." });
+
+        // One description column for every section, so the whole message lines up.
+        int column = 0;
+        for (List<String[]> rows : List.of(arguments, commands, optional)) {
+            for (String[] row : rows) {
+                column = Math.max(column, row[0].length());
+            }
+        }
+        column += INDENT.length() + GAP;
+
+        section(out, "Arguments:", arguments, column, width);
+        section(out, "Commands:", commands, column, width);
+        section(out, "Optional Arguments:", optional, column, width);
+        return new HelpText(width, out.toString());
+    }
+
+    private static String describe(Argument<?> argument) {
+        StringBuilder description = new StringBuilder();
+        description.append("Type: ").append(argument.type().getSimpleName());
+        description.append(argument.required() ? ", Required: True" : ", Required: False");
+        if (argument.multiple()) {
+            description.append(", Values: ").append(argument.arity());
+        }
+        if (argument.helpMsg() != null && !argument.helpMsg().isEmpty()) {
+            description.append(", MSG: ").append(argument.helpMsg());
+        }
+        return description.toString();
+    }
+
+    private static void section(StringBuilder out, String heading, List<String[]> rows, int column, int width) {
+        if (rows.isEmpty()) {
+            return;
+        }
+        out.append('\n').append(heading).append('\n');
+        for (String[] row : rows) {
+            out.append(INDENT).append(row[0]);
+            out.repeat(' ', column - INDENT.length() - row[0].length());
+            wrap(out, row[1], column, width);
+            out.append('\n');
+        }
+    }
+
+    /**
+     * Appends the text, breaking it at spaces so no line passes the width. The first line continues the current
+     * line of the output; later lines are indented to the given column. Words longer than a line are not split.
+     */
+    private static void wrap(StringBuilder out, String text, int column, int width) {
+        if (width <= UNWRAPPED) {
+            out.append(text);
+            return;
+        }
+        int available = Math.max(width - column, MIN_DESCRIPTION_WIDTH);
+        int lineLength = 0;
+        int i = 0;
+        while (i < text.length()) {
+            int end = text.indexOf(' ', i);
+            if (end < 0) {
+                end = text.length();
+            }
+            int word = end - i;
+            if (lineLength > 0 && lineLength + 1 + word > available) {
+                out.append('\n');
+                out.repeat(' ', column);
+                lineLength = 0;
+            } else if (lineLength > 0) {
+                out.append(' ');
+                lineLength++;
+            }
+            out.append(text, i, end);
+            lineLength += word;
+            i = end + 1;
+        }
+    }
+}
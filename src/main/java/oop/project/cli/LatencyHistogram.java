@@ -0,0 +1,118 @@
+package oop.project.cli;
+
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A lock-free histogram of latencies in nanoseconds, with one bucket per power of two.
+ * <p>
+ * Bucket {@code i} counts latencies in {@code [2^(i-1), 2^i)}, and bucket {@code 0} counts latencies of zero, so
+ * a recorded value is placed with a single leading-zero count and never resized. Every bucket is a
+ * {@link LongAdder}, which spreads updates from concurrent threads over separate cells instead of contending on
+ * one counter. Percentiles read from a {@link Snapshot} are the upper bound of the bucket they fall in, which is at
+ * most twice the true value.
+ */
+public final class LatencyHistogram {
+    /** The number of buckets, one per bit of a non-negative {@code long}. */
+    static final int BUCKETS = 64;
+
+    private final LongAdder[] buckets = new LongAdder[BUCKETS];
+    private final LongAdder total = new LongAdder();
+    private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+    /* CONSTRUCTORS */
+
+    /**
+     * Constructs an empty histogram.
+     */
+    public LatencyHistogram() {
+        for (int i = 0; i < BUCKETS; i++) {
+            buckets[i] = new LongAdder();
+        }
+    }
+
+    /* RECORDING METHODS */
+
+    /**
+     * Records one latency. Negative values, which a non-monotonic clock can produce, are recorded as zero.
+     *
+     * @param nanos The latency in nanoseconds.
+     */
+    public void record(long nanos) {
+        nanos = Math.max(nanos, 0);
+        buckets[BUCKETS - Long.numberOfLeadingZeros(nanos)].increment();
+        total.add(nanos);
+        max.accumulate(nanos);
+    }
+
+    /**
+     * Clears every recorded latency. Latencies recorded while the histogram is being cleared may be kept or lost.
+     */
+    public void reset() {
+        for (LongAdder bucket : buckets) {
+            bucket.reset();
+        }
+        total.reset();
+        max.reset();
+    }
+
+    /**
+     * Returns a copy of the current counts. Latencies recorded while the copy is taken may be partly included.
+     *
+     * @return A snapshot of the histogram.
+     */
+    public Snapshot snapshot() {
+        long[] counts = new long[BUCKETS];
+        long count = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            counts[i] = buckets[i].sum();
+            count += counts[i];
+        }
+        return new Snapshot(count, total.sum(), max.get(), counts);
+    }
+
+    /* SNAPSHOT */
+
+    /**
+     * The counts of a histogram at one point in time.
+     *
+     * @param count The number of recorded latencies.
+     * @param totalNanos The sum of the recorded latencies.
+     * @param maxNanos The largest recorded latency.
+     * @param buckets The count of each bucket, where bucket {@code i} holds latencies below {@code 2^i}.
+     */
+    public record Snapshot(long count, long totalNanos, long maxNanos, long[] buckets) {
+
+        /**
+         * Returns the mean latency.
+         * @return The mean in nanoseconds, or {@code 0} if nothing was recorded.
+         */
+        public long meanNanos() {
+            return count == 0 ? 0 : totalNanos / count;
+        }
+
+        /**
+         * Returns an upper bound of the latency below which the given fraction of the recorded latencies fall.
+         *
+         * @param fraction The fraction, such as {@code 0.99} for the 99th percentile.
+         * @return The upper bound of the bucket holding the percentile, capped at the largest recorded latency,
+         *         or {@code 0} if nothing was recorded.
+         * @throws IllegalArgumentException If the fraction is not between 0 and 1.
+         */
+        public long percentileNanos(double fraction) {
+            if (!(fraction >= 0.0 && fraction <= 1.0)) {
+                throw new IllegalArgumentException("Percentile must be between 0 and 1.");
+            }
+            long rank = (long) Math.ceil(fraction * count);
+            long seen = 0;
+            for (int i = 0; i < buckets.length; i++) {
+                seen += buckets[i];
+                if (seen >= rank && seen > 0) {
+                    long upper = (1L << i) - 1;
+                    return Math.min(upper, maxNanos);
+                }
+            }
+            return 0;
+        }
+    }
+}
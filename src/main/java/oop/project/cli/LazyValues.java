@@ -0,0 +1,64 @@
+package oop.project.cli;
+
+import java.util.BitSet;
+
+/**
+ * The tokens of one {@link ParseResult} level that are converted when first read, for a parser with
+ * {@link Parser#setLazyConversion(boolean) lazy conversion}.
+ * <p>
+ * The text of the tokens is a copy made while parsing, so the line they were read from may be reused. Each token
+ * is converted and validated once, into the value slots of the result; a rejection is kept as well, so reading an
+ * invalid value again reports the same error without running the validation function again. Conversions lock the
+ * instance, which also publishes the converted values to every thread that reads them afterwards.
+ */
+final class LazyValues {
+    private final CharSequence text;
+    // The start, end, token index and offset of each slot's token
+    private final int[] tokens;
+    private final BitSet unconverted;
+    private ParseError[] errors;
+
+    LazyValues(CharSequence text, int[] tokens, BitSet unconverted) {
+        this.text = text;
+        this.tokens = tokens;
+        this.unconverted = unconverted;
+    }
+
+    /**
+     * Converts the token of the slot into the value slots, unless it was converted before.
+     *
+     * @return {@code null} if the value is stored, or the error that rejected it, pointing at its token.
+     */
+    synchronized ParseError convert(CompiledParser parser, int slot, Object[] values, long[] primitives) {
+        if (!unconverted.get(slot)) {
+            return errors == null ? null : errors[slot];
+        }
+        Argument<?> argument = parser.argument(slot);
+        ParseError.Code failure = argument.store(text, tokens[4 * slot], tokens[4 * slot + 1], values, primitives,
+                slot, null, true);
+        unconverted.clear(slot);
+        if (failure == null) {
+            return null;
+        }
+        if (errors == null) {
+            errors = new ParseError[parser.argumentCount()];
+        }
+        return errors[slot] = argument.error(failure, tokens[4 * slot + 2], tokens[4 * slot + 3]);
+    }
+
+    /**
+     * Converts every token not yet converted.
+     *
+     * @return {@code null} if every value is stored, or the error of the first rejected value in declaration
+     *         order.
+     */
+    synchronized ParseError convertAll(CompiledParser parser, Object[] values, long[] primitives) {
+        for (int slot = 0; slot < parser.argumentCount(); slot++) {
+            ParseError error = convert(parser, slot, values, primitives);
+            if (error != null) {
+                return error;
+            }
+        }
+        return null;
+    }
+}
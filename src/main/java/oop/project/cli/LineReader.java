@@ -0,0 +1,148 @@
+package oop.project.cli;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Reads newline-separated lines from a channel without building a string per line.
+ * <p>
+ * Files are memory-mapped in large windows; other channels, such as standard input, are read into one reused
+ * buffer. Each ASCII line is handed to the consumer as a reused {@link AsciiSequence} view over the bytes, so the
+ * line must not be retained after the consumer returns. Lines containing other characters are decoded as UTF-8.
+ * A trailing {@code \r} is dropped from every line.
+ */
+final class LineReader {
+    private static final int WINDOW = 64 << 20;
+    private static final int BUFFER = 1 << 20;
+
+    /**
+     * Receives each line read from a channel.
+     */
+    @FunctionalInterface
+    interface LineConsumer {
+        void accept(CharSequence line) throws IOException;
+    }
+
+    private final AsciiSequence view = new AsciiSequence();
+    private final LineConsumer consumer;
+
+    private LineReader(LineConsumer consumer) {
+        this.consumer = consumer;
+    }
+
+    /**
+     * Memory-maps the file in windows and passes every line to the consumer, in order.
+     *
+     * @param channel The file to read.
+     * @param consumer The consumer of each line.
+     * @throws IOException If the file cannot be read, or the consumer throws.
+     */
+    static void read(FileChannel channel, LineConsumer consumer) throws IOException {
+        read(channel, WINDOW, consumer);
+    }
+
+    /**
+     * Memory-maps the file in windows of the given initial size and passes every line to the consumer, in
+     * order. The window doubles if a line does not fit.
+     *
+     * @param channel The file to read.
+     * @param windowSize The initial size of the mapped window.
+     * @param consumer The consumer of each line.
+     * @throws IOException If the file cannot be read, or the consumer throws.
+     */
+    static void read(FileChannel channel, int windowSize, LineConsumer consumer) throws IOException {
+        LineReader reader = new LineReader(consumer);
+        long size = channel.size();
+        long position = 0;
+        int window = windowSize;
+        while (position < size) {
+            int length = (int) Math.min(window, size - position);
+            boolean last = position + length == size;
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, position, length);
+            int consumed = reader.scan(buffer, 0, length, last);
+            if (consumed == 0) {
+                // A single line is longer than the window.
+                window = (int) Math.min(Integer.MAX_VALUE, 2L * window);
+            }
+            position += consumed;
+        }
+    }
+
+    /**
+     * Reads the channel through one reused buffer and passes every line to the consumer, in order.
+     *
+     * @param channel The channel to read, such as standard input.
+     * @param consumer The consumer of each line.
+     * @throws IOException If the channel cannot be read, or the consumer throws.
+     */
+    static void read(ReadableByteChannel channel, LineConsumer consumer) throws IOException {
+        read(channel, BUFFER, consumer);
+    }
+
+    /**
+     * Reads the channel through one reused buffer of the given initial size and passes every line to the
+     * consumer, in order. The buffer grows if a line does not fit.
+     *
+     * @param channel The channel to read, such as a socket.
+     * @param bufferSize The initial size of the buffer.
+     * @param consumer The consumer of each line.
+     * @throws IOException If the channel cannot be read, or the consumer throws.
+     */
+    static void read(ReadableByteChannel channel, int bufferSize, LineConsumer consumer) throws IOException {
+        LineReader reader = new LineReader(consumer);
+        ByteBuffer buffer = ByteBuffer.allocate(bufferSize);
+        boolean eof = false;
+        while (!eof) {
+            eof = channel.read(buffer) < 0;
+            int consumed = reader.scan(buffer, 0, buffer.position(), eof);
+            if (consumed == 0 && !buffer.hasRemaining()) {
+                // A single line is longer than the buffer.
+                buffer = ByteBuffer.allocate(buffer.capacity() * 2).put(buffer.flip());
+                continue;
+            }
+            buffer.flip().position(consumed);
+            buffer.compact();
+        }
+    }
+
+    /**
+     * Passes every complete line between {@code from} and {@code limit} to the consumer. At the end of the input
+     * the trailing unterminated line, if any, is passed as well.
+     *
+     * @return The offset just after the last line passed on.
+     */
+    private int scan(ByteBuffer buffer, int from, int limit, boolean eof) throws IOException {
+        int lineStart = from;
+        boolean ascii = true;
+        for (int i = from; i < limit; i++) {
+            byte b = buffer.get(i);
+            if (b == '\n') {
+                emit(buffer, lineStart, i, ascii);
+                lineStart = i + 1;
+                ascii = true;
+            } else if (b < 0) {
+                ascii = false;
+            }
+        }
+        if (eof && lineStart < limit) {
+            emit(buffer, lineStart, limit, ascii);
+            return limit;
+        }
+        return lineStart;
+    }
+
+    private void emit(ByteBuffer buffer, int start, int end, boolean ascii) throws IOException {
+        if (end > start && buffer.get(end - 1) == '\r') {
+            end--;
+        }
+        if (ascii) {
+            consumer.accept(view.reset(buffer, start, end - start));
+        } else {
+            consumer.accept(StandardCharsets.UTF_8.decode(buffer.slice(start, end - start)).toString());
+        }
+    }
+}
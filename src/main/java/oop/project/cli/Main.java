@@ -1,16 +1,86 @@
 package oop.project.cli;
 
+import java.io.*;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
 import java.util.Scanner;
 
 /**
  * The main class
+ * <p>
+ * By default, reads commands from standard input one line at a time and prints each result. Options:
+ * <ul>
+ *     <li>{@code --input FILE}: parse every line of FILE in bulk instead of running the interactive loop.</li>
+ *     <li>{@code --output FILE}: write results to FILE in bulk; without {@code --input}, lines are read in bulk
+ *         from standard input.</li>
+ *     <li>{@code --quiet}: do not echo each command before its result.</li>
+ *     <li>{@code --serve SOCKET}: run as a daemon answering lines sent to the Unix domain socket SOCKET, one
+ *         result line per request line (see {@link SocketServer}).</li>
+ *     <li>{@code --connect SOCKET [WORD...]}: send the words as one command line to a daemon and print its
+ *         result; without words, forward every line of standard input and print the results in order.</li>
+ *     <li>{@code COMMAND [WORD...]}: run one command given as separate arguments, such as {@code calc add 1 2},
+ *         and print its result. Every argument is one token as given by the shell, so it is not split or
+ *         unquoted again.</li>
+ * </ul>
  */
 public class Main {
 
+    private static final int OUTPUT_BUFFER = 1 << 16;
+
     /**
      * A default implementation of main that can be used to run scenarios.
      */
-    public static void main(String[] args) {
+    public static void main(String[] args) throws IOException {
+        Path input = null;
+        Path output = null;
+        boolean echo = true;
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--input" -> input = Path.of(requireValue(args, ++i, "--input"));
+                case "--output" -> output = Path.of(requireValue(args, ++i, "--output"));
+                case "--quiet" -> echo = false;
+                case "--serve" -> {
+                    serve(Path.of(requireValue(args, ++i, "--serve")));
+                    return;
+                }
+                case "--connect" -> {
+                    Path socket = Path.of(requireValue(args, ++i, "--connect"));
+                    connect(socket, Arrays.copyOfRange(args, i + 1, args.length));
+                    return;
+                }
+                default -> {
+                    if (args[i].startsWith("--")) {
+                        throw new IllegalArgumentException("Unknown option: " + args[i]);
+                    }
+                    run(args, i);
+                    return;
+                }
+            }
+        }
+
+        if (input == null && output == null) {
+            repl(echo);
+        } else {
+            bulk(input, output, echo);
+        }
+    }
+
+    private static String requireValue(String[] args, int index, String option) {
+        if (index >= args.length) {
+            throw new IllegalArgumentException("Missing value for " + option);
+        }
+        return args[index];
+    }
+
+    private static void repl(boolean echo) {
         var scanner = new Scanner(System.in);
         while (true) {
             var input = scanner.nextLine();
@@ -18,7 +88,7 @@ public class Main {
                 break;
             }
             try {
-                var result = Scenarios.parse(input);
+                var result = echo ? Scenarios.parse(input) : Scenarios.dispatch(input);
                 System.out.println(result);
             } catch (Exception e) {
                 System.out.println("Unexpected exception: " + e.getClass().getName() + ", " + e.getMessage());
@@ -26,4 +96,133 @@ public class Main {
         }
     }
 
+    /**
+     * Parses every input line and writes one result line per input line through a single large buffer. The
+     * echo, if enabled, is written to the same output just before each result.
+     */
+    private static void bulk(Path input, Path output, boolean echo) throws IOException {
+        try (WritableByteChannel channel = output == null
+                     ? new FileOutputStream(FileDescriptor.out).getChannel()
+                     : FileChannel.open(output, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                             StandardOpenOption.TRUNCATE_EXISTING);
+             Writer out = new BufferedWriter(Channels.newWriter(channel, StandardCharsets.UTF_8), OUTPUT_BUFFER)) {
+            LineReader.LineConsumer each = line -> {
+                if (echo) {
+                    out.append(line).append('\n');
+                }
+                respond(line, out);
+                out.append('\n');
+            };
+
+            if (input == null) {
+                LineReader.read(Channels.newChannel(System.in), each);
+            } else {
+                try (FileChannel in = FileChannel.open(input, StandardOpenOption.READ)) {
+                    LineReader.read(in, each);
+                }
+            }
+        }
+    }
+
+    /**
+     * Prints the result of the command held by the arguments from the given index on.
+     */
+    private static void run(String[] args, int from) {
+        try {
+            System.out.println(Scenarios.dispatch(args, from, args.length - from));
+        } catch (Exception e) {
+            System.out.println("Unexpected exception: " + e.getClass().getName() + ", " + e.getMessage());
+        }
+    }
+
+    /**
+     * Writes the result of one line, or the exception it failed with, without a line break.
+     */
+    static void respond(CharSequence line, Appendable out) throws IOException {
+        try {
+            out.append(String.valueOf(Scenarios.dispatch(line)));
+        } catch (Exception e) {
+            out.append("Unexpected exception: ").append(e.getClass().getName())
+                    .append(", ").append(e.getMessage());
+        }
+    }
+
+    /**
+     * Answers lines sent to the socket until the process is stopped.
+     */
+    private static void serve(Path socket) throws IOException {
+        SocketServer server = SocketServer.bind(socket);
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            try {
+                server.close();
+            } catch (IOException e) {
+                // The socket file is left behind and replaced by the next server.
+            }
+        }));
+        server.serve();
+    }
+
+    /**
+     * Sends the words as one line, quoted so the daemon splits them back into the same tokens, or forwards
+     * standard input if there are no words, and copies the answers to standard output.
+     */
+    private static void connect(Path socket, String[] words) throws IOException {
+        try (SocketChannel channel = SocketChannel.open(StandardProtocolFamily.UNIX)) {
+            channel.connect(UnixDomainSocketAddress.of(socket));
+            Writer requests = new BufferedWriter(Channels.newWriter(channel, StandardCharsets.UTF_8), OUTPUT_BUFFER);
+            Thread sender = Thread.ofVirtual().start(() -> {
+                try {
+                    if (words.length > 0) {
+                        requests.append(commandLine(words)).append('\n');
+                    } else {
+                        Reader in = new InputStreamReader(System.in, StandardCharsets.UTF_8);
+                        in.transferTo(requests);
+                    }
+                    requests.flush();
+                    channel.shutdownOutput();
+                } catch (IOException e) {
+                    // The daemon closed the connection; the answers received so far are still printed.
+                }
+            });
+            try (InputStream answers = Channels.newInputStream(channel)) {
+                answers.transferTo(System.out);
+            }
+            System.out.flush();
+            sender.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Joins the words into a line, quoting each word that is empty or holds whitespace, quotes or backslashes.
+     *
+     * @throws IllegalArgumentException If a word holds a line break, which would end the line early.
+     */
+    static String commandLine(String[] words) {
+        StringBuilder line = new StringBuilder();
+        for (String word : words) {
+            if (!line.isEmpty()) {
+                line.append(' ');
+            }
+            if (word.indexOf('\n') >= 0 || word.indexOf('\r') >= 0) {
+                throw new IllegalArgumentException("Words sent to the daemon cannot contain line breaks.");
+            }
+            if (!word.isEmpty() && word.chars().noneMatch(c -> Character.isWhitespace(c) || c == '"' || c == '\''
+                    || c == '\\')) {
+                line.append(word);
+                continue;
+            }
+            line.append('"');
+            for (int i = 0; i < word.length(); i++) {
+                char c = word.charAt(i);
+                if (c == '"' || c == '\\') {
+                    line.append('\\');
+                }
+                line.append(c);
+            }
+            line.append('"');
+        }
+        return line.toString();
+    }
 }
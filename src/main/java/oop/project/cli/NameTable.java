@@ -0,0 +1,83 @@
+package oop.project.cli;
+
+import java.util.List;
+
+/**
+ * An immutable open-addressing hash table from names to slot indices, built once when a parser is compiled.
+ * <p>
+ * Lookups hash a slice of the input line directly, so finding the slot of a token such as {@code --left} neither
+ * copies the token into a string nor walks the declared names.
+ */
+final class NameTable {
+    private final String[] keys;
+    private final int[] slots;
+    private final int mask;
+
+    /**
+     * Builds a table mapping each name to its index in the list.
+     *
+     * @param names The names to index; must be distinct.
+     */
+    NameTable(List<String> names) {
+        int capacity = Integer.highestOneBit(Math.max(4, names.size() * 2 + 1) - 1) << 1;
+        keys = new String[capacity];
+        slots = new int[capacity];
+        mask = capacity - 1;
+        for (int i = 0; i < names.size(); i++) {
+            String name = names.get(i);
+            int bucket = hash(name, 0, name.length()) & mask;
+            while (keys[bucket] != null) {
+                if (keys[bucket].equals(name)) {
+                    throw new IllegalArgumentException("Name '" + name + "' already exists.");
+                }
+                bucket = (bucket + 1) & mask;
+            }
+            keys[bucket] = name;
+            slots[bucket] = i;
+        }
+    }
+
+    /**
+     * Returns the slot of the name between {@code start} and {@code end} of the text.
+     *
+     * @return The slot of the name, or {@code -1} if it is not in the table.
+     */
+    int get(CharSequence text, int start, int end) {
+        int bucket = hash(text, start, end) & mask;
+        String key;
+        while ((key = keys[bucket]) != null) {
+            if (equals(key, text, start, end)) {
+                return slots[bucket];
+            }
+            bucket = (bucket + 1) & mask;
+        }
+        return -1;
+    }
+
+    /**
+     * Returns the slot of the name, or {@code -1} if it is not in the table.
+     */
+    int get(String name) {
+        return get(name, 0, name.length());
+    }
+
+    private static int hash(CharSequence text, int start, int end) {
+        int h = 0;
+        for (int i = start; i < end; i++) {
+            h = 31 * h + text.charAt(i);
+        }
+        return h ^ (h >>> 16);
+    }
+
+    private static boolean equals(String key, CharSequence text, int start, int end) {
+        if (key.length() != end - start) {
+            return false;
+        }
+        for (int i = 0; i < key.length(); i++) {
+            if (key.charAt(i) != text.charAt(start + i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,87 @@
+package oop.project.cli;
+
+/**
+ * Describes why a line was rejected, as returned by {@link CompiledParser#tryParse(CharSequence)} in place of a
+ * thrown {@link CLIException}. Creating an error does not capture a stack trace.
+ *
+ * @param code The kind of error.
+ * @param argument The name of the argument the error concerns, or {@code null} if it concerns no single argument.
+ * @param token The index of the offending token, or {@code -1} if the error concerns no single token.
+ * @param offset The offset of the offending token in the input line, or {@code -1} if there is none.
+ * @param detail For parse errors, a description of the problem such as {@code "Missing Value -> left"};
+ *               for conversion errors, the type the token failed to convert to; otherwise {@code null}.
+ */
+public record ParseError(Code code, String argument, int token, int offset, String detail) {
+
+    /**
+     * The kinds of errors, each matching the exception that {@link CompiledParser#parse(CharSequence)} throws.
+     */
+    public enum Code {
+        /** The first token is not the parser's identifier. */
+        INCORRECT_IDENTIFIER,
+        /** A quote is opened but never closed. */
+        UNTERMINATED_QUOTE,
+        /** A token is a prefix of several sub-commands. */
+        AMBIGUOUS_COMMAND,
+        /** A sub-command is required, but the line ends before one is named. */
+        MISSING_COMMAND,
+        /** A sub-command is required, but the token names none. */
+        UNKNOWN_COMMAND,
+        /** A flag names no argument. */
+        UNKNOWN_ARGUMENT,
+        /** An argument is given more than once. */
+        DUPLICATE_ARGUMENT,
+        /** A flag is the last token and has no value. */
+        MISSING_VALUE,
+        /** A positional value is given after every argument has a value. */
+        UNEXPECTED_ARGUMENT,
+        /** A required argument is not given. */
+        MISSING_REQUIRED_ARGUMENT,
+        /** An argument that takes several values is given too few or too many. */
+        ARITY_MISMATCH,
+        /** An argument file named by an {@code @path} token cannot be read. */
+        UNREADABLE_ARGUMENT_FILE,
+        /** The built-in conversion of an argument rejects its token. */
+        CONVERSION_FAILED,
+        /** The custom converter of an argument rejects its token. */
+        CUSTOM_CONVERSION_FAILED,
+        /** The validation function of an argument rejects its value. */
+        VALIDATION_FAILED,
+        /** The asynchronous validation function of an argument does not return within its timeout. */
+        VALIDATION_TIMEOUT,
+        /** The parsing thread is interrupted while it waits for asynchronous validation functions. */
+        VALIDATION_INTERRUPTED
+    }
+
+    /**
+     * Returns the message of the exception this error corresponds to.
+     * @return The human-readable message.
+     */
+    public String message() {
+        return toException(false).getMessage();
+    }
+
+    /**
+     * Creates the exception that the throwing API reports for this error, with a stack trace.
+     * @return The corresponding exception.
+     */
+    public CLIException toException() {
+        return toException(true);
+    }
+
+    /**
+     * Creates the exception that the throwing API reports for this error.
+     *
+     * @param stackTrace Whether the exception records a stack trace.
+     * @return The corresponding exception.
+     */
+    public CLIException toException(boolean stackTrace) {
+        return switch (code) {
+            case CONVERSION_FAILED -> new ValidationDefaultConversionException(argument, detail, stackTrace);
+            case CUSTOM_CONVERSION_FAILED -> new ValidationCustomConversionException(argument, detail, stackTrace);
+            case VALIDATION_FAILED -> new ValidationFunctionException(argument, stackTrace);
+            case VALIDATION_TIMEOUT -> new ValidationTimeoutException(argument, stackTrace);
+            default -> new ParseException(detail, stackTrace);
+        };
+    }
+}
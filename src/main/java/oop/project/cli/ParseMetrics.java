@@ -0,0 +1,259 @@
+package oop.project.cli;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.management.StandardMBean;
+import java.lang.management.ManagementFactory;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counters and latency histograms for the lines parsed by a {@link CompiledParser}, enabled through
+ * {@link Parser#setMetrics(ParseMetrics)}.
+ * <p>
+ * Each parse records its total latency, the time spent in each {@link Phase}, and the latency of the command it
+ * selected. Failures are counted by {@link ParseError.Code}, so the conversion and validation codes count the
+ * {@link ValidationException} subtypes that {@link CompiledParser#parse(CharSequence)} would throw. Recording
+ * takes no lock: counters are {@link LongAdder}s and latencies go to {@link LatencyHistogram}s. A parser without
+ * metrics skips every clock read, so disabled metrics cost a null check per phase.
+ * <p>
+ * Metrics are recorded by the parser that a line is given to, and cover its sub-commands. One instance may be
+ * shared by several parsers to aggregate them.
+ */
+public final class ParseMetrics implements ParseMetricsMXBean {
+
+    /**
+     * The phases of a parse.
+     */
+    public enum Phase {
+        /** Splitting the line into tokens. */
+        TOKENIZE,
+        /** Matching the identifier and looking up sub-commands. */
+        DISPATCH,
+        /** Converting tokens to values. */
+        CONVERT,
+        /** Running validation functions. */
+        VALIDATE,
+        /** The whole parse, including the time outside the other phases. */
+        TOTAL
+    }
+
+    //Required
+    private final String name;
+
+    //Storage
+    private static final ParseError.Code[] CODES = ParseError.Code.values();
+    private static final Phase[] PHASES = Phase.values();
+
+    private final LongAdder parses = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+    private final LongAdder helpRequests = new LongAdder();
+    private final LongAdder[] errors = new LongAdder[CODES.length];
+    private final LatencyHistogram[] phases = new LatencyHistogram[PHASES.length];
+    private final ConcurrentHashMap<String, LatencyHistogram> commands = new ConcurrentHashMap<>();
+
+    private ObjectName registered;
+
+    /* CONSTRUCTORS */
+
+    /**
+     * Constructs empty metrics.
+     *
+     * @param name The name the metrics are registered under in JMX, usually the parser's identifier.
+     */
+    public ParseMetrics(String name) {
+        this.name = name;
+        for (int i = 0; i < errors.length; i++) {
+            errors[i] = new LongAdder();
+        }
+        for (int i = 0; i < phases.length; i++) {
+            phases[i] = new LatencyHistogram();
+        }
+    }
+
+    /**
+     * Returns the name the metrics are registered under.
+     * @return The name of the metrics.
+     */
+    public String name() { return name; }
+
+    /* RECORDING METHODS */
+
+    /**
+     * Records a finished parse, timed by the given timer, and returns its outcome unchanged.
+     */
+    ParseOutcome record(PhaseTimer timer, ParseOutcome outcome) {
+        long elapsed = System.nanoTime() - timer.begin;
+        parses.increment();
+        phases[Phase.TOKENIZE.ordinal()].record(timer.tokenize);
+        phases[Phase.DISPATCH.ordinal()].record(timer.dispatch);
+        phases[Phase.CONVERT.ordinal()].record(timer.convert);
+        phases[Phase.VALIDATE.ordinal()].record(timer.validate);
+        phases[Phase.TOTAL.ordinal()].record(elapsed);
+        switch (outcome) {
+            case ParseOutcome.Success success -> {
+                if (success.result().leaf().helpRequested()) {
+                    helpRequests.increment();
+                }
+                command(String.join(" ", success.result().commandPath())).record(elapsed);
+            }
+            case ParseOutcome.Failure failure -> {
+                failures.increment();
+                errors[failure.error().code().ordinal()].increment();
+            }
+        }
+        return outcome;
+    }
+
+    private LatencyHistogram command(String path) {
+        LatencyHistogram histogram = commands.get(path);
+        return histogram != null ? histogram : commands.computeIfAbsent(path, key -> new LatencyHistogram());
+    }
+
+    /* SNAPSHOT */
+
+    /**
+     * The metrics at one point in time.
+     *
+     * @param parses The number of lines parsed, including rejected lines.
+     * @param failures The number of rejected lines.
+     * @param helpRequests The number of lines that requested the help message.
+     * @param errors The number of rejected lines for each error code that occurred.
+     * @param phases The latency histogram of each phase.
+     * @param commands The latency histogram of each command, by command path such as {@code "calc add"}.
+     */
+    public record Snapshot(long parses, long failures, long helpRequests, Map<ParseError.Code, Long> errors,
+                           Map<Phase, LatencyHistogram.Snapshot> phases,
+                           Map<String, LatencyHistogram.Snapshot> commands) {}
+
+    /**
+     * Returns a copy of the current metrics. Parses recorded while the copy is taken may be partly included.
+     *
+     * @return A snapshot of the metrics.
+     */
+    public Snapshot snapshot() {
+        Map<ParseError.Code, Long> errorCounts = new EnumMap<>(ParseError.Code.class);
+        for (ParseError.Code code : CODES) {
+            long count = errors[code.ordinal()].sum();
+            if (count > 0) {
+                errorCounts.put(code, count);
+            }
+        }
+        Map<Phase, LatencyHistogram.Snapshot> phaseSnapshots = new EnumMap<>(Phase.class);
+        for (Phase phase : PHASES) {
+            phaseSnapshots.put(phase, phases[phase.ordinal()].snapshot());
+        }
+        Map<String, LatencyHistogram.Snapshot> commandSnapshots = new TreeMap<>();
+        commands.forEach((path, histogram) -> commandSnapshots.put(path, histogram.snapshot()));
+        return new Snapshot(parses.sum(), failures.sum(), helpRequests.sum(), Collections.unmodifiableMap(errorCounts),
+                Collections.unmodifiableMap(phaseSnapshots), Collections.unmodifiableMap(commandSnapshots));
+    }
+
+    /* JMX METHODS */
+
+    /**
+     * Registers the metrics with the platform MBean server under
+     * {@code oop.project.cli:type=ParseMetrics,name=<name>}.
+     *
+     * @return The name the metrics were registered under.
+     * @throws IllegalStateException If the metrics are already registered, or the server rejects them.
+     */
+    public synchronized ObjectName registerMBean() {
+        if (registered != null) {
+            throw new IllegalStateException("Metrics '" + name + "' are already registered.");
+        }
+        try {
+            ObjectName objectName = new ObjectName("oop.project.cli:type=ParseMetrics,name=" + ObjectName.quote(name));
+            ManagementFactory.getPlatformMBeanServer()
+                    .registerMBean(new StandardMBean(this, ParseMetricsMXBean.class, true), objectName);
+            registered = objectName;
+            return objectName;
+        } catch (JMException e) {
+            throw new IllegalStateException("Metrics '" + name + "' could not be registered.", e);
+        }
+    }
+
+    /**
+     * Removes the metrics from the platform MBean server. Does nothing if they are not registered.
+     *
+     * @throws IllegalStateException If the server fails to remove them.
+     */
+    public synchronized void unregisterMBean() {
+        if (registered == null) {
+            return;
+        }
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            if (server.isRegistered(registered)) {
+                server.unregisterMBean(registered);
+            }
+            registered = null;
+        } catch (JMException e) {
+            throw new IllegalStateException("Metrics '" + name + "' could not be unregistered.", e);
+        }
+    }
+
+    @Override
+    public long getParseCount() { return parses.sum(); }
+
+    @Override
+    public long getFailureCount() { return failures.sum(); }
+
+    @Override
+    public long getHelpRequestCount() { return helpRequests.sum(); }
+
+    @Override
+    public Map<String, Long> getErrorCounts() {
+        Map<String, Long> counts = new LinkedHashMap<>();
+        snapshot().errors().forEach((code, count) -> counts.put(code.name(), count));
+        return counts;
+    }
+
+    @Override
+    public Map<String, Long> getPhaseMeanNanos() {
+        Map<String, Long> means = new LinkedHashMap<>();
+        for (Phase phase : PHASES) {
+            means.put(phase.name(), phases[phase.ordinal()].snapshot().meanNanos());
+        }
+        return means;
+    }
+
+    @Override
+    public Map<String, Long> getPhaseP99Nanos() {
+        Map<String, Long> percentiles = new LinkedHashMap<>();
+        for (Phase phase : PHASES) {
+            percentiles.put(phase.name(), phases[phase.ordinal()].snapshot().percentileNanos(0.99));
+        }
+        return percentiles;
+    }
+
+    @Override
+    public Map<String, Long> getCommandCounts() {
+        Map<String, Long> counts = new TreeMap<>();
+        commands.forEach((path, histogram) -> counts.put(path, histogram.snapshot().count()));
+        return counts;
+    }
+
+    @Override
+    public Map<String, Long> getCommandP99Nanos() {
+        Map<String, Long> percentiles = new TreeMap<>();
+        commands.forEach((path, histogram) -> percentiles.put(path, histogram.snapshot().percentileNanos(0.99)));
+        return percentiles;
+    }
+
+    @Override
+    public void reset() {
+        parses.reset();
+        failures.reset();
+        helpRequests.reset();
+        for (LongAdder error : errors) {
+            error.reset();
+        }
+        for (LatencyHistogram phase : phases) {
+            phase.reset();
+        }
+        commands.clear();
+    }
+}
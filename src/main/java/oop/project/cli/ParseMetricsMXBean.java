@@ -0,0 +1,63 @@
+package oop.project.cli;
+
+import java.util.Map;
+
+/**
+ * The JMX view of a {@link ParseMetrics}, registered through {@link ParseMetrics#registerMBean()}. Latencies are
+ * in nanoseconds, and maps are keyed by phase name, command path or error code.
+ */
+public interface ParseMetricsMXBean {
+
+    /**
+     * Returns the number of lines parsed, including rejected lines.
+     * @return The number of parses.
+     */
+    long getParseCount();
+
+    /**
+     * Returns the number of rejected lines.
+     * @return The number of failures.
+     */
+    long getFailureCount();
+
+    /**
+     * Returns the number of lines that requested the help message.
+     * @return The number of help requests.
+     */
+    long getHelpRequestCount();
+
+    /**
+     * Returns the number of rejected lines for each error code that occurred.
+     * @return The failure counts by {@link ParseError.Code} name.
+     */
+    Map<String, Long> getErrorCounts();
+
+    /**
+     * Returns the mean time spent in each phase per parse.
+     * @return The mean latency by {@link ParseMetrics.Phase} name.
+     */
+    Map<String, Long> getPhaseMeanNanos();
+
+    /**
+     * Returns an upper bound of the 99th percentile time spent in each phase per parse.
+     * @return The 99th percentile latency by {@link ParseMetrics.Phase} name.
+     */
+    Map<String, Long> getPhaseP99Nanos();
+
+    /**
+     * Returns the number of lines parsed successfully by each command.
+     * @return The parse count by command path, such as {@code "calc add"}.
+     */
+    Map<String, Long> getCommandCounts();
+
+    /**
+     * Returns an upper bound of the 99th percentile parse latency of each command.
+     * @return The 99th percentile latency by command path.
+     */
+    Map<String, Long> getCommandP99Nanos();
+
+    /**
+     * Clears every counter and histogram.
+     */
+    void reset();
+}
@@ -0,0 +1,53 @@
+package oop.project.cli;
+
+/**
+ * The outcome of parsing one line when errors are kept as values instead of being thrown, as in
+ * {@link CompiledParser#tryParse(CharSequence)} and {@link CompiledParser#parseAll(java.util.List)}. An outcome is
+ * either a {@link Success} holding the {@link ParseResult}, or a {@link Failure} holding the {@link ParseError}
+ * that rejected the line.
+ */
+public sealed interface ParseOutcome permits ParseOutcome.Success, ParseOutcome.Failure {
+
+    /**
+     * A line that parsed successfully.
+     * @param result The values parsed from the line.
+     */
+    record Success(ParseResult result) implements ParseOutcome {}
+
+    /**
+     * A line that failed to parse.
+     * @param error Why the line was rejected.
+     * @param stackTraces Whether the exception thrown by {@link #orElseThrow()} records a stack trace, as set by
+     *                    {@link Parser#setStackTraces(boolean)} on the parser that rejected the line.
+     */
+    record Failure(ParseError error, boolean stackTraces) implements ParseOutcome {
+
+        /**
+         * Constructs a failure whose exception records a stack trace.
+         * @param error Why the line was rejected.
+         */
+        public Failure(ParseError error) {
+            this(error, true);
+        }
+    }
+
+    /**
+     * Returns whether the line parsed successfully.
+     * @return {@code true} for a {@link Success}, {@code false} for a {@link Failure}.
+     */
+    default boolean isSuccess() { return this instanceof Success; }
+
+    /**
+     * Returns the parse result, or throws the exception that {@link CompiledParser#parse(CharSequence)} would
+     * have thrown for a failed line, without a stack trace if the parser records none.
+     *
+     * @return The values parsed from the line.
+     * @throws CLIException The exception corresponding to the error of a failed line.
+     */
+    default ParseResult orElseThrow() throws CLIException {
+        return switch (this) {
+            case Success success -> success.result();
+            case Failure failure -> throw failure.error().toException(failure.stackTraces());
+        };
+    }
+}
@@ -0,0 +1,464 @@
+package oop.project.cli;
+
+import java.util.*;
+
+/**
+ * The values produced by a single call to {@link CompiledParser#parse(CharSequence)}.
+ * <p>
+ * A ParseResult holds the values of one parser level. If the input dispatched to a sub-command, the values of
+ * that sub-command are available through {@link #command()}. Results may be shared freely between threads: the
+ * values of an eagerly converted result never change after parsing, and the values of a lazily converted one are
+ * converted at most once, under a lock held by the result, and kept for every later read on any thread.
+ * <p>
+ * Values of primitive arguments are kept unboxed and are read with {@link #getInt(String)},
+ * {@link #getLong(String)}, {@link #getDouble(String)} and {@link #getBoolean(String)}. They are only boxed when
+ * read through {@link #get(String)} or {@link #values()}.
+ * <p>
+ * Values can also be read through the {@link ArgumentKey} returned when the argument was added, which skips the
+ * name lookup: {@code int left = result.get(leftKey);}.
+ * <p>
+ * The values of an argument that takes several are read with {@link #getList(String)}, or unboxed with
+ * {@link #getPrimitives(String)} for primitive types.
+ * <p>
+ * If the parser converts {@link Parser#setLazyConversion(boolean) lazily}, each value is converted and validated
+ * when it is first read, and kept for later reads. Reading a value that fails to convert or validate throws an
+ * {@link IllegalStateException} caused by the {@link CLIException} that an eager parse would have thrown;
+ * {@link #validateAll()} converts every value up front and throws that exception directly.
+ */
+public final class ParseResult {
+    private final CompiledParser parser;
+    private final Object[] values;
+    private final long[] primitives;
+    private final BitSet present;
+    private final ParseResult command;
+    private final boolean helpRequested;
+    private final LazyValues lazy;
+
+    // Built on first use. The unmodifiable wrapper only has final fields, so a racy read sees a complete map.
+    private Map<String, Object> valueMap;
+
+    /* CONSTRUCTORS */
+
+    ParseResult(CompiledParser parser, Object[] values, long[] primitives, BitSet present,
+                ParseResult command, boolean helpRequested, LazyValues lazy) {
+        this.parser = parser;
+        this.values = values;
+        this.primitives = primitives;
+        this.present = present;
+        this.command = command;
+        this.helpRequested = helpRequested;
+        this.lazy = lazy;
+    }
+
+    /* GETTER METHODS */
+
+    /**
+     * Returns the identifier of the parser or command that produced this result.
+     * @return The identifier of the parser level.
+     */
+    public String identifier() { return parser.identifier(); }
+
+    /**
+     * Returns the compiled parser that produced this result.
+     * @return The compiled parser level.
+     */
+    public CompiledParser parser() { return parser; }
+
+    /**
+     * Returns the result of the sub-command that the input dispatched to.
+     * @return The sub-command's result, or {@code null} if no sub-command was given.
+     */
+    public ParseResult command() { return command; }
+
+    /**
+     * Returns the result of the deepest sub-command that the input dispatched to.
+     * @return The deepest result, or this result if no sub-command was given.
+     */
+    public ParseResult leaf() {
+        ParseResult leaf = this;
+        while (leaf.command != null) {
+            leaf = leaf.command;
+        }
+        return leaf;
+    }
+
+    /**
+     * Returns the deepest level, starting with this one, whose parser has a {@link Handler}.
+     * @return The level, or {@code null} if no level has a handler.
+     */
+    ParseResult handled() {
+        ParseResult handled = null;
+        for (ParseResult level = this; level != null; level = level.command) {
+            if (level.parser.handler() != null) {
+                handled = level;
+            }
+        }
+        return handled;
+    }
+
+    /**
+     * Runs the handler of the most specific level that has one, passing it that level's result. For
+     * {@code calc div 1 2}, the handler of {@code div} runs if it has one, and the handler of {@code calc}
+     * otherwise.
+     *
+     * @return The outcome of the handler, or the values of the most specific level if no level has a handler.
+     * @throws Exception If the handler fails.
+     */
+    public Object execute() throws Exception {
+        ParseResult handled = handled();
+        return handled == null ? leaf().values() : handled.parser.handler().handle(handled);
+    }
+
+    /**
+     * Returns the identifiers of every level the input dispatched through, starting with this one.
+     * @return An unmodifiable list such as {@code [calc, div]}.
+     */
+    public List<String> commandPath() {
+        List<String> path = new ArrayList<>();
+        for (ParseResult level = this; level != null; level = level.command) {
+            path.add(level.identifier());
+        }
+        return Collections.unmodifiableList(path);
+    }
+
+    /**
+     * Returns whether {@code -h} or {@code --help} was given at this level.
+     * @return {@code true} if help was requested, {@code false} otherwise.
+     */
+    public boolean helpRequested() { return helpRequested; }
+
+    /* VALUE METHODS */
+
+    /**
+     * Converts and validates every value of this level and of the sub-commands below it that was left for its
+     * first read by {@link Parser#setLazyConversion(boolean) lazy conversion}, so invalid values are reported
+     * at once. Values already read are not converted again. Does nothing for results parsed eagerly.
+     *
+     * @throws CLIException The exception an eager parse would have thrown for the first invalid value.
+     */
+    public void validateAll() throws CLIException {
+        for (ParseResult level = this; level != null; level = level.command) {
+            if (level.lazy != null) {
+                ParseError error = level.lazy.convertAll(level.parser, level.values, level.primitives);
+                if (error != null) {
+                    throw error.toException(level.parser.stackTraces());
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns whether a value was parsed for the named argument.
+     *
+     * @param name The name of the argument.
+     * @return {@code true} if the argument was given, {@code false} otherwise.
+     * @throws IllegalArgumentException If the parser has no argument with that name.
+     */
+    public boolean has(String name) {
+        return present.get(slot(name));
+    }
+
+    /**
+     * Returns the parsed value of the named argument. Values of primitive arguments are boxed. For an argument
+     * that takes several values, this is the list of {@link #getList(String)}.
+     *
+     * @param name The name of the argument.
+     * @return The parsed value of the argument.
+     * @throws IllegalArgumentException If the argument does not exist or no value was parsed for it.
+     */
+    public Object get(String name) {
+        return valueAt(presentSlot(name));
+    }
+
+    /**
+     * Returns the parsed value of the named {@code int.class} argument without boxing.
+     *
+     * @param name The name of the argument.
+     * @return The parsed value of the argument.
+     * @throws IllegalArgumentException If the argument does not exist, is not an int, or no value was parsed for it.
+     */
+    public int getInt(String name) {
+        return (int) primitives[primitiveSlot(name, Argument.Primitive.INT)];
+    }
+
+    /**
+     * Returns the parsed value of the named {@code long.class} argument without boxing.
+     *
+     * @param name The name of the argument.
+     * @return The parsed value of the argument.
+     * @throws IllegalArgumentException If the argument does not exist, is not a long, or no value was parsed for it.
+     */
+    public long getLong(String name) {
+        return primitives[primitiveSlot(name, Argument.Primitive.LONG)];
+    }
+
+    /**
+     * Returns the parsed value of the named {@code double.class} argument without boxing.
+     *
+     * @param name The name of the argument.
+     * @return The parsed value of the argument.
+     * @throws IllegalArgumentException If the argument does not exist, is not a double, or no value was parsed for it.
+     */
+    public double getDouble(String name) {
+        return Double.longBitsToDouble(primitives[primitiveSlot(name, Argument.Primitive.DOUBLE)]);
+    }
+
+    /**
+     * Returns the parsed value of the named {@code boolean.class} argument without boxing.
+     *
+     * @param name The name of the argument.
+     * @return The parsed value of the argument.
+     * @throws IllegalArgumentException If the argument does not exist, is not a boolean, or no value was parsed for it.
+     */
+    public boolean getBoolean(String name) {
+        return primitives[primitiveSlot(name, Argument.Primitive.BOOLEAN)] != 0;
+    }
+
+    /**
+     * Returns whether a value was parsed for the argument.
+     *
+     * @param key The key returned when the argument was added.
+     * @return {@code true} if the argument was given, {@code false} otherwise.
+     * @throws IllegalArgumentException If the argument does not belong to this parser level.
+     */
+    public boolean has(ArgumentKey<?> key) {
+        return present.get(slot(key));
+    }
+
+    /**
+     * Returns the parsed value of the argument. Values of primitive arguments are boxed.
+     *
+     * @param key The key returned when the argument was added.
+     * @return The parsed value of the argument.
+     * @throws IllegalArgumentException If the argument does not belong to this parser level, takes several values,
+     *                                  or no value was parsed for it.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T get(ArgumentKey<T> key) {
+        int slot = presentSlot(key);
+        if (parser.argument(slot).multiple()) {
+            throw new IllegalArgumentException("Argument with name '" + key.name() + "' takes several values.");
+        }
+        return (T) valueAt(slot);
+    }
+
+    /**
+     * Returns the parsed value of an {@code int.class} argument without boxing.
+     *
+     * @param key The key returned when the argument was added.
+     * @return The parsed value of the argument.
+     * @throws IllegalArgumentException If the argument does not belong to this parser level, is not an int, or no
+     *                                  value was parsed for it.
+     */
+    public int getInt(ArgumentKey<Integer> key) {
+        return (int) primitives[primitiveSlot(key, Argument.Primitive.INT)];
+    }
+
+    /**
+     * Returns the parsed value of a {@code long.class} argument without boxing.
+     *
+     * @param key The key returned when the argument was added.
+     * @return The parsed value of the argument.
+     * @throws IllegalArgumentException If the argument does not belong to this parser level, is not a long, or no
+     *                                  value was parsed for it.
+     */
+    public long getLong(ArgumentKey<Long> key) {
+        return primitives[primitiveSlot(key, Argument.Primitive.LONG)];
+    }
+
+    /**
+     * Returns the parsed value of a {@code double.class} argument without boxing.
+     *
+     * @param key The key returned when the argument was added.
+     * @return The parsed value of the argument.
+     * @throws IllegalArgumentException If the argument does not belong to this parser level, is not a double, or
+     *                                  no value was parsed for it.
+     */
+    public double getDouble(ArgumentKey<Double> key) {
+        return Double.longBitsToDouble(primitives[primitiveSlot(key, Argument.Primitive.DOUBLE)]);
+    }
+
+    /**
+     * Returns the parsed value of a {@code boolean.class} argument without boxing.
+     *
+     * @param key The key returned when the argument was added.
+     * @return The parsed value of the argument.
+     * @throws IllegalArgumentException If the argument does not belong to this parser level, is not a boolean, or
+     *                                  no value was parsed for it.
+     */
+    public boolean getBoolean(ArgumentKey<Boolean> key) {
+        return primitives[primitiveSlot(key, Argument.Primitive.BOOLEAN)] != 0;
+    }
+
+    /**
+     * Returns the values of the named argument that takes several values, in the order they were given. Values
+     * of primitive arguments are boxed as they are read.
+     *
+     * @param name The name of the argument.
+     * @return An unmodifiable list of the values.
+     * @throws IllegalArgumentException If the argument does not exist, takes a single value, or was not given.
+     */
+    public List<?> getList(String name) {
+        return (List<?>) valueAt(listSlot(presentSlot(name), name));
+    }
+
+    /**
+     * Returns the values of an argument that takes several values, in the order they were given.
+     *
+     * @param key The key returned when the argument was added.
+     * @return An unmodifiable list of the values.
+     * @throws IllegalArgumentException If the argument does not belong to this parser level, takes a single
+     *                                  value, or was not given.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> List<T> getList(ArgumentKey<T> key) {
+        return (List<T>) valueAt(listSlot(presentSlot(key), key.name()));
+    }
+
+    /**
+     * Returns the unboxed values of the named primitive argument that takes several values.
+     *
+     * @param name The name of the argument.
+     * @return The values, in the order they were given.
+     * @throws IllegalArgumentException If the argument does not exist, is not primitive, takes a single value,
+     *                                  or was not given.
+     */
+    public PrimitiveList getPrimitives(String name) {
+        return primitives(listSlot(presentSlot(name), name), name);
+    }
+
+    /**
+     * Returns the unboxed values of a primitive argument that takes several values.
+     *
+     * @param key The key returned when the argument was added.
+     * @return The values, in the order they were given.
+     * @throws IllegalArgumentException If the argument does not belong to this parser level, is not primitive,
+     *                                  takes a single value, or was not given.
+     */
+    public PrimitiveList getPrimitives(ArgumentKey<?> key) {
+        return primitives(listSlot(presentSlot(key), key.name()), key.name());
+    }
+
+    private int listSlot(int slot, String name) {
+        if (!parser.argument(slot).multiple()) {
+            throw new IllegalArgumentException("Argument with name '" + name + "' takes a single value.");
+        }
+        return slot;
+    }
+
+    private PrimitiveList primitives(int slot, String name) {
+        if (!(values[slot] instanceof PrimitiveList list)) {
+            throw new IllegalArgumentException("Argument with name '" + name + "' is not of a primitive type.");
+        }
+        return list;
+    }
+
+    /**
+     * Returns every parsed value of this level, keyed by argument name in declaration order.
+     * Arguments that were not given are left out. The map is built on the first call and then reused.
+     *
+     * @return An unmodifiable map of argument names to parsed values.
+     */
+    public Map<String, Object> values() {
+        Map<String, Object> map = valueMap;
+        if (map == null) {
+            Map<String, Object> parsed = new LinkedHashMap<>();
+            for (int i = present.nextSetBit(0); i >= 0; i = present.nextSetBit(i + 1)) {
+                parsed.put(parser.argument(i).name(), valueAt(i));
+            }
+            valueMap = map = Collections.unmodifiableMap(parsed);
+        }
+        return map;
+    }
+
+    private Object valueAt(int slot) {
+        convert(slot);
+        Argument<?> argument = parser.argument(slot);
+        if (argument.multiple()) {
+            return values[slot] instanceof PrimitiveList list ? list.boxed() : values[slot];
+        }
+        Argument.Primitive primitive = argument.primitive();
+        if (primitive == null) {
+            return values[slot];
+        }
+        long raw = primitives[slot];
+        return switch (primitive) {
+            case INT -> (int) raw;
+            case LONG -> raw;
+            case DOUBLE -> Double.longBitsToDouble(raw);
+            case BOOLEAN -> raw != 0;
+        };
+    }
+
+    private int presentSlot(String name) {
+        int slot = slot(name);
+        if (!present.get(slot)) {
+            throw new IllegalArgumentException("Value with name '" + name + "' found but was empty.");
+        }
+        return slot;
+    }
+
+    private int primitiveSlot(String name, Argument.Primitive primitive) {
+        int slot = presentSlot(name);
+        if (parser.argument(slot).primitive() != primitive || parser.argument(slot).multiple()) {
+            throw new IllegalArgumentException("Argument with name '" + name + "' is not of type "
+                    + primitive.name().toLowerCase() + ".");
+        }
+        return convert(slot);
+    }
+
+    private int presentSlot(ArgumentKey<?> key) {
+        int slot = slot(key);
+        if (!present.get(slot)) {
+            throw new IllegalArgumentException("Value with name '" + key.name() + "' found but was empty.");
+        }
+        return slot;
+    }
+
+    private int primitiveSlot(ArgumentKey<?> key, Argument.Primitive primitive) {
+        int slot = presentSlot(key);
+        if (parser.argument(slot).primitive() != primitive || parser.argument(slot).multiple()) {
+            throw new IllegalArgumentException("Argument with name '" + key.name() + "' is not of type "
+                    + primitive.name().toLowerCase() + ".");
+        }
+        return convert(slot);
+    }
+
+    /**
+     * Converts the value of the slot if it was left for its first read, and returns the slot.
+     */
+    private int convert(int slot) {
+        if (lazy != null) {
+            ParseError error = lazy.convert(parser, slot, values, primitives);
+            if (error != null) {
+                throw new IllegalStateException(error.message(), error.toException(false));
+            }
+        }
+        return slot;
+    }
+
+    /**
+     * Returns the slot of the key, after checking that the key's argument is the one compiled into that slot.
+     */
+    private int slot(ArgumentKey<?> key) {
+        int slot = key.slot();
+        if (slot >= parser.argumentCount() || parser.argument(slot) != key.argument()) {
+            throw new IllegalArgumentException("Argument with name '" + key.name() + "' does not belong to '"
+                    + parser.identifier() + "'.");
+        }
+        return slot;
+    }
+
+    private int slot(String name) {
+        int slot = parser.indexOf(name);
+        if (slot < 0) {
+            throw new IllegalArgumentException("Argument with name '" + name + "' not found.");
+        }
+        return slot;
+    }
+
+    @Override
+    public String toString() {
+        return String.join(" ", commandPath()) + " " + leaf().values();
+    }
+}
@@ -1,12 +1,12 @@
 package oop.project.cli;
 
-import com.google.common.base.Splitter;
-
 import java.util.*;
-import java.util.stream.Collectors;
 
 /**
  * Represents a parser that parses and stores arguments and parsed values.
+ * <p>
+ * Any parser may hold sub-commands, and sub-commands may hold their own, so a line such as
+ * {@code tool cluster node drain --force} is parsed by a tree of {@link Command}s in a single pass.
  */
 public abstract class Parser {
     //Required
@@ -15,10 +15,21 @@ public abstract class Parser {
 
     //Optional
     protected String description;
+    protected boolean stackTraces = true;
+    protected ParseMetrics metrics = null;
+    protected Handler handler = null;
+    protected boolean argumentFiles = false;
+    protected boolean lazyConversion = false;
 
     //Storage
     protected Map<String, Argument> arguments = new LinkedHashMap<>();
-    protected Map<String, Optional<Object>> values = new LinkedHashMap<>();
+    protected Map<String, Command> commands = new LinkedHashMap<>();
+    private ParseResult parsed = null;
+
+    //Compilation
+    protected int modCount = 0;
+    private CompiledParser compiled = null;
+    private int compiledVersion = -1;
 
     /* CONSTRUCTORS */
 
@@ -60,143 +71,279 @@ public abstract class Parser {
      */
     public String identifier() { return identifier; }
 
+    /**
+     * Sets whether the exceptions thrown when input is rejected record a stack trace. Turning stack traces off
+     * makes rejecting input much cheaper for callers that only read the message. Enabled by default.
+     *
+     * @param enabled {@code false} to throw exceptions without a stack trace.
+     */
+    public void setStackTraces(boolean enabled) {
+        if (stackTraces != enabled) {
+            stackTraces = enabled;
+            modCount++;
+        }
+    }
+
+    /**
+     * Sets the metrics that lines parsed by this parser, including their sub-commands, are recorded to. Metrics
+     * are disabled by default, and a parser without metrics does not read the clock at all.
+     *
+     * @param metrics The metrics to record to, such as {@code new ParseMetrics(identifier)}, or {@code null} to
+     *                disable them.
+     */
+    public void setMetrics(ParseMetrics metrics) {
+        if (this.metrics != metrics) {
+            this.metrics = metrics;
+            modCount++;
+        }
+    }
+
+    /**
+     * Returns the metrics that this parser records to.
+     * @return The metrics, or {@code null} if metrics are disabled.
+     */
+    public ParseMetrics metrics() { return metrics; }
+
+    /**
+     * Sets the action run for lines that this parser or command parses, through {@link ParseResult#execute()},
+     * {@link ParserRegistry#execute(CharSequence)} or an {@link ExecutionPipeline}. When a line dispatches to
+     * sub-commands, the handler of the most specific level that has one runs.
+     *
+     * @param handler The action, or {@code null} to remove it.
+     */
+    public void setHandler(Handler handler) {
+        if (this.handler != handler) {
+            this.handler = handler;
+            modCount++;
+        }
+    }
+
+    /**
+     * Sets whether a token {@code @path} in lines given to this parser is replaced by the tokens of the file at
+     * that path, which are separated by whitespace and may be quoted as on a line. The file is memory-mapped and
+     * read line by line, and its tokens are converted as they are read, so a file with hundreds of thousands of
+     * values is never held as one string. A token cannot span lines, and files are not expanded recursively.
+     * Disabled by default, so values starting with {@code @} are taken as they are.
+     *
+     * @param enabled {@code true} to expand argument files.
+     */
+    public void setArgumentFiles(boolean enabled) {
+        if (argumentFiles != enabled) {
+            argumentFiles = enabled;
+            modCount++;
+        }
+    }
+
+    /**
+     * Sets whether values of lines given to this parser are converted and validated only when they are first
+     * read from the {@link ParseResult}, for callers that read a few arguments of a wide command. Parsing then
+     * only checks the structure of the line: unknown flags, duplicates, required arguments and the number of
+     * values. Each value is converted once and kept, and a value that fails to convert or validate is reported
+     * when it is read, or by {@link ParseResult#validateAll()}. Arguments that take several values or validate
+     * asynchronously are still converted while parsing. Disabled by default; the setting of the parser that a
+     * line is given to applies to its sub-commands.
+     *
+     * @param enabled {@code true} to convert values when they are first read.
+     */
+    public void setLazyConversion(boolean enabled) {
+        if (lazyConversion != enabled) {
+            lazyConversion = enabled;
+            modCount++;
+        }
+    }
+
     /* ARGUMENT METHOD */
     /**
      * Adds an argument to the parser's list of arguments.
      *
      * @param argument The argument to be added.
+     * @return A typed key that reads the argument's value from a {@link ParseResult} without a name lookup.
+     * @throws IllegalArgumentException If an argument with the same name already exists.
      */
-    public void addArgument(Argument argument) {
+    public <T> ArgumentKey<T> addArgument(Argument<T> argument) {
         storeArgumentInMap(argument.name(), argument);
+        return new ArgumentKey<>(argument, arguments.size() - 1);
+    }
+
+    /* COMMAND METHOD */
+    /**
+     * Adds a Command object to the parser. If a command with the same name already exists,
+     * an IllegalArgumentException is thrown to avoid command name conflicts.
+     * <p>
+     * When parsing, a command is matched by its identifier, one of its aliases, or any prefix of those that
+     * no other command shares, so {@code calc sq 4} runs {@code sqrt}. The command may be named after the flags
+     * of this parser, and this parser's flags may also be given after it, unless the command has an argument
+     * of the same name.
+     *
+     * @param command The Command object to add to the parser.
+     * @throws IllegalArgumentException If a command with the same identifier exists, or the command is this
+     *                                  parser or already contains it.
+     */
+    public void addCommand(Command command) {
+        if (command == this || ((Parser) command).contains(this)) {
+            throw new IllegalArgumentException("Command with name '" + command.identifier()
+                    + "' cannot contain itself.");
+        }
+        storeCommandInMap(command.identifier(), command);
+    }
+
+    private boolean contains(Parser parser) {
+        for (Parser command : commands.values()) {
+            if (command == parser || command.contains(parser)) {
+                return true;
+            }
+        }
+        return false;
     }
 
     /* MAP STORAGE METHODS */
 
-    private Argument getArgumentFromMap(String name) {
-        if (!arguments.containsKey(name)) {
-            throw new IllegalArgumentException("Argument with name '" + name + "' not found.");
+    /**
+     * Returns the sub-command with the given identifier.
+     *
+     * @throws IllegalArgumentException If this parser has no such sub-command.
+     */
+    protected Command getCommandFromMap(String identifier) {
+        if (!commands.containsKey(identifier)) {
+            throw new IllegalArgumentException("Command with name '" + identifier + "' not found.");
         }
-        return arguments.get(name);
+        return commands.get(identifier);
     }
 
-    private Object getValueFromMap(String name) {
-        if (!values.containsKey(name)) {
-            throw new IllegalArgumentException("Value with name '" + name + "' not found.");
-        } else if (values.get(name) == Optional.empty()) {
-            throw new IllegalArgumentException("Value with name '" + name + "' found but was empty.");
+    private void storeCommandInMap(String identifier, Command command) {
+        if(commands.containsKey(identifier)) {
+            throw new IllegalArgumentException("Value with name '" + identifier + "' already exists.");
         }
-        return values.get(name);
+        commands.put(identifier, command);
+        modCount++;
     }
 
     private void storeArgumentInMap(String name, Argument argument) {
         if(arguments.containsKey(name)) {
             throw new IllegalArgumentException("Argument with name '" + name + "' already exists.");
         }
-        values.put(name, Optional.empty());
         arguments.put(name, argument);
-    }
-
-    private void storeValueInMap(String name, Object value) {
-        values.put(name, Optional.ofNullable(value));
+        modCount++;
     }
 
     /* PARSING METHODS */
     /**
-     * Retrieves the parsed value of a specified argument by casting it to its declared type.
-     * This method fetches the value from the internal map and casts it based on the type information
-     * provided by the Argument object associated with the name.
+     * Retrieves the parsed value of a specified argument, typed as the argument's declared type.
+     * Values of primitive arguments are boxed.
      *
      * @param name The name of the argument whose parsed value is to be retrieved.
-     * @return The parsed value of the argument, cast to its appropriate type.
+     * @return The parsed value of the argument.
      * @throws IllegalArgumentException If the argument name does not exist or the value is empty.
      */
     public Object getParsedArgument(String name) {
-        Class type = getArgumentFromMap(name).type();
-        Object value = getValueFromMap(name);
-        return type.cast(value);
+        if (!arguments.containsKey(name)) {
+            throw new IllegalArgumentException("Argument with name '" + name + "' not found.");
+        } else if (parsed == null || !parsed.has(name)) {
+            throw new IllegalArgumentException("Value with name '" + name + "' found but was empty.");
+        }
+        return parsed.get(name);
     }
+
+    /**
+     * Retrieves the parsed value of an argument through the key returned by {@link #addArgument(Argument)}.
+     *
+     * @param key The key of the argument whose parsed value is to be retrieved.
+     * @return The parsed value of the argument.
+     * @throws IllegalArgumentException If the argument does not belong to this parser or the value is empty.
+     */
+    public <T> T getParsedArgument(ArgumentKey<T> key) {
+        if (parsed == null) {
+            throw new IllegalArgumentException("Value with name '" + key.name() + "' found but was empty.");
+        }
+        return parsed.get(key);
+    }
+
     /**
      * Retrieves all arguments that have been parsed along with their corresponding values.
-     * This method filters out any arguments that have not been set (i.e., their values are Optional.empty())
-     * and returns a map of argument names to their parsed values.
+     * Arguments that were not given are left out. The map is shared with the last parse result, so repeated
+     * calls do not copy it.
      *
-     * @return A map of argument names to their corresponding values, excluding any arguments that have not been set.
+     * @return An unmodifiable map of argument names to their parsed values, in declaration order.
      */
     public Map<String, Object> getParsedArguments() {
-        Map<String, Object> parsedArgs = values.entrySet().stream()
-                .filter(entry -> entry.getValue().isPresent()) // Filter out entries with Optional.empty()
-                .collect(Collectors.toMap(Map.Entry::getKey, entry -> entry.getValue().get()));
-
-        return parsedArgs;
+        return parsed == null ? Map.of() : parsed.values();
     }
 
-    private void flagged(List<String> tokens) throws Exception {
-        if(tokens.size() % 2 != 0) {
-            throw new ParseException("Unexpected Arguments");
-        }
-
-        Integer nameIndex = 0;
-        Integer valueIndex = 1;
-        for (Map.Entry<String, Argument> entry : arguments.entrySet()) {
-            String name = entry.getKey();
-            Argument argument = entry.getValue();
-
-            if (nameIndex >= tokens.size() || valueIndex >= tokens.size()) {
-                if(argument.required() == Boolean.TRUE) {
-                    throw new ParseException("Missing Required Argument -> " + name);
-                }
-                continue;
-            }
-
-            String tokenName = tokens.get(nameIndex).replace("--", "");
-            String tokenValue = tokens.get(valueIndex);
-
-            if (!arguments.containsKey(tokenName)) {
-                throw new ParseException("Argument does not exist -> " + tokenName);
-            } else if (Objects.equals(name, tokenName)) {
-                // Validate and Store
-                storeValueInMap(name, argument.validate(tokenValue));
-                // Increase ptrs
-                nameIndex = nameIndex + 2;
-                valueIndex = valueIndex + 2;
-            } else if (argument.required()) {
-                throw new ParseException("Missing Required Argument -> " + name);
-            }
-        }
+    /**
+     * Getter for a specific argument in a command.
+     *
+     * @param command The identifier of the command to retrieve the command from the map of Commands.
+     * @param name The name of the Argument to retreive from the command's map of arguments.
+     * @return The parsed value of the command line argument that is stored in the Command object.
+     */
+    public Object getParsedCommandArgument(String command, String name) {
+        return getCommandFromMap(command).getParsedArgument(name);
     }
 
-    private void positional(List<String> tokens) throws Exception {
-        if (tokens.size() != arguments.size()) {
-            throw new ParseException("Mismatch between number of expected arguments and given arguments.");
-        }
-
-        Integer valueIndex = 0;
-        for (Map.Entry<String, Argument> entry : arguments.entrySet()) {
-            if (valueIndex >= tokens.size()) {
-                break;
-            }
-
-            String name = entry.getKey();
-            Argument argument = entry.getValue();
-
-            String tokenValue = tokens.get(valueIndex);
+    /**
+     * Getter for all the parsed arguments in a Command.
+     *
+     * @param command String representation of the unique identifier of the Command for retrieval in the map.
+     * @return A map parsed Commands where the keys are the command's unique identifier.
+     */
+    public Map<String, Object> getParsedCommandArguments(String command) {
+        return getCommandFromMap(command).getParsedArguments();
+    }
 
-            storeValueInMap(name, argument.validate(tokenValue));
-            valueIndex++;
-        }
+    /**
+     * Stores a parse result so its values can be read back through {@link #getParsedArgument(String)}, and
+     * stores the result of each sub-command level on the matching {@link Command}.
+     *
+     * @param result The result of parsing this parser's level of the input.
+     * @return The parser of the most specific level of the result.
+     */
+    protected Parser storeParsedArguments(ParseResult result) {
+        parsed = result;
+        ParseResult commandResult = result.command();
+        return commandResult == null ? this : getCommandFromMap(commandResult.identifier()).storeParsedArguments(commandResult);
     }
 
-    protected void parse(List<String> tokens) throws Exception {
-        Boolean flagged = Boolean.FALSE;
-        if(tokens.getFirst().contains("--")) {
-            flagged = Boolean.TRUE;
+    /* COMPILE METHODS */
+    /**
+     * Freezes the current arguments of this parser into an immutable, thread-safe {@link CompiledParser}.
+     * Arguments added afterwards are not seen by the returned instance.
+     * <p>
+     * The compiled parser, including its rendered help message, is kept and returned again until the definition
+     * changes, so compiling an unchanged parser is free.
+     *
+     * @return A compiled snapshot of this parser.
+     */
+    public CompiledParser compile() {
+        int version = version();
+        if (compiled == null || compiledVersion != version) {
+            compiled = newCompiledParser();
+            compiledVersion = version;
         }
+        return compiled;
+    }
 
-        if(flagged) {
-            flagged(tokens);
-        } else {
-            positional(tokens);
+    /**
+     * Returns a number that changes whenever the definition of this parser or any of its sub-commands changes,
+     * so adding an argument to a nested command also invalidates the compiled snapshot of this parser.
+     *
+     * @return The version of the definition.
+     */
+    protected int version() {
+        int version = modCount;
+        for (Command command : commands.values()) {
+            version += command.version();
         }
+        return version;
+    }
 
+    /**
+     * Builds a new compiled snapshot of the current definition. Called by {@link #compile()} when the
+     * definition has changed since the last snapshot.
+     *
+     * @return A new compiled snapshot of this parser.
+     */
+    protected CompiledParser newCompiledParser() {
+        return new CompiledParser(name, identifier, description, List.of(), arguments.values(), commands.values(),
+                stackTraces, metrics, handler, argumentFiles, lazyConversion);
     }
 }
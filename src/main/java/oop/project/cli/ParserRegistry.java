@@ -0,0 +1,247 @@
+package oop.project.cli;
+
+import java.util.*;
+
+/**
+ * A registry of top-level programs that routes each line to the {@link CompiledParser} named by its first token.
+ * <p>
+ * The registered parsers are held in an immutable snapshot, published through a volatile field, so lookups take
+ * no lock and always see a consistent set of programs. {@link #register(CompiledParser) Registering} a program
+ * copies the snapshot, which makes registration comparatively slow but keeps every lookup a single hash probe,
+ * and completing an identifier a walk of a prefix trie built with the snapshot.
+ * The line is tokenized once, and the same tokens are used both to find the program and to parse its arguments.
+ */
+public final class ParserRegistry {
+
+    /**
+     * The registered parsers in registration order, indexed by identifier, with a prefix trie over the
+     * identifiers for completion.
+     */
+    private record Snapshot(NameTable index, CommandTrie identifiers, CompiledParser[] parsers) {}
+
+    private volatile Snapshot snapshot = snapshotOf(List.of());
+
+    /* CONSTRUCTORS */
+
+    /**
+     * Constructs an empty registry.
+     */
+    public ParserRegistry() {}
+
+    /**
+     * Constructs a registry holding the given programs.
+     *
+     * @param parsers The programs to register.
+     * @throws IllegalArgumentException If two programs share an identifier.
+     */
+    public ParserRegistry(Collection<CompiledParser> parsers) {
+        snapshot = snapshotOf(List.copyOf(parsers));
+    }
+
+    /* REGISTRATION */
+
+    /**
+     * Adds a program, making it available to every later lookup, including lookups running on other threads.
+     *
+     * @param parser The program to register.
+     * @throws IllegalArgumentException If a program with the same identifier is already registered.
+     */
+    public synchronized void register(CompiledParser parser) {
+        if (get(parser.identifier()) != null) {
+            throw new IllegalArgumentException("Program with identifier '" + parser.identifier()
+                    + "' already exists.");
+        }
+        List<CompiledParser> parsers = new ArrayList<>(Arrays.asList(snapshot.parsers()));
+        parsers.add(parser);
+        snapshot = snapshotOf(parsers);
+    }
+
+    private static Snapshot snapshotOf(List<CompiledParser> parsers) {
+        List<String> identifiers = new ArrayList<>();
+        List<List<String>> names = new ArrayList<>();
+        for (CompiledParser parser : parsers) {
+            identifiers.add(parser.identifier());
+            names.add(List.of(parser.identifier()));
+        }
+        return new Snapshot(new NameTable(identifiers), new CommandTrie(names),
+                parsers.toArray(new CompiledParser[0]));
+    }
+
+    /* LOOKUP */
+
+    /**
+     * Returns the registered programs in registration order.
+     * @return An unmodifiable list of the programs.
+     */
+    public List<CompiledParser> parsers() { return List.of(snapshot.parsers()); }
+
+    /**
+     * Returns the program with the given identifier.
+     *
+     * @param identifier The identifier of the program.
+     * @return The program, or {@code null} if none is registered under that identifier.
+     */
+    public CompiledParser get(String identifier) {
+        Snapshot current = snapshot;
+        int slot = current.index().get(identifier);
+        return slot < 0 ? null : current.parsers()[slot];
+    }
+
+    /**
+     * Returns the program named by the first token, without copying the token.
+     *
+     * @param tokens The tokens of the input line.
+     * @return The program, or {@code null} if the line is empty or no program has that identifier.
+     */
+    public CompiledParser find(Tokens tokens) {
+        if (tokens.size() == 0) {
+            return null;
+        }
+        Snapshot current = snapshot;
+        int slot = current.index().get(tokens.text(0), tokens.start(0), tokens.end(0));
+        return slot < 0 ? null : current.parsers()[slot];
+    }
+
+    /* COMPLETION METHODS */
+
+    /**
+     * Suggests completions for the token ending at the cursor. The first token completes to the identifiers of
+     * the registered programs, in lexicographic order; later tokens are completed by the program the first token
+     * names, as in {@link CompiledParser#complete(String, int)}.
+     *
+     * @param partialLine The line typed so far.
+     * @param cursor The position of the cursor in the line.
+     * @return The candidates, and the part of the line they replace.
+     * @throws IndexOutOfBoundsException If the cursor is outside the line.
+     */
+    public CompiledParser.Completions complete(String partialLine, int cursor) {
+        if (cursor < 0 || cursor > partialLine.length()) {
+            throw new IndexOutOfBoundsException("Cursor " + cursor + " is outside the line.");
+        }
+        int start = 0;
+        while (start < cursor && Character.isWhitespace(partialLine.charAt(start))) {
+            start++;
+        }
+        int end = start;
+        while (end < cursor && !Character.isWhitespace(partialLine.charAt(end))) {
+            end++;
+        }
+        if (end == cursor) {
+            return new CompiledParser.Completions(start, cursor,
+                    List.copyOf(snapshot.identifiers().candidates(partialLine, start, cursor)));
+        }
+        CompiledParser parser = get(partialLine.substring(start, end));
+        return parser != null ? parser.complete(partialLine, cursor)
+                : new CompiledParser.Completions(cursor, cursor, List.of());
+    }
+
+    /* PARSING METHODS */
+
+    /**
+     * Tokenizes the line once, selects the program named by its first token, and parses the line with it.
+     *
+     * @param input The raw input line.
+     * @return The values parsed from the input.
+     * @throws CLIException If no program is registered under the first token, or the line fails to parse.
+     */
+    public ParseResult parse(CharSequence input) throws CLIException {
+        Tokens tokens = Tokens.borrow();
+        try {
+            return parse(tokens.reset(input));
+        } finally {
+            tokens.release();
+        }
+    }
+
+    /**
+     * Selects the program named by the first word of an argument array and parses the words with it. Each word
+     * is one token exactly as given, so words holding whitespace or quotes are not split or unquoted.
+     *
+     * @param words The array holding the program identifier followed by its arguments.
+     * @param offset The index of the program identifier.
+     * @param length The number of words, including the identifier.
+     * @return The values parsed from the words.
+     * @throws CLIException If no program is registered under the first word, or the words fail to parse.
+     * @throws IndexOutOfBoundsException If the range lies outside the array.
+     */
+    public ParseResult parse(CharSequence[] words, int offset, int length) throws CLIException {
+        Tokens tokens = Tokens.borrow();
+        try {
+            return parse(tokens.reset(words, offset, length));
+        } finally {
+            tokens.release();
+        }
+    }
+
+    /**
+     * Selects the program named by the first token and parses the tokens with it.
+     *
+     * @param tokens The tokens of the input line.
+     * @return The values parsed from the input.
+     * @throws CLIException If no program is registered under the first token, or the line fails to parse.
+     */
+    public ParseResult parse(Tokens tokens) throws CLIException {
+        CompiledParser parser = find(tokens);
+        if (parser == null) {
+            throw unknown(tokens).toException();
+        }
+        return parser.parse(tokens);
+    }
+
+    /**
+     * Parses the line with the program named by its first token and runs the handler of the most specific level
+     * that has one, as in {@link ParseResult#execute()}.
+     *
+     * @param input The raw input line.
+     * @return The outcome of the handler, or the values of the most specific level if no level has a handler.
+     * @throws CLIException If no program is registered under the first token, or the line fails to parse.
+     * @throws Exception If the handler fails.
+     */
+    public Object execute(CharSequence input) throws Exception {
+        return parse(input).execute();
+    }
+
+    /**
+     * Parses the line like {@link #parse(CharSequence)}, but returns a rejected line as a
+     * {@link ParseOutcome.Failure} instead of throwing.
+     *
+     * @param input The raw input line.
+     * @return The parse result, or the first error in the line.
+     */
+    public ParseOutcome tryParse(CharSequence input) {
+        Tokens tokens = Tokens.borrow();
+        try {
+            int unterminated = tokens.scan(input);
+            if (unterminated >= 0) {
+                return new ParseOutcome.Failure(new ParseError(ParseError.Code.UNTERMINATED_QUOTE, null,
+                        tokens.size(), unterminated, "Unterminated quote at position " + unterminated));
+            }
+            return tryParse(tokens);
+        } finally {
+            tokens.release();
+        }
+    }
+
+    /**
+     * Parses the tokens like {@link #parse(Tokens)}, but returns a rejected line as a {@link ParseOutcome.Failure}
+     * instead of throwing.
+     *
+     * @param tokens The tokens of the input line.
+     * @return The parse result, or the first error in the line.
+     */
+    public ParseOutcome tryParse(Tokens tokens) {
+        CompiledParser parser = find(tokens);
+        if (parser == null) {
+            return new ParseOutcome.Failure(unknown(tokens));
+        }
+        return parser.tryParse(tokens);
+    }
+
+    private static ParseError unknown(Tokens tokens) {
+        if (tokens.size() == 0) {
+            return new ParseError(ParseError.Code.UNKNOWN_COMMAND, null, -1, -1, "Unknown Command -> ''");
+        }
+        return new ParseError(ParseError.Code.UNKNOWN_COMMAND, null, 0, tokens.offset(0),
+                "Unknown Command -> '" + tokens.toString(0) + "'");
+    }
+}
@@ -0,0 +1,45 @@
+package oop.project.cli;
+
+/**
+ * Accumulates the time one parse spends in each {@link ParseMetrics.Phase}. A timer is only created when metrics
+ * are enabled, and is used by a single thread, so its fields are plain.
+ * <p>
+ * Each phase starts with {@link #start()} and ends with the method named after it, which adds the time since the
+ * start to that phase and starts the next one, so consecutive phases are timed with one clock read between them.
+ */
+final class PhaseTimer {
+    final long begin = System.nanoTime();
+    private long mark = begin;
+
+    long tokenize;
+    long dispatch;
+    long convert;
+    long validate;
+
+    void start() {
+        mark = System.nanoTime();
+    }
+
+    void tokenized() {
+        tokenize += lap();
+    }
+
+    void dispatched() {
+        dispatch += lap();
+    }
+
+    void converted() {
+        convert += lap();
+    }
+
+    void validated() {
+        validate += lap();
+    }
+
+    private long lap() {
+        long now = System.nanoTime();
+        long elapsed = now - mark;
+        mark = now;
+        return elapsed;
+    }
+}
@@ -0,0 +1,188 @@
+package oop.project.cli;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.RandomAccess;
+
+/**
+ * The values of an {@code int}, {@code long}, {@code double} or {@code boolean} argument that takes several
+ * values, as returned by {@link ParseResult#getPrimitives(String)}.
+ * <p>
+ * Values are stored unboxed in one growable {@code long} array, in the same encoding as the primitive slots of
+ * a {@link ParseResult}: doubles as raw bits and booleans as 0 or 1. Reading them with {@link #getInt(int)} and
+ * the other accessors does not box, so an argument with hundreds of thousands of values costs one array rather
+ * than one object per value. A list is filled while its line is parsed and is immutable afterwards.
+ */
+public final class PrimitiveList {
+    private static final int INITIAL_CAPACITY = 8;
+
+    private final Argument.Primitive type;
+    private long[] elements = new long[INITIAL_CAPACITY];
+    private int size = 0;
+
+    /* CONSTRUCTORS */
+
+    PrimitiveList(Argument.Primitive type) {
+        this.type = type;
+    }
+
+    /* GETTER METHODS */
+
+    /**
+     * Returns the number of values.
+     * @return The number of values in the list.
+     */
+    public int size() { return size; }
+
+    /**
+     * Returns a value of an {@code int.class} argument.
+     *
+     * @param index The index of the value.
+     * @return The value.
+     * @throws IllegalStateException If the argument is not an {@code int.class} argument.
+     * @throws IndexOutOfBoundsException If the index is outside the list.
+     */
+    public int getInt(int index) {
+        return (int) raw(index, Argument.Primitive.INT);
+    }
+
+    /**
+     * Returns a value of a {@code long.class} argument.
+     *
+     * @param index The index of the value.
+     * @return The value.
+     * @throws IllegalStateException If the argument is not a {@code long.class} argument.
+     * @throws IndexOutOfBoundsException If the index is outside the list.
+     */
+    public long getLong(int index) {
+        return raw(index, Argument.Primitive.LONG);
+    }
+
+    /**
+     * Returns a value of a {@code double.class} argument.
+     *
+     * @param index The index of the value.
+     * @return The value.
+     * @throws IllegalStateException If the argument is not a {@code double.class} argument.
+     * @throws IndexOutOfBoundsException If the index is outside the list.
+     */
+    public double getDouble(int index) {
+        return Double.longBitsToDouble(raw(index, Argument.Primitive.DOUBLE));
+    }
+
+    /**
+     * Returns a value of a {@code boolean.class} argument.
+     *
+     * @param index The index of the value.
+     * @return The value.
+     * @throws IllegalStateException If the argument is not a {@code boolean.class} argument.
+     * @throws IndexOutOfBoundsException If the index is outside the list.
+     */
+    public boolean getBoolean(int index) {
+        return raw(index, Argument.Primitive.BOOLEAN) != 0;
+    }
+
+    /**
+     * Copies the values of an {@code int.class} argument into a new array.
+     *
+     * @return The values, in the order they were given.
+     * @throws IllegalStateException If the argument is not an {@code int.class} argument.
+     */
+    public int[] toIntArray() {
+        requireType(Argument.Primitive.INT);
+        int[] copy = new int[size];
+        for (int i = 0; i < size; i++) {
+            copy[i] = (int) elements[i];
+        }
+        return copy;
+    }
+
+    /**
+     * Copies the values of a {@code long.class} argument into a new array.
+     *
+     * @return The values, in the order they were given.
+     * @throws IllegalStateException If the argument is not a {@code long.class} argument.
+     */
+    public long[] toLongArray() {
+        requireType(Argument.Primitive.LONG);
+        return Arrays.copyOf(elements, size);
+    }
+
+    /**
+     * Copies the values of a {@code double.class} argument into a new array.
+     *
+     * @return The values, in the order they were given.
+     * @throws IllegalStateException If the argument is not a {@code double.class} argument.
+     */
+    public double[] toDoubleArray() {
+        requireType(Argument.Primitive.DOUBLE);
+        double[] copy = new double[size];
+        for (int i = 0; i < size; i++) {
+            copy[i] = Double.longBitsToDouble(elements[i]);
+        }
+        return copy;
+    }
+
+    /**
+     * Returns a read-only view that boxes each value as it is read, as used by {@link ParseResult#values()}.
+     */
+    List<Object> boxed() {
+        return new Boxed();
+    }
+
+    private final class Boxed extends AbstractList<Object> implements RandomAccess {
+        @Override
+        public Object get(int index) {
+            long raw = elements[Objects.checkIndex(index, size)];
+            return switch (type) {
+                case INT -> (int) raw;
+                case LONG -> raw;
+                case DOUBLE -> Double.longBitsToDouble(raw);
+                case BOOLEAN -> raw != 0;
+            };
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+    }
+
+    /* STORAGE METHODS */
+
+    /**
+     * Makes room for one more value and returns the array to store it in, at index {@link #size()}. The value
+     * becomes part of the list once {@link #added()} is called.
+     */
+    long[] reserve() {
+        if (size == elements.length) {
+            elements = Arrays.copyOf(elements, elements.length * 2);
+        }
+        return elements;
+    }
+
+    /**
+     * Adds the value stored at index {@link #size()} of the array returned by {@link #reserve()}.
+     */
+    void added() {
+        size++;
+    }
+
+    private long raw(int index, Argument.Primitive expected) {
+        requireType(expected);
+        return elements[Objects.checkIndex(index, size)];
+    }
+
+    private void requireType(Argument.Primitive expected) {
+        if (type != expected) {
+            throw new IllegalStateException("Values are not of type " + expected.name().toLowerCase() + ".");
+        }
+    }
+
+    @Override
+    public String toString() {
+        return boxed().toString();
+    }
+}
@@ -0,0 +1,48 @@
+package oop.project.cli;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.RandomAccess;
+
+/**
+ * The values of a reference-typed argument that takes several values. The list is filled while its line is
+ * parsed through {@link #reserve()} and {@link #added()}, the same way as a {@link PrimitiveList}, and is
+ * read-only to callers.
+ *
+ * @param <T> The type of the values.
+ */
+final class ReferenceList<T> extends AbstractList<T> implements RandomAccess {
+    private static final int INITIAL_CAPACITY = 8;
+
+    private Object[] elements = new Object[INITIAL_CAPACITY];
+    private int size = 0;
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public T get(int index) {
+        return (T) elements[Objects.checkIndex(index, size)];
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Makes room for one more value and returns the array to store it in, at index {@link #size()}.
+     */
+    Object[] reserve() {
+        if (size == elements.length) {
+            elements = Arrays.copyOf(elements, elements.length * 2);
+        }
+        return elements;
+    }
+
+    /**
+     * Adds the value stored at index {@link #size()} of the array returned by {@link #reserve()}.
+     */
+    void added() {
+        size++;
+    }
+}
@@ -1,6 +1,7 @@
 package oop.project.cli;
 
 import java.time.LocalDate;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -8,6 +9,10 @@ import java.util.Map;
  */
 public class Scenarios {
 
+    //Each scenario is compiled once and registered under its identifier; more can be registered at runtime.
+    private static final ParserRegistry REGISTRY = new ParserRegistry(List.of(
+            addParser(), subParser(), sqrtParser(), calcParser(), dateParser()));
+
     /**
      * Parses and returns the arguments of a command (one of the scenarios
      * below) into a Map of names to values. This method is provided as a
@@ -21,17 +26,37 @@ public class Scenarios {
         //structure, e.g. Lisp syntax like `(command [arguments...])`, you may
         //need to adjust this a bit to work as expected.
         System.out.println(command);
-        var split = command.split(" ", 2);
-        var base = split[0];
-        //var arguments = split.length == 2 ? split[1] : "";
-        return switch (base) {
-            case "add" -> add(command);
-            case "sub" -> sub(command);
-            case "sqrt" -> sqrt(command);
-            case "calc" -> calc(command);
-            case "date" -> date(command);
-            default -> throw new IllegalArgumentException("Unknown command.");
-        };
+        return dispatch(command);
+    }
+
+    /**
+     * Parses a command like {@link #parse(String)}, but without echoing it to standard output. The command may be
+     * any character sequence, such as a line read straight from a file buffer.
+     */
+    @SuppressWarnings("unchecked")
+    static Map<String, Object> dispatch(CharSequence command) throws Exception {
+        //Every scenario's handler returns its values, as does a program without a handler.
+        return (Map<String, Object>) REGISTRY.execute(command);
+    }
+
+    /**
+     * Parses a command given as separate words, such as the arguments of {@code main}, without joining them into
+     * a line. The first word names the scenario, and every word is one token exactly as given.
+     */
+    @SuppressWarnings("unchecked")
+    static Map<String, Object> dispatch(CharSequence[] words, int offset, int length) throws Exception {
+        return (Map<String, Object>) REGISTRY.parse(words, offset, length).execute();
+    }
+
+    /**
+     * Registers another top-level program, so lines starting with its identifier are dispatched to it. Its
+     * result is the values of the most specific command given on the line.
+     *
+     * @param parser The program to register.
+     * @throws IllegalArgumentException If a program with the same identifier is already registered.
+     */
+    static void register(CompiledParser parser) {
+        REGISTRY.register(parser);
     }
 
     /**
@@ -39,16 +64,20 @@ public class Scenarios {
      *  - {@code left: <your integer type>}
      *  - {@code right: <your integer type>}
      */
-    private static Map<String, Object> add(String arguments) throws Exception {
+    private static Map<String, Object> add(ParseResult result) {
+        return result.values();
+    }
+
+    private static CompiledParser addParser() {
         ArgumentParser argparse = new ArgumentParser("Addition", "add", "Performs addition");
-        argparse.addArgument(new Argument.Builder<>("left", Integer.class)
+        argparse.addArgument(new Argument.Builder<>("left", int.class)
                 .required(Boolean.TRUE)
                 .build());
-        argparse.addArgument(new Argument.Builder<>("right", Integer.class)
+        argparse.addArgument(new Argument.Builder<>("right", int.class)
                 .required(Boolean.TRUE)
                 .build());
-        argparse.parseArgs(arguments);
-        return argparse.getParsedArguments();
+        argparse.setHandler(Scenarios::add);
+        return argparse.compile();
     }
 
     /**
@@ -58,82 +87,88 @@ public class Scenarios {
      *       this as a non-optional decimal value using a default of 0.0.
      *  - {@code right: <your decimal type>} (required)
      */
-    static Map<String, Object> sub(String arguments) throws Exception {
-        //TODO: Parse arguments and extract values.
+    static Map<String, Object> sub(ParseResult result) {
+        return result.values();
+    }
+
+    private static CompiledParser subParser() {
         ArgumentParser argparse = new ArgumentParser("Subtract", "sub", "Performs subtraction");
-        argparse.addArgument(new Argument.Builder<>("left", Double.class)
+        argparse.addArgument(new Argument.Builder<>("left", double.class)
                 .required(Boolean.FALSE)
                 .build());
-        argparse.addArgument(new Argument.Builder<>("right", Double.class)
+        argparse.addArgument(new Argument.Builder<>("right", double.class)
                 .required(Boolean.TRUE)
                 .build());
-        argparse.parseArgs(arguments);
-        return argparse.getParsedArguments();
+        argparse.setHandler(Scenarios::sub);
+        return argparse.compile();
     }
 
     /**
      * Takes one positional argument:
      *  - {@code number: <your integer type>} where {@code number >= 0}
      */
-    static Map<String, Object> sqrt(String arguments) throws Exception {
-        //TODO: Parse arguments and extract values.
+    static Map<String, Object> sqrt(ParseResult result) {
+        return result.values();
+    }
+
+    private static CompiledParser sqrtParser() {
         ArgumentParser argparse = new ArgumentParser("Square Root", "sqrt", "Performs Square Root");
-        ValidationFunction<Integer> nonNegativeValidator = value -> value >= 0;
-        argparse.addArgument(new Argument.Builder<>("number", Integer.class)
+        ValidationFunction.OfInt nonNegativeValidator = value -> value >= 0;
+        argparse.addArgument(new Argument.Builder<>("number", int.class)
                 .required(Boolean.TRUE)
-                .validationFunction(nonNegativeValidator)
+                .intValidationFunction(nonNegativeValidator)
                 .build());
-        argparse.parseArgs(arguments);
-        return argparse.getParsedArguments();
+        argparse.setHandler(Scenarios::sqrt);
+        return argparse.compile();
     }
 
-
     /**
      * Takes one positional argument:
      *  - {@code subcommand: "add" | "div" | "sqrt" }, aka one of these values.
      *     - Note: Not all projects support subcommands, but if yours does you
      *       may want to take advantage of this scenario for that.
      */
-    static Map<String, Object> calc(String arguments) throws Exception {
-        //TODO: Parse arguments and extract values.
+    static Map<String, Object> calc(ParseResult result) throws Exception {
+        if (result.command() == null) {
+            throw new ParseException("Missing Command -> expected one of add, div, sqrt");
+        }
+        return result.command().values();
+    }
+
+    private static CompiledParser calcParser() {
         ArgumentParser argparse = new ArgumentParser("Calculator", "calc", "Performs add, div, and sqrt.");
 
         Command addCommand = new Command("Addition", "add");
-        addCommand.addArgument(new Argument.Builder<>("left", Integer.class)
+        addCommand.addArgument(new Argument.Builder<>("left", int.class)
                 .required(Boolean.TRUE)
                 .build());
-        addCommand.addArgument(new Argument.Builder<>("right", Integer.class)
+        addCommand.addArgument(new Argument.Builder<>("right", int.class)
                 .required(Boolean.TRUE)
                 .build());
+        addCommand.setHandler(ParseResult::values);
         argparse.addCommand(addCommand);
 
         Command divCommand = new Command("Division", "div");
-        divCommand.addArgument(new Argument.Builder<>("numerator", Double.class)
+        divCommand.addArgument(new Argument.Builder<>("numerator", double.class)
                 .required(Boolean.FALSE)
                 .build());
-        divCommand.addArgument(new Argument.Builder<>("denominator", Double.class)
+        divCommand.addArgument(new Argument.Builder<>("denominator", double.class)
                 .required(Boolean.TRUE)
                 .build());
+        divCommand.setHandler(ParseResult::values);
         argparse.addCommand(divCommand);
 
         Command sqrtCommand = new Command("Square Root", "sqrt");
-        ValidationFunction<Integer> nonNegativeValidator = value -> value >= 0;
-        sqrtCommand.addArgument(new Argument.Builder<>("number", Integer.class)
+        ValidationFunction.OfInt nonNegativeValidator = value -> value >= 0;
+        sqrtCommand.addArgument(new Argument.Builder<>("number", int.class)
                 .required(Boolean.TRUE)
-                .validationFunction(nonNegativeValidator)
+                .intValidationFunction(nonNegativeValidator)
                 .build());
+        sqrtCommand.setHandler(ParseResult::values);
         argparse.addCommand(sqrtCommand);
-        argparse.parseArgs(arguments);
-
-        if(arguments.contains("div"))
-            return argparse.getParsedCommandArguments("div");
-        else if (arguments.contains("sqrt")) {
-            return argparse.getParsedCommandArguments("sqrt");
-        } else if (arguments.contains("add"))
-            return argparse.getParsedCommandArguments("add");
-        else {
-            throw new Exception();
-        }
+        //The sub-commands' handlers take precedence, so this only runs when no sub-command is given.
+        argparse.setHandler(Scenarios::calc);
+        return argparse.compile();
     }
 
     /**
@@ -143,16 +178,19 @@ public class Scenarios {
      *     - Note: Consider this a type that CANNOT be supported by your library
      *       out of the box and requires a custom type to be defined.
      */
-    static Map<String, Object> date(String arguments) throws Exception {
-        //TODO: Parse arguments and extract values.
+    static Map<String, Object> date(ParseResult result) {
+        return result.values();
+    }
+
+    private static CompiledParser dateParser() {
         ArgumentParser argparse = new ArgumentParser("Calendar", "date", "Performs String to Date Conversion");
         argparse.addArgument(new Argument.Builder<>("date", LocalDate.class)
                 .required(Boolean.TRUE)
-                .customTypeConversionMethod("parse")
+                .converter((Converter.Slice<LocalDate>) Converters::parseLocalDate)
+                .cacheConversions(1024)
                 .build());
-        System.out.println(arguments);
-        argparse.parseArgs(arguments);
-        return argparse.getParsedArguments();
+        argparse.setHandler(Scenarios::date);
+        return argparse.compile();
     }
 
     //TODO: Add your own scenarios based on your software design writeup. You
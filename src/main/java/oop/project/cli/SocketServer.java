@@ -0,0 +1,121 @@
+package oop.project.cli;
+
+import java.io.*;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+
+/**
+ * Serves the scenarios over a Unix domain socket, so a client can parse lines without starting a JVM per call.
+ * <p>
+ * Each connection is a stream of newline-terminated lines, answered with one result line per request line in the
+ * format of {@link Main}'s bulk mode. Every connection runs on its own virtual thread, and all connections share
+ * the compiled parsers of {@link Scenarios}. A connection handles its lines one after another, so a client may
+ * send many lines without waiting and still receives the answers in order. Answers are buffered and flushed
+ * whenever the server has no further request of that client at hand, so pipelined requests are answered in
+ * batches.
+ */
+final class SocketServer implements Closeable {
+    private static final int CLIENT_BUFFER = 1 << 13;
+
+    private final Path path;
+    private final ServerSocketChannel server;
+
+    private SocketServer(Path path, ServerSocketChannel server) {
+        this.path = path;
+        this.server = server;
+    }
+
+    /**
+     * Binds a server to the socket file. A socket file left behind by an earlier server is replaced.
+     *
+     * @param path The path of the socket file.
+     * @return The bound server, which accepts connections once {@link #serve()} is called.
+     * @throws IOException If the path exists and is not a socket, or the socket cannot be bound.
+     */
+    static SocketServer bind(Path path) throws IOException {
+        if (Files.exists(path, LinkOption.NOFOLLOW_LINKS)) {
+            if (!Files.readAttributes(path, BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS).isOther()) {
+                throw new IOException("Cannot bind to '" + path + "': the file exists and is not a socket.");
+            }
+            Files.delete(path);
+        }
+        ServerSocketChannel server = ServerSocketChannel.open(StandardProtocolFamily.UNIX);
+        try {
+            server.bind(UnixDomainSocketAddress.of(path));
+        } catch (IOException e) {
+            server.close();
+            throw e;
+        }
+        return new SocketServer(path, server);
+    }
+
+    /**
+     * Accepts connections until the server is closed, starting a virtual thread for each.
+     *
+     * @throws IOException If accepting a connection fails for a reason other than the server being closed.
+     */
+    void serve() throws IOException {
+        Thread.Builder clients = Thread.ofVirtual().name("cli-client-", 0);
+        while (true) {
+            SocketChannel client;
+            try {
+                client = server.accept();
+            } catch (ClosedChannelException e) {
+                return;
+            }
+            clients.start(() -> handle(client));
+        }
+    }
+
+    /**
+     * Answers every line of one connection, in order, until the client closes its side.
+     */
+    private static void handle(SocketChannel client) {
+        try (client; Writer out = new BufferedWriter(Channels.newWriter(client, StandardCharsets.UTF_8),
+                CLIENT_BUFFER)) {
+            // Flush the answers so far before blocking for more requests.
+            ReadableByteChannel requests = new ReadableByteChannel() {
+                @Override
+                public int read(ByteBuffer buffer) throws IOException {
+                    out.flush();
+                    return client.read(buffer);
+                }
+
+                @Override
+                public boolean isOpen() {
+                    return client.isOpen();
+                }
+
+                @Override
+                public void close() throws IOException {
+                    client.close();
+                }
+            };
+            LineReader.read(requests, CLIENT_BUFFER, line -> {
+                Main.respond(line, out);
+                out.append('\n');
+            });
+        } catch (IOException e) {
+            // The client went away; nothing is left to answer.
+        }
+    }
+
+    /**
+     * Stops accepting connections and removes the socket file. Connections already accepted are answered until
+     * their clients close them.
+     *
+     * @throws IOException If the socket file cannot be removed.
+     */
+    @Override
+    public void close() throws IOException {
+        server.close();
+        Files.deleteIfExists(path);
+    }
+}
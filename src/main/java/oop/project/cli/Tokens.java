@@ -0,0 +1,386 @@
+package oop.project.cli;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * The tokens of one input line, stored as offsets into the line rather than as separate strings.
+ * <p>
+ * Tokens are separated by whitespace. Text inside double quotes keeps its whitespace and may escape {@code \"} and
+ * {@code \\}; text inside single quotes is taken literally; outside of quotes a backslash escapes the next
+ * character. A token that is a plain word, or a single quoted section without escapes, is a slice of the input
+ * line. Only tokens that need unescaping or join several quoted sections are copied into a new string.
+ * <p>
+ * Tokens can also be {@link #reset(CharSequence[], int, int) taken from an argument array}, such as the
+ * {@code args} of a {@code main} method, where every word is already one token and is used as it is.
+ * <p>
+ * A Tokens instance can be {@link #reset(CharSequence) reset} and reused for another line, so scanning a line does
+ * not allocate once the offset array has grown large enough. Instances are not thread-safe.
+ */
+public final class Tokens {
+
+    private static final ThreadLocal<Tokens> CACHE = ThreadLocal.withInitial(Tokens::new);
+
+    private CharSequence source;
+    private int[] bounds = new int[16];
+    // The text of each token that is not a slice of the source: an unescaped copy, or a word of an argument array
+    private CharSequence[] texts = null;
+    private int size = 0;
+    private boolean borrowed = false;
+
+    // Scanning state of the current token
+    private final StringBuilder builder = new StringBuilder();
+    private int runs;
+    private int firstStart;
+    private int firstEnd;
+    private boolean copied;
+
+    /* CONSTRUCTORS */
+
+    /**
+     * Constructs an empty Tokens instance, ready to be {@link #reset(CharSequence) reset} with a line.
+     */
+    public Tokens() {}
+
+    /**
+     * Tokenizes the input line into a new Tokens instance.
+     *
+     * @param input The line to tokenize.
+     * @return The tokens of the line.
+     * @throws CLIException If the line contains an unterminated quote.
+     */
+    public static Tokens of(CharSequence input) throws CLIException {
+        return new Tokens().reset(input);
+    }
+
+    /**
+     * Returns this thread's cached instance, or a new one if the cached instance is already in use further up
+     * the stack. The instance must be handed back with {@link #release()}. Used by compiled and generated parsers
+     * so that tokenizing a line does not allocate.
+     *
+     * @return An empty instance owned by the caller until it is released.
+     */
+    public static Tokens borrow() {
+        Tokens tokens = CACHE.get();
+        if (tokens.borrowed) {
+            return new Tokens();
+        }
+        tokens.borrowed = true;
+        return tokens;
+    }
+
+    /**
+     * Hands a borrowed instance back, dropping its reference to the last line.
+     */
+    public void release() {
+        source = null;
+        clearTexts();
+        size = 0;
+        borrowed = false;
+    }
+
+    /* TOKENIZING */
+
+    /**
+     * Discards the current tokens and scans the input line in a single pass.
+     *
+     * @param input The line to tokenize.
+     * @return This instance, holding the tokens of the line.
+     * @throws CLIException If the line contains an unterminated quote.
+     */
+    public Tokens reset(CharSequence input) throws CLIException {
+        int unterminated = scan(input);
+        if (unterminated >= 0) {
+            throw new ParseException("Unterminated quote at position " + unterminated);
+        }
+        return this;
+    }
+
+    /**
+     * Discards the current tokens and scans the input line like {@link #reset(CharSequence)}, but reports an
+     * unterminated quote through the return value instead of throwing.
+     *
+     * @return {@code -1} if the whole line was scanned, or the position of the token with the unterminated quote.
+     */
+    int scan(CharSequence input) {
+        clearTexts();
+        source = input;
+        size = 0;
+
+        int length = input.length();
+        int i = 0;
+        while (true) {
+            while (i < length && Character.isWhitespace(input.charAt(i))) {
+                i++;
+            }
+            if (i >= length) {
+                return -1;
+            }
+
+            int tokenStart = i;
+            int runStart = i;
+            runs = 0;
+            copied = false;
+            while (i < length) {
+                char c = input.charAt(i);
+                if (Character.isWhitespace(c)) {
+                    break;
+                } else if (c == '"' || c == '\'') {
+                    if (i > runStart) {
+                        appendRun(runStart, i);
+                    }
+                    int contentStart = ++i;
+                    while (i < length && input.charAt(i) != c) {
+                        if (c == '"' && input.charAt(i) == '\\' && i + 1 < length
+                                && (input.charAt(i + 1) == '"' || input.charAt(i + 1) == '\\')) {
+                            appendRun(contentStart, i);
+                            copy();
+                            contentStart = ++i;
+                        }
+                        i++;
+                    }
+                    if (i >= length) {
+                        return tokenStart;
+                    }
+                    appendRun(contentStart, i);
+                    runStart = ++i;
+                } else if (c == '\\' && i + 1 < length) {
+                    appendRun(runStart, i);
+                    copy();
+                    runStart = ++i;
+                    i++;
+                } else {
+                    i++;
+                }
+            }
+            if (i > runStart) {
+                appendRun(runStart, i);
+            }
+
+            if (copied) {
+                add(tokenStart, i, builder.toString());
+            } else {
+                add(firstStart, firstEnd, null);
+            }
+        }
+    }
+
+    /**
+     * Discards the current tokens and takes the words of an argument array as the tokens, without scanning,
+     * unescaping or copying them. The position of a token is where it would start if the words were joined with
+     * single spaces, so error messages point at the same column as for the equivalent line.
+     *
+     * @param words The array holding the words.
+     * @param offset The index of the first word to use.
+     * @param length The number of words to use.
+     * @return This instance, holding one token per word.
+     * @throws IndexOutOfBoundsException If the range lies outside the array.
+     */
+    public Tokens reset(CharSequence[] words, int offset, int length) {
+        Objects.checkFromIndexSize(offset, length, words.length);
+        clearTexts();
+        source = null;
+        size = 0;
+        int position = 0;
+        for (int i = offset; i < offset + length; i++) {
+            CharSequence word = words[i];
+            add(position, position + word.length(), word);
+            position += word.length() + 1;
+        }
+        return this;
+    }
+
+    /**
+     * Appends a run of literal characters to the token being scanned. The first run is only remembered as a
+     * slice; later runs force the token to be copied.
+     */
+    private void appendRun(int from, int to) {
+        if (runs++ == 0) {
+            firstStart = from;
+            firstEnd = to;
+        } else {
+            copy();
+            builder.append(source, from, to);
+        }
+    }
+
+    /**
+     * Switches the token being scanned from a slice to a copy, seeding the copy with the first run.
+     */
+    private void copy() {
+        if (!copied) {
+            builder.setLength(0);
+            if (runs > 0) {
+                builder.append(source, firstStart, firstEnd);
+            }
+            copied = true;
+        }
+    }
+
+    private void add(int start, int end, CharSequence copy) {
+        if (2 * size + 2 > bounds.length) {
+            bounds = Arrays.copyOf(bounds, bounds.length * 2);
+        }
+        bounds[2 * size] = start;
+        bounds[2 * size + 1] = end;
+        if (copy != null) {
+            if (texts == null) {
+                texts = new CharSequence[bounds.length / 2];
+            } else if (texts.length <= size) {
+                texts = Arrays.copyOf(texts, bounds.length / 2);
+            }
+            texts[size] = copy;
+        }
+        size++;
+    }
+
+    /* ACCESSORS */
+
+    /**
+     * Returns the number of tokens.
+     * @return The number of tokens in the line.
+     */
+    public int size() { return size; }
+
+    /**
+     * Returns the character sequence that holds the text of a token, between {@link #start(int)} and
+     * {@link #end(int)}. This is the input line itself unless the token had to be unescaped, or the word itself
+     * for tokens taken from an argument array.
+     *
+     * @param index The index of the token.
+     * @return The character sequence holding the token's text.
+     */
+    public CharSequence text(int index) {
+        CharSequence copy = copyOf(index);
+        return copy != null ? copy : source;
+    }
+
+    /**
+     * Returns the start of a token's text within {@link #text(int)}.
+     *
+     * @param index The index of the token.
+     * @return The inclusive start offset.
+     */
+    public int start(int index) {
+        checkIndex(index);
+        return copyOf(index) != null ? 0 : bounds[2 * index];
+    }
+
+    /**
+     * Returns the end of a token's text within {@link #text(int)}.
+     *
+     * @param index The index of the token.
+     * @return The exclusive end offset.
+     */
+    public int end(int index) {
+        checkIndex(index);
+        CharSequence copy = copyOf(index);
+        return copy != null ? copy.length() : bounds[2 * index + 1];
+    }
+
+    /**
+     * Returns the position of a token in the input line, for error messages.
+     *
+     * @param index The index of the token.
+     * @return The offset in the line where the token's text begins.
+     */
+    public int offset(int index) {
+        checkIndex(index);
+        return bounds[2 * index];
+    }
+
+    /**
+     * Returns the length of a token's text.
+     *
+     * @param index The index of the token.
+     * @return The number of characters in the token.
+     */
+    public int length(int index) {
+        return end(index) - start(index);
+    }
+
+    /**
+     * Returns whether a token's text is exactly the given string.
+     *
+     * @param index The index of the token.
+     * @param value The string to compare against.
+     * @return {@code true} if the token equals the string.
+     */
+    public boolean matches(int index, String value) {
+        return length(index) == value.length() && regionMatches(index, 0, value);
+    }
+
+    /**
+     * Returns whether a token's text begins with the given prefix.
+     *
+     * @param index The index of the token.
+     * @param prefix The prefix to compare against.
+     * @return {@code true} if the token begins with the prefix.
+     */
+    public boolean startsWith(int index, String prefix) {
+        return length(index) >= prefix.length() && regionMatches(index, 0, prefix);
+    }
+
+    /**
+     * Returns whether part of a token's text, starting {@code from} characters in, equals the given string.
+     *
+     * @param index The index of the token.
+     * @param from The offset within the token to start comparing at.
+     * @param value The string to compare against.
+     * @return {@code true} if the region equals the string.
+     */
+    boolean regionMatches(int index, int from, String value) {
+        CharSequence text = text(index);
+        int start = start(index) + from;
+        if (end(index) - start < value.length()) {
+            return false;
+        }
+        for (int i = 0; i < value.length(); i++) {
+            if (text.charAt(start + i) != value.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Copies a token's text into a new string.
+     *
+     * @param index The index of the token.
+     * @return The token's text.
+     */
+    public String toString(int index) {
+        checkIndex(index);
+        CharSequence copy = copyOf(index);
+        return copy != null ? copy.toString() : source.subSequence(bounds[2 * index], bounds[2 * index + 1]).toString();
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder msg = new StringBuilder("[");
+        for (int i = 0; i < size; i++) {
+            msg.append(i == 0 ? "" : ", ").append(toString(i));
+        }
+        return msg.append("]").toString();
+    }
+
+    /**
+     * Drops the texts of the current tokens. The array only grows when a token needs a text, so it may be shorter
+     * than the number of tokens.
+     */
+    private void clearTexts() {
+        if (texts != null) {
+            Arrays.fill(texts, 0, Math.min(size, texts.length), null);
+        }
+    }
+
+    private CharSequence copyOf(int index) {
+        return texts == null || index >= texts.length ? null : texts[index];
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Token index " + index + " out of bounds for " + size + " tokens.");
+        }
+    }
+}
@@ -6,4 +6,28 @@ package oop.project.cli;
  */
 public interface ValidationFunction<T> {
     boolean validate(T value);
+
+    /**
+     * A validation function for {@code int} arguments that receives the unboxed value.
+     */
+    @FunctionalInterface
+    interface OfInt {
+        boolean validate(int value);
+    }
+
+    /**
+     * A validation function for {@code long} arguments that receives the unboxed value.
+     */
+    @FunctionalInterface
+    interface OfLong {
+        boolean validate(long value);
+    }
+
+    /**
+     * A validation function for {@code double} arguments that receives the unboxed value.
+     */
+    @FunctionalInterface
+    interface OfDouble {
+        boolean validate(double value);
+    }
 }
@@ -0,0 +1,36 @@
+package oop.project.cli.annotations;
+
+import java.lang.annotation.*;
+
+/**
+ * Marks a record, or a sealed interface whose permitted records are sub-commands, as the root of a command line
+ * definition. The annotation processor in the {@code processor} module generates a class named after the type
+ * with a {@code Parser} suffix, such as {@code AddParser} for {@code Add}, in the same package.
+ * <p>
+ * The generated class parses a line into the record with straight-line code: no reflection, no maps, and no
+ * runtime setup beyond looking up converters for types that are not built in.
+ */
+@Documented
+@Retention(RetentionPolicy.SOURCE)
+@Target(ElementType.TYPE)
+public @interface Cli {
+    /**
+     * The identifier that must be the first token of the line, such as {@code calc}.
+     */
+    String identifier();
+
+    /**
+     * The display name of the parser. Defaults to the simple name of the type.
+     */
+    String name() default "";
+
+    /**
+     * A description of the parser.
+     */
+    String description() default "";
+
+    /**
+     * Whether exceptions thrown for rejected input record a stack trace.
+     */
+    boolean stackTraces() default true;
+}
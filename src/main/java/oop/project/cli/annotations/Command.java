@@ -0,0 +1,27 @@
+package oop.project.cli.annotations;
+
+import java.lang.annotation.*;
+
+/**
+ * Marks a record that is one of the permitted sub-commands of a sealed interface annotated with {@link Cli}.
+ * The token after the root identifier selects the sub-command by its identifier or one of its aliases.
+ */
+@Documented
+@Retention(RetentionPolicy.SOURCE)
+@Target(ElementType.TYPE)
+public @interface Command {
+    /**
+     * The identifier that selects this sub-command, such as {@code add}.
+     */
+    String identifier();
+
+    /**
+     * Alternative identifiers that select this sub-command.
+     */
+    String[] aliases() default {};
+
+    /**
+     * The display name of the sub-command. Defaults to the simple name of the record.
+     */
+    String name() default "";
+}
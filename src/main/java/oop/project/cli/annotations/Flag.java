@@ -0,0 +1,27 @@
+package oop.project.cli.annotations;
+
+import java.lang.annotation.*;
+
+/**
+ * Marks a record component that is only given as a flag, as {@code --name value} or {@code --name=value}.
+ */
+@Documented
+@Retention(RetentionPolicy.SOURCE)
+@Target({ElementType.RECORD_COMPONENT, ElementType.PARAMETER})
+public @interface Flag {
+    /**
+     * The name of the flag, without the leading {@code --}. Defaults to the name of the component.
+     */
+    String name() default "";
+
+    /**
+     * Whether the line must give this flag. Flags that are not given are left at {@code 0}, {@code false}
+     * or {@code null}.
+     */
+    boolean required() default false;
+
+    /**
+     * The help message of the component.
+     */
+    String help() default "";
+}
@@ -0,0 +1,13 @@
+package oop.project.cli.annotations;
+
+import java.lang.annotation.*;
+
+/**
+ * Declares that instances of a type cannot change once created, so a converted value may be shared between
+ * parse results. Required for an argument of the type to {@code cacheConversions}, unless the type is a JDK value
+ * type such as {@code String}, {@code BigDecimal} or {@code LocalDate}, or an enum.
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.TYPE)
+public @interface Immutable {}
@@ -0,0 +1,23 @@
+package oop.project.cli.annotations;
+
+import java.lang.annotation.*;
+
+/**
+ * Marks a record component that is filled by the next free positional token, in declaration order. It can also
+ * be given as a flag named after the component. Components without an annotation are positional and required.
+ */
+@Documented
+@Retention(RetentionPolicy.SOURCE)
+@Target({ElementType.RECORD_COMPONENT, ElementType.PARAMETER})
+public @interface Positional {
+    /**
+     * Whether the line must give a value for this component. Components that are not given are left at
+     * {@code 0}, {@code false} or {@code null}.
+     */
+    boolean required() default true;
+
+    /**
+     * The help message of the component.
+     */
+    String help() default "";
+}
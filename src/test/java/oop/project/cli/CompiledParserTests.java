@@ -0,0 +1,1316 @@
+package oop.project.cli;
+
+import oop.project.cli.annotations.Immutable;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.io.ByteArrayOutputStream;
+import java.lang.management.ManagementFactory;
+import java.math.BigDecimal;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+public class CompiledParserTests {
+
+    private static CompiledParser calc() {
+        ArgumentParser argparse = new ArgumentParser("Calculator", "calc");
+        Command addCommand = new Command("Addition", "add");
+        addCommand.addArgument(new Argument.Builder<>("left", Integer.class)
+                .required(Boolean.TRUE)
+                .build());
+        addCommand.addArgument(new Argument.Builder<>("right", Integer.class)
+                .required(Boolean.TRUE)
+                .build());
+        argparse.addCommand(addCommand);
+        return argparse.compile();
+    }
+
+    @Nested
+    class Compile {
+
+        @Test
+        public void testCommandPath() throws Exception {
+            ParseResult result = calc().parse("calc add 1 2");
+            Assertions.assertEquals(List.of("calc", "add"), result.commandPath());
+            Assertions.assertEquals(Map.of("left", 1, "right", 2), result.leaf().values());
+            Assertions.assertEquals(Map.of(), result.values());
+        }
+
+        @Test
+        public void testSnapshot() throws Exception {
+            ArgumentParser argparse = new ArgumentParser("Square Root", "sqrt");
+            argparse.addArgument(new Argument.Builder<>("number", Integer.class).build());
+            CompiledParser compiled = argparse.compile();
+            argparse.addArgument(new Argument.Builder<>("extra", Integer.class).build());
+            Assertions.assertEquals(Map.of("number", 4), compiled.parse("sqrt 4").values());
+        }
+
+        @Test
+        public void testSharedAcrossThreads() {
+            CompiledParser compiled = calc();
+            IntStream.range(0, 10_000).parallel().forEach(i -> {
+                try {
+                    ParseResult result = compiled.parse("calc add " + i + " " + -i);
+                    Assertions.assertEquals(Map.of("left", i, "right", -i), result.leaf().values());
+                } catch (CLIException e) {
+                    Assertions.fail(e);
+                }
+            });
+        }
+
+    }
+
+    @Nested
+    class Conversion {
+
+        @Test
+        public void testBuiltIn() throws Exception {
+            Argument<BigDecimal> argument = new Argument.Builder<>("amount", BigDecimal.class).build();
+            Assertions.assertEquals(new BigDecimal("1.50"), argument.validate("1.50"));
+        }
+
+        @Test
+        public void testCustomConverter() throws Exception {
+            Argument<Integer> argument = new Argument.Builder<>("hex", Integer.class)
+                    .converter(value -> Integer.parseInt(value, 0, value.length(), 16))
+                    .build();
+            Assertions.assertEquals(255, argument.validate("ff"));
+        }
+
+        @Test
+        @SuppressWarnings("deprecation")
+        public void testConversionMethod() throws Exception {
+            Argument<LocalDate> argument = new Argument.Builder<>("date", LocalDate.class)
+                    .customTypeConversionMethod("parse")
+                    .build();
+            Assertions.assertEquals(LocalDate.of(2024, 1, 1), argument.validate("2024-01-01"));
+            Assertions.assertThrows(ValidationCustomConversionException.class, () -> argument.validate("2024"));
+        }
+
+        @Test
+        public void testIntegersMatchJdk() {
+            List<String> inputs = new ArrayList<>(List.of("0", "-0", "+7", "2147483647", "-2147483648", "2147483648",
+                    "-2147483649", "9223372036854775807", "-9223372036854775808", "9223372036854775808",
+                    "000000000000000000000000042", "\u0661\u0662", "", "-", "+", "1_000", " 1", "1.0", "0x10"));
+            Random random = new Random(42);
+            for (int i = 0; i < 10_000; i++) {
+                inputs.add(Long.toString(random.nextLong() >> random.nextInt(64)));
+            }
+            for (String input : inputs) {
+                String line = "<" + input + ">";
+                int end = line.length() - 1;
+                Assertions.assertEquals(jdk(() -> Integer.parseInt(input)), jdk(() -> Converters.parseInt(line, 1, end)), input);
+                Assertions.assertEquals(jdk(() -> Long.parseLong(input)), jdk(() -> Converters.parseLong(line, 1, end)), input);
+                Assertions.assertEquals(Converters.tryParseInt(line, 1, end) != Converters.NOT_AN_INT,
+                        jdk(() -> Integer.parseInt(input)) instanceof Integer, input);
+            }
+        }
+
+        @Test
+        public void testDoublesMatchJdk() {
+            List<String> inputs = new ArrayList<>(List.of("0", "-0", "-0.0", "+.5", "5.", "1.e5", "1e22", "1e23",
+                    "9007199254740993", "123456789012345678", "1234567890123456789", "0.1", "-1.5E-7", "3e-22",
+                    "3e-23", "1e0005", "NaN", "-Infinity", "0x1.8p1", " 2.5 ", "2.5d", "1f", ".", "e5", "1e", "1e+",
+                    "1..2", "--1", "", "1,5"));
+            Random random = new Random(7);
+            for (int i = 0; i < 10_000; i++) {
+                String digits = Long.toString(random.nextLong() >>> random.nextInt(64));
+                int point = random.nextInt(digits.length() + 1);
+                String mantissa = digits.substring(0, point) + "." + digits.substring(point);
+                inputs.add((random.nextBoolean() ? "-" : "") + mantissa + "e" + (random.nextInt(60) - 30));
+                inputs.add(Double.toString(random.nextDouble() * Math.pow(10, random.nextInt(40) - 20)));
+            }
+            for (String input : inputs) {
+                String line = "<" + input + ">";
+                Object expected = jdk(() -> Double.doubleToRawLongBits(Double.parseDouble(input)));
+                Object actual = jdk(() -> Double.doubleToRawLongBits(Converters.parseDouble(line, 1, line.length() - 1)));
+                Assertions.assertEquals(expected, actual, input);
+            }
+        }
+
+        @Test
+        public void testDatesMatchJdk() throws Exception {
+            List<String> inputs = new ArrayList<>(List.of("2024-02-29", "2023-02-29", "2000-02-29", "1900-02-29",
+                    "0000-01-01", "9999-12-31", "+10000-01-01", "2024-13-01", "2024-00-10", "2024-04-31", "2024-4-01",
+                    "2024/04/01", "２０２４-01-01", "2024-01-01T00:00", ""));
+            for (LocalDate date = LocalDate.of(1999, 12, 1); date.getYear() < 2001; date = date.plusDays(1)) {
+                inputs.add(date.toString());
+            }
+            for (String input : inputs) {
+                String line = "<" + input + ">";
+                Assertions.assertEquals(jdk(() -> LocalDate.parse(input)), jdk(() -> Converters.parseLocalDate(line, 1, line.length() - 1)), input);
+            }
+            Argument<LocalDate> argument = new Argument.Builder<>("date", LocalDate.class).build();
+            Assertions.assertEquals(LocalDate.of(2024, 2, 29), argument.validate("2024-02-29"));
+            Assertions.assertThrows(ValidationDefaultConversionException.class, () -> argument.validate("2023-02-29"));
+        }
+
+        /**
+         * Returns the value computed, or the class of the exception thrown.
+         */
+        private static Object jdk(Callable<?> call) {
+            try {
+                return call.call();
+            } catch (Exception e) {
+                return e.getClass();
+            }
+        }
+
+        @Test
+        public void testUnsupportedType() {
+            Assertions.assertThrows(IllegalArgumentException.class,
+                    () -> new Argument.Builder<>("list", List.class).build());
+        }
+
+    }
+
+    @Nested
+    class Primitives {
+
+        @Test
+        public void testUnboxedAccess() throws Exception {
+            ArgumentParser argparse = new ArgumentParser("Mixed", "mixed");
+            argparse.addArgument(new Argument.Builder<>("count", int.class).build());
+            argparse.addArgument(new Argument.Builder<>("total", long.class).build());
+            argparse.addArgument(new Argument.Builder<>("ratio", double.class).build());
+            argparse.addArgument(new Argument.Builder<>("verbose", boolean.class).build());
+            ParseResult result = argparse.compile().parse("mixed 3 9000000000 0.5 true");
+            Assertions.assertEquals(3, result.getInt("count"));
+            Assertions.assertEquals(9_000_000_000L, result.getLong("total"));
+            Assertions.assertEquals(0.5, result.getDouble("ratio"));
+            Assertions.assertTrue(result.getBoolean("verbose"));
+            Assertions.assertEquals(Map.of("count", 3, "total", 9_000_000_000L, "ratio", 0.5, "verbose", true),
+                    result.values());
+            Assertions.assertThrows(IllegalArgumentException.class, () -> result.getLong("count"));
+        }
+
+        @Test
+        public void testPrimitiveValidation() {
+            Argument<Double> argument = new Argument.Builder<>("ratio", double.class)
+                    .doubleValidationFunction(value -> value <= 1.0)
+                    .build();
+            Assertions.assertThrows(ValidationFunctionException.class, () -> argument.validateDouble("1.5", 0, 3));
+            Assertions.assertThrows(IllegalArgumentException.class,
+                    () -> new Argument.Builder<>("count", int.class).longValidationFunction(value -> true).build());
+        }
+
+    }
+
+    @Nested
+    class Dispatch {
+
+        private static CompiledParser tool() {
+            ArgumentParser argparse = new ArgumentParser("Tool", "tool");
+            for (String identifier : List.of("status", "stash", "start", "remove")) {
+                argparse.addCommand(new Command(identifier, identifier));
+            }
+            Command list = new Command("List", "list");
+            list.addAlias("ls");
+            argparse.addCommand(list);
+            return argparse.compile();
+        }
+
+        @Test
+        public void testAlias() throws Exception {
+            Assertions.assertEquals(List.of("tool", "list"), tool().parse("tool ls").commandPath());
+        }
+
+        @Test
+        public void testUniquePrefix() throws Exception {
+            Assertions.assertEquals(List.of("tool", "remove"), tool().parse("tool rem").commandPath());
+            Assertions.assertEquals(List.of("tool", "stash"), tool().parse("tool stas").commandPath());
+        }
+
+        @Test
+        public void testAmbiguousPrefix() {
+            ParseException e = Assertions.assertThrows(ParseException.class, () -> tool().parse("tool sta"));
+            Assertions.assertTrue(e.getMessage().contains("start, stash, status"), e.getMessage());
+        }
+
+        @Test
+        public void testDuplicateAlias() {
+            ArgumentParser argparse = new ArgumentParser("Tool", "tool");
+            Command list = new Command("List", "list");
+            list.addAlias("ls");
+            argparse.addCommand(list);
+            argparse.addCommand(new Command("Ls", "ls"));
+            Assertions.assertThrows(IllegalArgumentException.class, argparse::compile);
+        }
+
+    }
+
+    @Nested
+    class Batch {
+
+        @Test
+        public void testOrderAndFailures() {
+            List<String> lines = IntStream.range(0, 5_000)
+                    .mapToObj(i -> i % 7 == 0 ? "calc add " + i : "calc add " + i + " 1")
+                    .toList();
+            List<ParseOutcome> outcomes = calc().parseAll(lines);
+            Assertions.assertEquals(lines.size(), outcomes.size());
+            for (int i = 0; i < lines.size(); i++) {
+                if (i % 7 == 0) {
+                    Assertions.assertInstanceOf(ParseOutcome.Failure.class, outcomes.get(i));
+                } else {
+                    ParseResult result = ((ParseOutcome.Success) outcomes.get(i)).result();
+                    Assertions.assertEquals(i, result.leaf().get("left"));
+                }
+            }
+        }
+
+        @Test
+        public void testVirtualThreads() throws Exception {
+            List<String> lines = List.of("calc add 1 2", "calc add x 2", "calc add 3 4");
+            try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+                List<ParseOutcome> outcomes = calc().parseAll(lines, executor, 1);
+                Assertions.assertEquals(List.of(true, false, true),
+                        outcomes.stream().map(ParseOutcome::isSuccess).toList());
+                Assertions.assertEquals(3, outcomes.get(2).orElseThrow().leaf().get("left"));
+                Assertions.assertThrows(ValidationException.class, outcomes.get(1)::orElseThrow);
+            }
+        }
+
+        @Test
+        public void testStream() {
+            List<Boolean> successes = calc().parseAll(Stream.of("calc add 1 2", "calc nope").parallel())
+                    .map(ParseOutcome::isSuccess)
+                    .toList();
+            Assertions.assertEquals(List.of(true, false), successes);
+        }
+
+    }
+
+    @Nested
+    class Help {
+
+        @Test
+        public void testRendered() {
+            Assertions.assertEquals("""
+                    Calculator
+
+                    Usage: calc [ARGUMENTS] [COMMAND]
+
+                    Commands:
+                      add         Addition
+
+                    Optional Arguments:
+                      -h, --help  MSG: Show the help message.
+                    """, calc().help());
+        }
+
+        @Test
+        public void testCachedUntilChanged() {
+            ArgumentParser argparse = new ArgumentParser("Calculator", "calc");
+            Command addCommand = new Command("Addition", "add");
+            argparse.addCommand(addCommand);
+            CompiledParser first = argparse.compile();
+            Assertions.assertSame(first, argparse.compile());
+            Assertions.assertSame(first.help(), argparse.compile().help());
+
+            addCommand.addArgument(new Argument.Builder<>("left", Integer.class).build());
+            CompiledParser second = argparse.compile();
+            Assertions.assertNotSame(first, second);
+            Assertions.assertTrue(second.commands().getFirst().help().contains("left"));
+        }
+
+        @Test
+        public void testWrapped() {
+            ArgumentParser argparse = new ArgumentParser("Tool", "tool");
+            argparse.addArgument(new Argument.Builder<>("path", String.class)
+                    .helpMsg("The file to read, which may be relative to the working directory")
+                    .build());
+            String help = argparse.compile().help(40);
+            for (String line : help.split("\n")) {
+                Assertions.assertTrue(line.length() <= 40, line);
+            }
+            Assertions.assertTrue(help.contains("\n              "));
+            Assertions.assertEquals(argparse.compile().help().replaceAll("\\s+", " "), help.replaceAll("\\s+", " "));
+        }
+
+        @Test
+        public void testChannel() throws Exception {
+            var bytes = new ByteArrayOutputStream();
+            calc().writeHelp(Channels.newChannel(bytes));
+            Assertions.assertEquals(calc().help(), bytes.toString(StandardCharsets.UTF_8));
+        }
+
+    }
+
+    @Nested
+    class TryParse {
+
+        private static ParseError error(CompiledParser parser, String line) {
+            ParseOutcome outcome = parser.tryParse(line);
+            return Assertions.assertInstanceOf(ParseOutcome.Failure.class, outcome).error();
+        }
+
+        @Test
+        public void testSuccess() throws Exception {
+            Assertions.assertEquals(1, calc().tryParse("calc add 1 2").orElseThrow().leaf().get("left"));
+        }
+
+        @Test
+        public void testErrors() {
+            Assertions.assertEquals(new ParseError(ParseError.Code.INCORRECT_IDENTIFIER, null, 0, 0,
+                    "Incorrect Identifier -> expected 'calc'"), error(calc(), "cal add 1 2"));
+            Assertions.assertEquals(new ParseError(ParseError.Code.UNTERMINATED_QUOTE, null, 2, 9,
+                    "Unterminated quote at position 9"), error(calc(), "calc add \"1 2"));
+            Assertions.assertEquals(new ParseError(ParseError.Code.UNKNOWN_ARGUMENT, null, 2, 9,
+                    "Argument does not exist -> middle"), error(calc(), "calc add --middle 1"));
+            Assertions.assertEquals(new ParseError(ParseError.Code.MISSING_VALUE, "left", 2, 9,
+                    "Missing Value -> left"), error(calc(), "calc add --left"));
+            Assertions.assertEquals(new ParseError(ParseError.Code.UNEXPECTED_ARGUMENT, null, 4, 13,
+                    "Unexpected Argument -> 3"), error(calc(), "calc add 1 2 3"));
+            Assertions.assertEquals(new ParseError(ParseError.Code.MISSING_REQUIRED_ARGUMENT, "right", -1, -1,
+                    "Missing Required Argument -> right"), error(calc(), "calc add 1"));
+            Assertions.assertEquals(new ParseError(ParseError.Code.CONVERSION_FAILED, "right", 3, 11,
+                    "class java.lang.Integer"), error(calc(), "calc add 1 --right=x"));
+        }
+
+        @Test
+        public void testPrimitiveErrors() {
+            ArgumentParser argparse = new ArgumentParser("Tool", "tool");
+            argparse.addArgument(new Argument.Builder<>("count", int.class)
+                    .intValidationFunction(value -> value >= 0)
+                    .build());
+            argparse.addArgument(new Argument.Builder<>("total", long.class).build());
+            CompiledParser parser = argparse.compile();
+            Assertions.assertEquals(ParseError.Code.VALIDATION_FAILED, error(parser, "tool -1").code());
+            Assertions.assertEquals(ParseError.Code.CONVERSION_FAILED, error(parser, "tool 2147483648").code());
+            Assertions.assertEquals(ParseError.Code.CONVERSION_FAILED, error(parser, "tool 1 +").code());
+            Assertions.assertEquals(ParseError.Code.CONVERSION_FAILED,
+                    error(parser, "tool 1 9223372036854775808").code());
+            Assertions.assertTrue(parser.tryParse("tool 2147483647 -9223372036854775808").isSuccess());
+        }
+
+        @Test
+        public void testStackless() {
+            ArgumentParser argparse = new ArgumentParser("Calculator", "calc");
+            argparse.addArgument(new Argument.Builder<>("number", int.class).build());
+            CLIException withTrace = Assertions.assertThrows(CLIException.class,
+                    () -> argparse.compile().parse("calc x"));
+            Assertions.assertNotEquals(0, withTrace.getStackTrace().length);
+
+            argparse.setStackTraces(false);
+            CLIException withoutTrace = Assertions.assertThrows(ValidationDefaultConversionException.class,
+                    () -> argparse.compile().parse("calc x"));
+            Assertions.assertEquals(0, withoutTrace.getStackTrace().length);
+            Assertions.assertEquals(withTrace.getMessage(), withoutTrace.getMessage());
+        }
+
+        @Test
+        public void testStacklessOrElseThrow() {
+            ArgumentParser argparse = new ArgumentParser("Calculator", "calc");
+            argparse.addArgument(new Argument.Builder<>("number", int.class).build());
+            CLIException withTrace = Assertions.assertThrows(CLIException.class,
+                    () -> argparse.compile().tryParse("calc x").orElseThrow());
+            Assertions.assertNotEquals(0, withTrace.getStackTrace().length);
+
+            argparse.setStackTraces(false);
+            CompiledParser parser = argparse.compile();
+            for (ParseOutcome outcome : List.of(parser.tryParse("calc x"), parser.tryParse("nope"),
+                    parser.parseAll(List.of("calc 1 2")).get(0))) {
+                CLIException withoutTrace = Assertions.assertThrows(CLIException.class, outcome::orElseThrow);
+                Assertions.assertEquals(0, withoutTrace.getStackTrace().length);
+            }
+        }
+
+    }
+
+    @Nested
+    class Registry {
+
+        @Test
+        public void testDispatch() throws Exception {
+            ParserRegistry registry = new ParserRegistry(List.of(calc()));
+            Assertions.assertEquals(List.of("calc", "add"), registry.parse("calc add 1 2").commandPath());
+            Assertions.assertSame(registry.get("calc"), registry.find(Tokens.of("calc add")));
+            Assertions.assertNull(registry.get("cal"));
+        }
+
+        @Test
+        public void testUnknownProgram() {
+            ParserRegistry registry = new ParserRegistry(List.of(calc()));
+            ParseError error = ((ParseOutcome.Failure) registry.tryParse("  tool add 1 2")).error();
+            Assertions.assertEquals(new ParseError(ParseError.Code.UNKNOWN_COMMAND, null, 0, 2,
+                    "Unknown Command -> 'tool'"), error);
+            Assertions.assertThrows(ParseException.class, () -> registry.parse(""));
+        }
+
+        @Test
+        public void testRegisterAtRuntime() throws Exception {
+            ParserRegistry registry = new ParserRegistry();
+            registry.register(calc());
+            ArgumentParser tool = new ArgumentParser("Tool", "tool");
+            tool.addArgument(new Argument.Builder<>("path", String.class).build());
+            registry.register(tool.compile());
+            Assertions.assertEquals("a.txt", registry.parse("tool a.txt").get("path"));
+            Assertions.assertEquals(List.of("calc", "tool"),
+                    registry.parsers().stream().map(CompiledParser::identifier).toList());
+            Assertions.assertThrows(IllegalArgumentException.class, () -> registry.register(calc()));
+        }
+
+    }
+
+    @Nested
+    class Keys {
+
+        @Test
+        public void testTypedAccess() throws Exception {
+            ArgumentParser argparse = new ArgumentParser("Mixed", "mixed");
+            ArgumentKey<Integer> count = argparse.addArgument(new Argument.Builder<>("count", int.class).build());
+            ArgumentKey<String> label = argparse.addArgument(new Argument.Builder<>("label", String.class).build());
+            ParseResult result = argparse.compile().parse("mixed 3 --label x");
+            int value = result.get(count);
+            String text = result.get(label);
+            Assertions.assertEquals(3, value);
+            Assertions.assertEquals(3, result.getInt(count));
+            Assertions.assertEquals("x", text);
+            Assertions.assertTrue(result.has(label));
+            Assertions.assertFalse(argparse.compile().parse("mixed 3").has(label));
+        }
+
+        @Test
+        public void testForeignKey() throws Exception {
+            ArgumentParser other = new ArgumentParser("Other", "other");
+            ArgumentKey<Integer> foreign = other.addArgument(new Argument.Builder<>("count", int.class).build());
+            ArgumentParser argparse = new ArgumentParser("Mixed", "mixed");
+            argparse.addArgument(new Argument.Builder<>("count", int.class).build());
+            ParseResult result = argparse.compile().parse("mixed 3");
+            Assertions.assertThrows(IllegalArgumentException.class, () -> result.get(foreign));
+        }
+
+        @Test
+        public void testCachedValues() throws Exception {
+            ArgumentParser argparse = new ArgumentParser("Mixed", "mixed");
+            ArgumentKey<Integer> count = argparse.addArgument(new Argument.Builder<>("count", int.class).build());
+            argparse.parseArgs("mixed 3");
+            Assertions.assertEquals(3, argparse.getParsedArgument(count));
+            Assertions.assertEquals(Map.of("count", 3), argparse.getParsedArguments());
+            Assertions.assertSame(argparse.getParsedArguments(), argparse.getParsedArguments());
+        }
+
+    }
+
+    @Nested
+    class Metrics {
+
+        private ArgumentParser calculator(ParseMetrics metrics) {
+            ArgumentParser argparse = new ArgumentParser("Calculator", "calc");
+            Command addCommand = new Command("Addition", "add");
+            addCommand.addArgument(new Argument.Builder<>("left", int.class).required(Boolean.TRUE).build());
+            addCommand.addArgument(new Argument.Builder<>("right", int.class).required(Boolean.TRUE).build());
+            argparse.addCommand(addCommand);
+            argparse.setMetrics(metrics);
+            return argparse;
+        }
+
+        @Test
+        public void testCounters() {
+            ParseMetrics metrics = new ParseMetrics("calc");
+            CompiledParser parser = calculator(metrics).compile();
+            parser.tryParse("calc add 1 2");
+            parser.tryParse("calc add 3 4");
+            parser.tryParse("calc add 1 x");
+            parser.tryParse("calc add --help");
+            ParseMetrics.Snapshot snapshot = metrics.snapshot();
+            Assertions.assertEquals(4, snapshot.parses());
+            Assertions.assertEquals(1, snapshot.failures());
+            Assertions.assertEquals(1, snapshot.helpRequests());
+            Assertions.assertEquals(Map.of(ParseError.Code.CONVERSION_FAILED, 1L), snapshot.errors());
+            Assertions.assertEquals(3, snapshot.commands().get("calc add").count());
+            Assertions.assertEquals(4, snapshot.phases().get(ParseMetrics.Phase.TOTAL).count());
+            metrics.reset();
+            Assertions.assertEquals(0, metrics.snapshot().parses());
+        }
+
+        @Test
+        public void testDisabled() {
+            ArgumentParser argparse = calculator(new ParseMetrics("calc"));
+            argparse.setMetrics(null);
+            Assertions.assertNull(argparse.compile().metrics());
+        }
+
+        @Test
+        public void testHistogram() {
+            LatencyHistogram histogram = new LatencyHistogram();
+            for (int i = 0; i < 99; i++) {
+                histogram.record(100);
+            }
+            histogram.record(10_000);
+            LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+            Assertions.assertEquals(100, snapshot.count());
+            Assertions.assertEquals(10_000, snapshot.maxNanos());
+            Assertions.assertEquals(127, snapshot.percentileNanos(0.5));
+            Assertions.assertEquals(10_000, snapshot.percentileNanos(1.0));
+        }
+
+        @Test
+        public void testMBean() throws Exception {
+            ParseMetrics metrics = new ParseMetrics("calc-jmx");
+            calculator(metrics).compile().tryParse("calc add 1 2");
+            ObjectName name = metrics.registerMBean();
+            try {
+                MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+                Assertions.assertEquals(1L, server.getAttribute(name, "ParseCount"));
+                Assertions.assertThrows(IllegalStateException.class, metrics::registerMBean);
+            } finally {
+                metrics.unregisterMBean();
+            }
+        }
+
+    }
+
+    @Nested
+    class Async {
+
+        private static boolean await(CountDownLatch latch) {
+            try {
+                return latch.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                return false;
+            }
+        }
+
+        @Test
+        public void testConcurrent() throws Exception {
+            CountDownLatch bothRunning = new CountDownLatch(2);
+            ArgumentParser argparse = new ArgumentParser("Check", "check");
+            for (String name : List.of("first", "second")) {
+                argparse.addArgument(new Argument.Builder<>(name, String.class)
+                        .validationFunction(value -> {
+                            bothRunning.countDown();
+                            return await(bothRunning);
+                        })
+                        .asyncValidation(Duration.ofSeconds(10))
+                        .build());
+            }
+            ParseResult result = argparse.compile().parse("check a b");
+            Assertions.assertEquals(Map.of("first", "a", "second", "b"), result.values());
+        }
+
+        @Test
+        public void testTimeout() {
+            CountDownLatch interrupted = new CountDownLatch(1);
+            ArgumentParser argparse = new ArgumentParser("Check", "check");
+            argparse.addArgument(new Argument.Builder<>("number", int.class)
+                    .intValidationFunction(value -> {
+                        if (!await(new CountDownLatch(1))) {
+                            interrupted.countDown();
+                        }
+                        return true;
+                    })
+                    .asyncValidation(Duration.ofMillis(50))
+                    .build());
+            ParseError error = ((ParseOutcome.Failure) argparse.compile().tryParse("check 4")).error();
+            Assertions.assertEquals(new ParseError(ParseError.Code.VALIDATION_TIMEOUT, "number", 1, 6, null), error);
+            Assertions.assertInstanceOf(ValidationTimeoutException.class, error.toException());
+            Assertions.assertTrue(await(interrupted));
+        }
+
+        @Test
+        public void testInterrupted() {
+            ArgumentParser argparse = new ArgumentParser("Check", "check");
+            argparse.addArgument(new Argument.Builder<>("first", String.class)
+                    .validationFunction(value -> true)
+                    .asyncValidation(Duration.ofSeconds(10))
+                    .build());
+            CompiledParser parser = argparse.compile();
+            Thread.currentThread().interrupt();
+            ParseOutcome outcome;
+            boolean stillInterrupted;
+            try {
+                outcome = parser.tryParse("check a");
+            } finally {
+                stillInterrupted = Thread.interrupted();
+            }
+            Assertions.assertTrue(stillInterrupted);
+            ParseError error = ((ParseOutcome.Failure) outcome).error();
+            Assertions.assertEquals(ParseError.Code.VALIDATION_INTERRUPTED, error.code());
+            Assertions.assertNull(error.argument());
+            Assertions.assertInstanceOf(ParseException.class, error.toException());
+            Assertions.assertTrue(parser.tryParse("check a").isSuccess());
+        }
+
+        @Test
+        public void testFailureCancelsOthers() {
+            CountDownLatch cancelled = new CountDownLatch(1);
+            ArgumentParser argparse = new ArgumentParser("Check", "check");
+            argparse.addArgument(new Argument.Builder<>("slow", String.class)
+                    .validationFunction(value -> {
+                        if (!await(new CountDownLatch(1))) {
+                            cancelled.countDown();
+                        }
+                        return true;
+                    })
+                    .asyncValidation(Duration.ofSeconds(10))
+                    .build());
+            argparse.addArgument(new Argument.Builder<>("fast", String.class)
+                    .validationFunction(value -> false)
+                    .asyncValidation(Duration.ofSeconds(10))
+                    .build());
+            Assertions.assertThrows(ValidationFunctionException.class, () -> argparse.compile().parse("check a b"));
+            Assertions.assertTrue(await(cancelled));
+        }
+
+        @Test
+        public void testInheritedFlagValidatedOnce() throws Exception {
+            AtomicInteger runs = new AtomicInteger();
+            ArgumentParser tool = new ArgumentParser("Tool", "tool");
+            tool.addArgument(new Argument.Builder<>("level", int.class)
+                    .intValidationFunction(value -> {
+                        runs.incrementAndGet();
+                        return value > 0;
+                    })
+                    .asyncValidation(Duration.ofSeconds(10))
+                    .build());
+            Command cluster = new Command("Cluster", "cluster");
+            Command drain = new Command("Drain", "drain");
+            drain.addArgument(new Argument.Builder<>("name", String.class).build());
+            cluster.addCommand(drain);
+            tool.addCommand(cluster);
+            CompiledParser parser = tool.compile();
+
+            ParseResult result = parser.parse("tool cluster drain n1 --level 5");
+            Assertions.assertEquals(Map.of("level", 5), result.values());
+            Assertions.assertEquals(1, runs.get());
+
+            ParseError error = ((ParseOutcome.Failure) parser.tryParse("tool cluster drain n1 --level=0")).error();
+            Assertions.assertEquals(new ParseError(ParseError.Code.VALIDATION_FAILED, "level", 4, 22, null), error);
+            Assertions.assertEquals(2, runs.get());
+
+            //Given before the sub-command, the flag is still validated once, asynchronously.
+            error = ((ParseOutcome.Failure) parser.tryParse("tool --level=0 cluster drain n1")).error();
+            Assertions.assertEquals(new ParseError(ParseError.Code.VALIDATION_FAILED, "level", 1, 5, null), error);
+            Assertions.assertEquals(3, runs.get());
+        }
+
+        @Test
+        public void testInvalidTimeout() {
+            Assertions.assertThrows(IllegalArgumentException.class,
+                    () -> new Argument.Builder<>("number", int.class).asyncValidation(Duration.ZERO));
+        }
+
+    }
+
+    @Nested
+    class Cache {
+
+        @Immutable
+        record Code(String value) {}
+
+        @Test
+        public void testHitsAndMisses() throws Exception {
+            ArgumentParser argparse = new ArgumentParser("Calendar", "date");
+            Argument<LocalDate> date = new Argument.Builder<>("date", LocalDate.class)
+                    .converter(LocalDate::parse)
+                    .cacheConversions(16)
+                    .build();
+            argparse.addArgument(date);
+            CompiledParser parser = argparse.compile();
+            LocalDate first = (LocalDate) parser.parse("date 2024-01-31").get("date");
+            Assertions.assertSame(first, parser.parse("date 2024-01-31").get("date"));
+            parser.parse("date 2024-02-01");
+            Assertions.assertInstanceOf(ParseOutcome.Failure.class, parser.tryParse("date 2024-13-01"));
+            Assertions.assertEquals(new Argument.CacheStats(16, 2, 1, 3, 0), date.cacheStats());
+        }
+
+        @Test
+        public void testEviction() throws Exception {
+            Argument<Code> code = new Argument.Builder<>("code", Code.class)
+                    .converter(value -> new Code(value.toString()))
+                    .cacheConversions(2)
+                    .build();
+            Code a = code.validate("a");
+            Code b = code.validate("b");
+            Assertions.assertSame(a, code.validate("a"));
+            code.validate("c");
+            Assertions.assertSame(a, code.validate("a"));
+            Assertions.assertNotSame(b, code.validate("b"));
+            Assertions.assertEquals(2, code.cacheStats().evictions());
+            Assertions.assertEquals(2, code.cacheStats().size());
+        }
+
+        @Test
+        public void testMutableTypeRejected() {
+            Assertions.assertThrows(IllegalArgumentException.class, () -> new Argument.Builder<>("text", StringBuilder.class)
+                    .converter(StringBuilder::new)
+                    .cacheConversions(16)
+                    .build());
+            Assertions.assertThrows(IllegalArgumentException.class,
+                    () -> new Argument.Builder<>("count", int.class).cacheConversions(16).build());
+            Assertions.assertNull(new Argument.Builder<>("count", int.class).build().cacheStats());
+        }
+
+    }
+
+    @Nested
+    class Complete {
+
+        enum Unit { METERS, MILES }
+
+        private CompiledParser tool() {
+            ArgumentParser argparse = new ArgumentParser("Tool", "tool");
+            Command convert = new Command("Convert", "convert");
+            convert.addAlias("cv");
+            convert.addArgument(new Argument.Builder<>("value", double.class).required(Boolean.TRUE).build());
+            convert.addArgument(new Argument.Builder<>("unit", Unit.class)
+                    .converter(value -> Unit.valueOf(value.toString()))
+                    .build());
+            convert.addArgument(new Argument.Builder<>("verbose", boolean.class).build());
+            argparse.addCommand(convert);
+            argparse.addCommand(new Command("Copy", "copy"));
+            return argparse.compile();
+        }
+
+        private List<String> complete(String line) {
+            return tool().complete(line, line.length()).candidates();
+        }
+
+        @Test
+        public void testCommands() {
+            Assertions.assertEquals(List.of("convert", "copy", "cv", "--help"), complete("tool "));
+            Assertions.assertEquals(List.of("convert", "copy"), complete("tool co"));
+            Assertions.assertEquals(new CompiledParser.Completions(5, 8, List.of("copy")), tool().complete("tool cop", 8));
+            Assertions.assertEquals(List.of("tool"), complete("to"));
+        }
+
+        @Test
+        public void testFlags() {
+            Assertions.assertEquals(List.of("--value", "--unit", "--verbose", "--help"), complete("tool convert -"));
+            Assertions.assertEquals(List.of("--value", "--verbose"), complete("tool convert --unit MILES --v"));
+            Assertions.assertEquals(List.of("--unit", "--verbose", "--help"), complete("tool cv 1.5 --"));
+        }
+
+        @Test
+        public void testValues() {
+            Assertions.assertEquals(List.of("MILES"), complete("tool convert --unit MI"));
+            Assertions.assertEquals(List.of("METERS", "MILES", "--unit", "--verbose", "--help"), complete("tool convert 1.5 "));
+            Assertions.assertEquals(new CompiledParser.Completions(23, 24, List.of("true")),
+                    tool().complete("tool convert --verbose=t", 24));
+            Assertions.assertEquals(List.of(), complete("tool convert \"x"));
+        }
+
+        @Test
+        public void testRegistry() {
+            ParserRegistry registry = new ParserRegistry(List.of(tool(), calc()));
+            Assertions.assertEquals(List.of("tool"), registry.complete("t", 1).candidates());
+            Assertions.assertEquals(List.of("convert", "copy"), registry.complete("tool co", 7).candidates());
+            registry.register(new ArgumentParser("Tar", "tar").compile());
+            Assertions.assertEquals(List.of("tar", "tool"), registry.complete("t", 1).candidates());
+            Assertions.assertEquals(List.of("calc", "tar", "tool"), registry.complete("", 0).candidates());
+            Assertions.assertEquals(List.of(), registry.complete("x", 1).candidates());
+        }
+
+    }
+
+    @Nested
+    class Handlers {
+
+        private CompiledParser handled() {
+            ArgumentParser argparse = new ArgumentParser("Calculator", "calc");
+            ArgumentKey<Integer> left = argparse.addArgument(new Argument.Builder<>("left", int.class).build());
+            argparse.setHandler(result -> result.has(left) ? "calc " + result.getInt(left) : "calc");
+            Command add = new Command("Addition", "add");
+            ArgumentKey<Integer> x = add.addArgument(new Argument.Builder<>("x", int.class).required(Boolean.TRUE).build());
+            ArgumentKey<Integer> y = add.addArgument(new Argument.Builder<>("y", int.class).required(Boolean.TRUE).build());
+            add.setHandler(result -> result.getInt(x) + result.getInt(y));
+            argparse.addCommand(add);
+            argparse.addCommand(new Command("Negate", "neg"));
+            return argparse.compile();
+        }
+
+        @Test
+        public void testMostSpecificHandler() throws Exception {
+            CompiledParser parser = handled();
+            Assertions.assertEquals(3, parser.execute("calc add 1 2"));
+            Assertions.assertEquals("calc 4", parser.execute("calc 4"));
+            //The sub-command has no handler of its own, so its parent's runs.
+            Assertions.assertEquals("calc", parser.execute("calc neg"));
+        }
+
+        @Test
+        public void testWithoutHandler() throws Exception {
+            Assertions.assertEquals(Map.of("left", 1, "right", 2), calc().execute("calc add 1 2"));
+        }
+
+        @Test
+        public void testSetHandlerRecompiles() throws Exception {
+            ArgumentParser argparse = new ArgumentParser("Tool", "tool");
+            CompiledParser before = argparse.compile();
+            argparse.setHandler(result -> "ran");
+            Assertions.assertNotSame(before, argparse.compile());
+            Assertions.assertNull(before.handler());
+            Assertions.assertEquals("ran", argparse.compile().execute("tool"));
+        }
+
+        @Test
+        public void testScenarioDispatch() throws Exception {
+            Assertions.assertEquals(Map.of("numerator", 1.0, "denominator", 2.0), Scenarios.dispatch("calc div --numerator 1 --denominator 2"));
+            Assertions.assertThrows(ParseException.class, () -> Scenarios.dispatch("calc"));
+        }
+
+        @Test
+        public void testPipeline() throws Exception {
+            ParserRegistry registry = new ParserRegistry(List.of(handled()));
+            try (ExecutionPipeline pipeline = ExecutionPipeline.virtualThreads(registry, 4)) {
+                List<CompletableFuture<Object>> futures = IntStream.range(0, 100)
+                        .mapToObj(i -> {
+                            try {
+                                return pipeline.submit("calc add " + i + " " + i);
+                            } catch (InterruptedException e) {
+                                throw new AssertionError(e);
+                            }
+                        })
+                        .toList();
+                for (int i = 0; i < futures.size(); i++) {
+                    Assertions.assertEquals(2 * i, futures.get(i).get(5, TimeUnit.SECONDS));
+                }
+                ExecutionException failure = Assertions.assertThrows(ExecutionException.class,
+                        () -> pipeline.submit("calc add 1").get());
+                Assertions.assertInstanceOf(CLIException.class, failure.getCause());
+                pipeline.close();
+                Assertions.assertEquals(0, pipeline.inFlight());
+                Assertions.assertEquals(100, pipeline.handlerLatency().get("calc add").count());
+            }
+        }
+
+        @Test
+        public void testBackpressure() throws Exception {
+            ArgumentParser argparse = new ArgumentParser("Wait", "wait");
+            CountDownLatch release = new CountDownLatch(1);
+            argparse.setHandler(result -> release.await(5, TimeUnit.SECONDS));
+            ParserRegistry registry = new ParserRegistry(List.of(argparse.compile()));
+            ExecutorService executor = Executors.newCachedThreadPool();
+            try (ExecutionPipeline pipeline = new ExecutionPipeline(registry, executor, 2)) {
+                CompletableFuture<Object> first = pipeline.submit("wait");
+                pipeline.submit("wait");
+                Assertions.assertEquals(2, pipeline.inFlight());
+                CompletableFuture<CompletableFuture<Object>> blocked = CompletableFuture.supplyAsync(() -> {
+                    try {
+                        return pipeline.submit("wait");
+                    } catch (InterruptedException e) {
+                        throw new AssertionError(e);
+                    }
+                });
+                Thread.sleep(50);
+                Assertions.assertFalse(blocked.isDone());
+                release.countDown();
+                Assertions.assertEquals(true, first.get(5, TimeUnit.SECONDS));
+                Assertions.assertEquals(true, blocked.get(5, TimeUnit.SECONDS).get(5, TimeUnit.SECONDS));
+            } finally {
+                executor.shutdown();
+            }
+        }
+
+    }
+
+    @Nested
+    class Nesting {
+
+        private ArgumentParser tool() {
+            ArgumentParser tool = new ArgumentParser("Tool", "tool");
+            tool.addArgument(new Argument.Builder<>("verbose", boolean.class).build());
+            Command cluster = new Command("Cluster", "cluster");
+            cluster.addArgument(new Argument.Builder<>("region", String.class).build());
+            Command node = new Command("Node", "node");
+            Command drain = new Command("Drain", "drain");
+            drain.addArgument(new Argument.Builder<>("name", String.class).required(Boolean.TRUE).build());
+            drain.addArgument(new Argument.Builder<>("force", boolean.class).build());
+            node.addCommand(drain);
+            node.addCommand(new Command("List", "list"));
+            cluster.addCommand(node);
+            tool.addCommand(cluster);
+            return tool;
+        }
+
+        @Test
+        public void testDeepPath() throws Exception {
+            ParseResult result = tool().compile().parse("tool cluster node drain n1 --force true");
+            Assertions.assertEquals(List.of("tool", "cluster", "node", "drain"), result.commandPath());
+            Assertions.assertEquals(Map.of("name", "n1", "force", true), result.leaf().values());
+        }
+
+        @Test
+        public void testInheritedFlags() throws Exception {
+            ParseResult result = tool().compile().parse("tool --verbose true cluster node drain n1 --region eu");
+            Assertions.assertEquals(Map.of("verbose", true), result.values());
+            Assertions.assertEquals(Map.of("region", "eu"), result.command().values());
+            Assertions.assertEquals(Map.of("name", "n1"), result.leaf().values());
+        }
+
+        @Test
+        public void testInheritedFlagErrors() {
+            CompiledParser parser = tool().compile();
+            Assertions.assertThrows(ParseException.class,
+                    () -> parser.parse("tool --verbose true cluster node drain n1 --verbose false"));
+            Assertions.assertThrows(ParseException.class, () -> parser.parse("tool cluster node drain n1 --unknown 1"));
+            //Flags of a sub-command are not known to its parent.
+            Assertions.assertThrows(ParseException.class, () -> parser.parse("tool --region eu cluster node list"));
+        }
+
+        @Test
+        public void testHelpAtDepth() throws Exception {
+            ParseResult result = tool().compile().parse("tool cluster node --help");
+            Assertions.assertEquals(List.of("tool", "cluster", "node"), result.commandPath());
+            Assertions.assertTrue(result.leaf().helpRequested());
+        }
+
+        @Test
+        public void testNestedChangeRecompiles() throws Exception {
+            ArgumentParser tool = tool();
+            CompiledParser before = tool.compile();
+            Command cluster = tool.commands.get("cluster");
+            cluster.commands.get("node").addCommand(new Command("Cordon", "cordon"));
+            Assertions.assertNotSame(before, tool.compile());
+            Assertions.assertEquals(List.of("tool", "cluster", "node", "cordon"),
+                    tool.compile().parse("tool cluster node cordon").commandPath());
+        }
+
+        @Test
+        public void testCycle() {
+            ArgumentParser tool = tool();
+            Command cluster = tool.commands.get("cluster");
+            Command node = cluster.commands.get("node");
+            Assertions.assertThrows(IllegalArgumentException.class, () -> node.addCommand(cluster));
+            Assertions.assertThrows(IllegalArgumentException.class, () -> node.addCommand(node));
+        }
+
+        @Test
+        public void testParseArgsStoresPath() throws Exception {
+            ArgumentParser tool = tool();
+            tool.parseArgs("tool cluster --region eu node drain n1");
+            Command cluster = tool.commands.get("cluster");
+            Assertions.assertEquals("eu", tool.getParsedCommandArgument("cluster", "region"));
+            Assertions.assertEquals("n1", cluster.commands.get("node").getParsedCommandArgument("drain", "name"));
+        }
+
+        @Test
+        public void testComplete() {
+            CompiledParser parser = tool().compile();
+            Assertions.assertEquals(List.of("drain"), parser.complete("tool --verbose true cluster node d", 34).candidates());
+        }
+
+        @Test
+        public void testCompleteInheritedFlags() {
+            CompiledParser parser = tool().compile();
+            String line = "tool cluster node drain --verbose ";
+            Assertions.assertEquals(List.of("false", "true"), parser.complete(line, line.length()).candidates());
+            line = "tool cluster node drain --verbose=t";
+            Assertions.assertEquals(List.of("true"), parser.complete(line, line.length()).candidates());
+            line = "tool cluster node drain --region eu ";
+            Assertions.assertEquals(List.of("--name", "--force", "--help"), parser.complete(line, line.length()).candidates());
+            line = "tool cluster node drain --region eu n1 --";
+            Assertions.assertEquals(List.of("--force", "--help"), parser.complete(line, line.length()).candidates());
+        }
+
+    }
+
+    @Nested
+    class Argv {
+
+        private ArgumentParser echo() {
+            ArgumentParser argparse = new ArgumentParser("Echo", "echo");
+            argparse.addArgument(new Argument.Builder<>("text", String.class).required(Boolean.TRUE).build());
+            argparse.addArgument(new Argument.Builder<>("times", int.class).build());
+            Command add = new Command("Addition", "add");
+            add.addArgument(new Argument.Builder<>("left", int.class).required(Boolean.TRUE).build());
+            argparse.addCommand(add);
+            return argparse;
+        }
+
+        @Test
+        public void testWordsAreNotSplit() throws Exception {
+            String[] argv = { "--times", "2", "hello \"big\" world" };
+            ParseResult result = echo().compile().parseArgs(argv, 0, argv.length);
+            Assertions.assertEquals(Map.of("text", "hello \"big\" world", "times", 2), result.values());
+        }
+
+        @Test
+        public void testSlice() throws Exception {
+            CharSequence[] argv = { "prog", "add", "--left=4", "ignored" };
+            ParseResult result = echo().compile().parseArgs(argv, 1, 2);
+            Assertions.assertEquals(List.of("echo", "add"), result.commandPath());
+            Assertions.assertEquals(Map.of("left", 4), result.leaf().values());
+        }
+
+        @Test
+        public void testSameAsLine() throws Exception {
+            CompiledParser parser = echo().compile();
+            String[] argv = { "hi", "--times", "3" };
+            Assertions.assertEquals(parser.parse("echo hi --times 3").values(), parser.parseArgs(argv, 0, 3).values());
+            ParseOutcome.Failure failure = (ParseOutcome.Failure) parser.tryParseArgs(new String[] { "hi", "--times", "x" }, 0, 3);
+            //Offsets are columns of the words joined with spaces.
+            Assertions.assertEquals(11, failure.error().offset());
+        }
+
+        @Test
+        public void testArgumentParserStores() throws Exception {
+            ArgumentParser argparse = echo();
+            argparse.parseArgs(new String[] { "a b" }, 0, 1);
+            Assertions.assertEquals("a b", argparse.getParsedArgument("text"));
+            argparse.parseArgs(new String[] { "add", "7" }, 0, 2);
+            Assertions.assertEquals(7, argparse.getParsedCommandArgument("add", "left"));
+        }
+
+        @Test
+        public void testRegistryChecksIdentifier() throws Exception {
+            ParserRegistry registry = new ParserRegistry(List.of(echo().compile()));
+            Assertions.assertEquals(Map.of("text", "x y"), registry.parse(new String[] { "echo", "x y" }, 0, 2).values());
+            Assertions.assertThrows(ParseException.class, () -> registry.parse(new String[] { "nope" }, 0, 1));
+            Assertions.assertEquals(Map.of("left", 1, "right", 2), Scenarios.dispatch(new String[] { "add", "1", "2" }, 0, 3));
+        }
+
+    }
+
+    @Nested
+    class Lists {
+
+        private ArgumentParser sum() {
+            ArgumentParser parser = new ArgumentParser("Sum", "sum");
+            parser.addArgument(new Argument.Builder<>("numbers", int.class).arity(1, Integer.MAX_VALUE).build());
+            parser.addArgument(new Argument.Builder<>("tag", String.class).arity(0, 2).build());
+            parser.addArgument(new Argument.Builder<>("scale", double.class).build());
+            return parser;
+        }
+
+        @Test
+        public void testVariadicPositional() throws Exception {
+            ParseResult result = sum().compile().parse("sum 1 2 3");
+            Assertions.assertEquals(List.of(1, 2, 3), result.getList("numbers"));
+            Assertions.assertArrayEquals(new int[] { 1, 2, 3 }, result.getPrimitives("numbers").toIntArray());
+            Assertions.assertEquals(Map.of("numbers", List.of(1, 2, 3)), result.values());
+        }
+
+        @Test
+        public void testRepeatedFlag() throws Exception {
+            ParseResult result = sum().compile().parse("sum --tag a 4 --tag=b --scale 0.5 5");
+            Assertions.assertEquals(List.of("a", "b"), result.getList("tag"));
+            Assertions.assertEquals(List.of(4, 5), result.getList("numbers"));
+            Assertions.assertEquals(0.5, result.getDouble("scale"));
+        }
+
+        @Test
+        public void testComplete() {
+            ArgumentParser parser = new ArgumentParser("Set", "set");
+            parser.addArgument(new Argument.Builder<>("states", boolean.class).arity(1, 2).build());
+            parser.addArgument(new Argument.Builder<>("label", String.class).build());
+            CompiledParser set = parser.compile();
+            Assertions.assertEquals(List.of("false", "true", "--label", "--states", "--help"),
+                    set.complete("set true ", 9).candidates());
+            Assertions.assertEquals(List.of("--label", "--help"), set.complete("set true false ", 15).candidates());
+            CompiledParser sum = sum().compile();
+            Assertions.assertEquals(List.of("--numbers", "--scale", "--tag", "--help"),
+                    sum.complete("sum 1 --tag a --", 16).candidates());
+            Assertions.assertEquals(List.of("--numbers", "--scale", "--help"),
+                    sum.complete("sum 1 --tag a --tag b --", 24).candidates());
+        }
+
+        @Test
+        public void testListFullThenNextPositional() throws Exception {
+            ArgumentParser parser = new ArgumentParser("Move", "mv");
+            parser.addArgument(new Argument.Builder<>("sources", String.class).arity(1, 2).build());
+            parser.addArgument(new Argument.Builder<>("target", String.class).build());
+            ParseResult result = parser.compile().parse("mv a b c");
+            Assertions.assertEquals(List.of("a", "b"), result.getList("sources"));
+            Assertions.assertEquals("c", result.get("target"));
+        }
+
+        @Test
+        public void testArity() {
+            CompiledParser parser = sum().compile();
+            ParseOutcome.Failure failure = (ParseOutcome.Failure) parser.tryParse("sum 1 --tag a --tag b --tag c");
+            Assertions.assertEquals(ParseError.Code.ARITY_MISMATCH, failure.error().code());
+            Assertions.assertEquals("Arity Mismatch -> tag takes 0 to 2 values", failure.error().detail());
+
+            ArgumentParser pair = new ArgumentParser("Pair", "pair");
+            pair.addArgument(new Argument.Builder<>("xy", long.class).arity(2, 2).build());
+            failure = (ParseOutcome.Failure) pair.compile().tryParse("pair 1");
+            Assertions.assertEquals(ParseError.Code.ARITY_MISMATCH, failure.error().code());
+            Assertions.assertThrows(CLIException.class, () -> pair.compile().parse("pair 1 2 3"));
+        }
+
+        @Test
+        public void testAccessors() throws Exception {
+            ParseResult result = sum().compile().parse("sum 1 --scale 2");
+            Assertions.assertThrows(IllegalArgumentException.class, () -> result.getInt("numbers"));
+            Assertions.assertThrows(IllegalArgumentException.class, () -> result.getList("scale"));
+            Assertions.assertThrows(IllegalArgumentException.class, () -> result.getList("tag"));
+            Assertions.assertThrows(IllegalStateException.class, () -> result.getPrimitives("numbers").getLong(0));
+            Assertions.assertThrows(UnsupportedOperationException.class, () -> result.getList("numbers").clear());
+        }
+
+        @Test
+        public void testKeys() throws Exception {
+            ArgumentParser parser = new ArgumentParser("Sum", "sum");
+            ArgumentKey<Long> numbers = parser.addArgument(new Argument.Builder<>("numbers", long.class).arity(1, 5).build());
+            ParseResult result = parser.compile().parse("sum 7 8");
+            Assertions.assertEquals(List.of(7L, 8L), result.getList(numbers));
+            Assertions.assertEquals(8L, result.getPrimitives(numbers).getLong(1));
+            Assertions.assertThrows(IllegalArgumentException.class, () -> result.get(numbers));
+        }
+
+        @Test
+        public void testConfiguration() {
+            Assertions.assertThrows(IllegalArgumentException.class,
+                    () -> new Argument.Builder<>("x", int.class).arity(2, 1));
+            Assertions.assertThrows(IllegalArgumentException.class,
+                    () -> new Argument.Builder<>("x", int.class).arity(0, 0));
+            Assertions.assertThrows(IllegalArgumentException.class, () -> new Argument.Builder<>("x", int.class)
+                    .arity(1, 3).asyncValidation(Duration.ofSeconds(1)).build());
+        }
+
+        @Test
+        public void testArgumentFile(@TempDir Path dir) throws Exception {
+            Path file = dir.resolve("numbers.txt");
+            StringBuilder contents = new StringBuilder("--tag \"from file\"\n");
+            for (int i = 0; i < 10_000; i++) {
+                contents.append(i).append(i % 10 == 9 ? '\n' : ' ');
+            }
+            Files.writeString(file, contents);
+            ArgumentParser parser = sum();
+            parser.setArgumentFiles(true);
+            ParseResult result = parser.compile().parse("sum --scale 3 @" + file);
+            PrimitiveList numbers = result.getPrimitives("numbers");
+            Assertions.assertEquals(10_000, numbers.size());
+            Assertions.assertEquals(9_999, numbers.getInt(9_999));
+            Assertions.assertEquals(List.of("from file"), result.getList("tag"));
+            Assertions.assertEquals(3.0, result.getDouble("scale"));
+        }
+
+        @Test
+        public void testUnreadableArgumentFile(@TempDir Path dir) {
+            ArgumentParser parser = sum();
+            parser.setArgumentFiles(true);
+            ParseOutcome.Failure failure = (ParseOutcome.Failure) parser.compile().tryParse("sum 1 @" + dir.resolve("missing"));
+            Assertions.assertEquals(ParseError.Code.UNREADABLE_ARGUMENT_FILE, failure.error().code());
+            Assertions.assertEquals(2, failure.error().token());
+        }
+
+        @Test
+        public void testArgumentFilesDisabledByDefault() throws Exception {
+            ArgumentParser parser = new ArgumentParser("Echo", "echo");
+            parser.addArgument(new Argument.Builder<>("text", String.class).build());
+            Assertions.assertEquals("@notes", parser.compile().parse("echo @notes").get("text"));
+        }
+
+    }
+
+    @Nested
+    class Lazy {
+
+        private ArgumentParser wide(int[] validations) {
+            ArgumentParser argparse = new ArgumentParser("Wide", "wide");
+            argparse.setLazyConversion(true);
+            argparse.addArgument(new Argument.Builder<>("count", int.class).required(Boolean.TRUE)
+                    .intValidationFunction(value -> {
+                        validations[0]++;
+                        return value > 0;
+                    }).build());
+            argparse.addArgument(new Argument.Builder<>("ratio", double.class).build());
+            argparse.addArgument(new Argument.Builder<>("date", LocalDate.class).build());
+            argparse.addArgument(new Argument.Builder<>("ids", long.class).arity(1, 3).build());
+            return argparse;
+        }
+
+        @Test
+        public void testConvertsOnFirstRead() throws Exception {
+            int[] validations = new int[1];
+            ParseResult result = wide(validations).compile().parse("wide 5 --ratio x --date nope");
+            Assertions.assertEquals(0, validations[0]);
+            Assertions.assertEquals(5, result.getInt("count"));
+            Assertions.assertEquals(5, result.getInt("count"));
+            Assertions.assertEquals(1, validations[0]);
+        }
+
+        @Test
+        public void testInvalidValueOnRead() throws Exception {
+            ParseResult result = wide(new int[1]).compile().parse("wide 5 --ratio x");
+            IllegalStateException e = Assertions.assertThrows(IllegalStateException.class, () -> result.getDouble("ratio"));
+            Assertions.assertInstanceOf(ValidationDefaultConversionException.class, e.getCause());
+            Assertions.assertThrows(IllegalStateException.class, () -> result.get("ratio"));
+            Assertions.assertThrows(IllegalStateException.class, result::values);
+        }
+
+        @Test
+        public void testValidateAll() throws Exception {
+            int[] validations = new int[1];
+            CompiledParser parser = wide(validations).compile();
+            Assertions.assertThrows(ValidationFunctionException.class, () -> parser.parse("wide 0 --date 2024-01-02").validateAll());
+            Assertions.assertThrows(ValidationDefaultConversionException.class, () -> parser.parse("wide 1 --date 2024-13-01").validateAll());
+
+            ParseResult result = parser.parse("wide 3 --date 2024-01-02 --ratio 0.5");
+            result.validateAll();
+            result.validateAll();
+            Assertions.assertEquals(Map.of("count", 3, "ratio", 0.5, "date", LocalDate.of(2024, 1, 2)), result.values());
+        }
+
+        @Test
+        public void testStructureStillChecked() {
+            CompiledParser parser = wide(new int[1]).compile();
+            Assertions.assertEquals(ParseError.Code.MISSING_REQUIRED_ARGUMENT, ((ParseOutcome.Failure) parser.tryParse("wide --ratio x")).error().code());
+            Assertions.assertEquals(ParseError.Code.UNKNOWN_ARGUMENT, ((ParseOutcome.Failure) parser.tryParse("wide x --nope 1")).error().code());
+            Assertions.assertEquals(ParseError.Code.DUPLICATE_ARGUMENT, ((ParseOutcome.Failure) parser.tryParse("wide x --ratio 1 --ratio 2")).error().code());
+            //Lists are still converted while parsing.
+            Assertions.assertEquals(ParseError.Code.CONVERSION_FAILED, ((ParseOutcome.Failure) parser.tryParse("wide 1 --ids y")).error().code());
+        }
+
+        @Test
+        public void testSameErrorAsEager() throws Exception {
+            ArgumentParser argparse = wide(new int[1]);
+            ParseResult result = argparse.compile().parse("wide 5 --ratio=x");
+            CLIException lazy = Assertions.assertThrows(CLIException.class, result::validateAll);
+            argparse.setLazyConversion(false);
+            CLIException eager = Assertions.assertThrows(CLIException.class, () -> argparse.compile().parse("wide 5 --ratio=x"));
+            Assertions.assertEquals(eager.getClass(), lazy.getClass());
+            Assertions.assertEquals(eager.getMessage(), lazy.getMessage());
+        }
+
+        @Test
+        public void testReusedLine() throws Exception {
+            CompiledParser parser = wide(new int[1]).compile();
+            StringBuilder line = new StringBuilder("wide 7 --ratio 1.5");
+            ParseResult result = parser.parse(line);
+            line.setLength(0);
+            line.append("wide 9 --ratio 9.9");
+            Assertions.assertEquals(7, result.getInt("count"));
+            Assertions.assertEquals(1.5, result.getDouble("ratio"));
+        }
+
+        @Test
+        public void testSubCommand() throws Exception {
+            ArgumentParser argparse = new ArgumentParser("Tool", "tool");
+            argparse.setLazyConversion(true);
+            Command add = new Command("Addition", "add");
+            add.addArgument(new Argument.Builder<>("left", int.class).build());
+            argparse.addCommand(add);
+            ParseResult result = argparse.compile().parse("tool add x");
+            Assertions.assertThrows(ValidationDefaultConversionException.class, result::validateAll);
+        }
+
+    }
+
+}
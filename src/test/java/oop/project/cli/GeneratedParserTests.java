@@ -0,0 +1,121 @@
+package oop.project.cli;
+
+import oop.project.cli.annotations.Cli;
+import oop.project.cli.annotations.Command;
+import oop.project.cli.annotations.Flag;
+import oop.project.cli.annotations.Positional;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.time.LocalDate;
+import java.util.stream.Stream;
+
+public class GeneratedParserTests {
+
+    @Cli(identifier = "add", description = "Performs addition")
+    record Add(int left, int right) {}
+
+    @Cli(identifier = "sub")
+    record Sub(@Flag double left, @Flag(required = true) double right) {}
+
+    enum Mode { FAST, SLOW }
+
+    @Cli(identifier = "calc", stackTraces = false)
+    sealed interface Calc permits Calc.Add, Calc.Sqrt, Calc.Date {
+
+        @Command(identifier = "add")
+        record Add(int left, Integer right, @Flag Mode mode) implements Calc {}
+
+        @Command(identifier = "sqrt", aliases = "root")
+        record Sqrt(@Positional(help = "A non-negative integer.") int number) implements Calc {}
+
+        @Command(identifier = "date")
+        record Date(LocalDate date, @Positional(required = false) String label) implements Calc {}
+    }
+
+    @Nested
+    class Records {
+
+        @ParameterizedTest
+        @MethodSource
+        public void testAdd(String name, String command, Add expected) throws CLIException {
+            Assertions.assertEquals(expected, GeneratedParserTests_AddParser.parse(command));
+        }
+
+        public static Stream<Arguments> testAdd() {
+            return Stream.of(
+                    Arguments.of("Positional", "add 1 2", new Add(1, 2)),
+                    Arguments.of("Flags Out Of Order", "add --right 2 --left 1", new Add(1, 2)),
+                    Arguments.of("Equals Form", "add --left=1 2", new Add(1, 2))
+            );
+        }
+
+        @Test
+        public void testFlagOnly() throws CLIException {
+            Assertions.assertEquals(new Sub(0, 2.5), GeneratedParserTests_SubParser.parse("sub --right 2.5"));
+            Assertions.assertThrows(ParseException.class, () -> GeneratedParserTests_SubParser.parse("sub 2.5"));
+        }
+
+        @Test
+        public void testErrorsMatchRuntimeParser() {
+            ArgumentParser argparse = new ArgumentParser("Add", "add");
+            argparse.addArgument(new Argument.Builder<>("left", int.class).required(Boolean.TRUE).build());
+            argparse.addArgument(new Argument.Builder<>("right", int.class).required(Boolean.TRUE).build());
+            CompiledParser parser = argparse.compile();
+            for (String line : new String[] { "add 1", "add 1 2 3", "add --middle 1", "add --left", "add x 2",
+                    "add --left 1 --left 2", "ad 1 2" }) {
+                CLIException generated = Assertions.assertThrows(CLIException.class,
+                        () -> GeneratedParserTests_AddParser.parse(line));
+                CLIException runtime = Assertions.assertThrows(CLIException.class, () -> parser.parse(line));
+                Assertions.assertEquals(runtime.getClass(), generated.getClass(), line);
+                Assertions.assertEquals(runtime.getMessage(), generated.getMessage(), line);
+            }
+        }
+
+    }
+
+    @Nested
+    class Commands {
+
+        @Test
+        public void testDispatch() throws CLIException {
+            Assertions.assertEquals(new Calc.Add(1, 2, Mode.SLOW),
+                    GeneratedParserTests_CalcParser.parse("calc add 1 2 --mode SLOW"));
+            Assertions.assertEquals(new Calc.Sqrt(4), GeneratedParserTests_CalcParser.parse("calc root 4"));
+            Assertions.assertEquals(new Calc.Date(LocalDate.of(2024, 1, 2), null),
+                    GeneratedParserTests_CalcParser.parse("calc date 2024-01-02"));
+        }
+
+        @Test
+        public void testStackless() {
+            CLIException missing = Assertions.assertThrows(ParseException.class,
+                    () -> GeneratedParserTests_CalcParser.parse("calc"));
+            Assertions.assertEquals("Parsing Exception: Missing Command -> expected one of add, sqrt, date",
+                    missing.getMessage());
+            Assertions.assertEquals(0, missing.getStackTrace().length);
+            Assertions.assertThrows(ValidationException.class,
+                    () -> GeneratedParserTests_CalcParser.parse("calc date 2024-13-01"));
+            Assertions.assertThrows(ParseException.class, () -> GeneratedParserTests_CalcParser.parse("calc mul 1"));
+        }
+
+        @Test
+        public void testHelp() {
+            Assertions.assertEquals("""
+                    Calc
+
+                    Usage: calc COMMAND [ARGUMENTS]
+
+                    Commands:
+                      add         Add
+                      sqrt, root  Sqrt
+                      date        Date
+                    """, GeneratedParserTests_CalcParser.help());
+        }
+
+    }
+
+}
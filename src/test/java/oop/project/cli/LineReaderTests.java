@@ -0,0 +1,84 @@
+package oop.project.cli;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+public class LineReaderTests {
+
+    private static final String LONG_LINE = "x".repeat(100);
+    private static final String TEXT = "add 1 2\r\n\nsub 3 4\n" + LONG_LINE + "\ncafé ½\r\nlast";
+    private static final List<String> LINES = List.of("add 1 2", "", "sub 3 4", LONG_LINE, "café ½", "last");
+
+    @TempDir
+    Path directory;
+
+    private static List<String> readStream(String text, int bufferSize) throws IOException {
+        List<String> lines = new ArrayList<>();
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        LineReader.read(Channels.newChannel(new ByteArrayInputStream(bytes)), bufferSize,
+                line -> lines.add(line.toString()));
+        return lines;
+    }
+
+    private List<String> readFile(String text, int windowSize) throws IOException {
+        Path file = directory.resolve("lines.txt");
+        Files.writeString(file, text);
+        List<String> lines = new ArrayList<>();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            LineReader.read(channel, windowSize, line -> lines.add(line.toString()));
+        }
+        return lines;
+    }
+
+    @Test
+    public void testChannel() throws Exception {
+        Assertions.assertEquals(LINES, readStream(TEXT, 1 << 10));
+    }
+
+    @Test
+    public void testChannelBufferGrows() throws Exception {
+        //The long line needs the 8 byte buffer to double four times.
+        Assertions.assertEquals(LINES, readStream(TEXT, 8));
+    }
+
+    @Test
+    public void testFile() throws Exception {
+        Assertions.assertEquals(LINES, readFile(TEXT, 1 << 10));
+    }
+
+    @Test
+    public void testFileWindowDoubles() throws Exception {
+        Assertions.assertEquals(LINES, readFile(TEXT, 8));
+    }
+
+    @Test
+    public void testTerminatedAndEmpty() throws Exception {
+        Assertions.assertEquals(List.of("a", "b"), readStream("a\nb\n", 4));
+        Assertions.assertEquals(List.of("a", "b"), readFile("a\r\nb\r\n", 4));
+        Assertions.assertEquals(List.of(), readStream("", 4));
+        Assertions.assertEquals(List.of(), readFile("", 4));
+    }
+
+    @Test
+    public void testAsciiLinesAreReusedViews() throws Exception {
+        List<CharSequence> lines = new ArrayList<>();
+        LineReader.read(Channels.newChannel(new ByteArrayInputStream("ab\ncd\né\n".getBytes(StandardCharsets.UTF_8))),
+                16, lines::add);
+        Assertions.assertInstanceOf(AsciiSequence.class, lines.get(0));
+        Assertions.assertSame(lines.get(0), lines.get(1));
+        Assertions.assertInstanceOf(String.class, lines.get(2));
+    }
+
+}
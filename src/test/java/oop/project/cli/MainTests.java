@@ -0,0 +1,59 @@
+package oop.project.cli;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.StringWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+public class MainTests {
+
+    private static final List<String> LINES = List.of("add 1 2", "sub --left 1.0 --right 2.0", "sqrt -1",
+            "add one two", "calc add 3 4");
+
+    @TempDir
+    Path directory;
+
+    private static String respond(String line) throws Exception {
+        StringWriter out = new StringWriter();
+        Main.respond(line, out);
+        return out.toString();
+    }
+
+    @Test
+    public void testBulk() throws Exception {
+        Path input = directory.resolve("input.txt");
+        Path output = directory.resolve("output.txt");
+        Files.writeString(input, String.join("\r\n", LINES));
+        Main.main(new String[] { "--input", input.toString(), "--output", output.toString() });
+
+        List<String> expected = new ArrayList<>();
+        for (String line : LINES) {
+            expected.add(line);
+            expected.add(respond(line));
+        }
+        Assertions.assertEquals(expected, Files.readAllLines(output));
+        Assertions.assertEquals("{left=1, right=2}", expected.get(1));
+    }
+
+    @Test
+    public void testBulkQuiet() throws Exception {
+        Path input = directory.resolve("input.txt");
+        Path output = directory.resolve("output.txt");
+        Files.writeString(input, String.join("\n", LINES) + "\n");
+        //An existing output file is truncated.
+        Files.writeString(output, "stale\n".repeat(100));
+        Main.main(new String[] { "--quiet", "--input", input.toString(), "--output", output.toString() });
+
+        List<String> expected = new ArrayList<>();
+        for (String line : LINES) {
+            expected.add(respond(line));
+        }
+        Assertions.assertEquals(expected, Files.readAllLines(output));
+    }
+
+}
@@ -26,6 +26,9 @@ public class ScenariosTests {
             return Stream.of(
                 Arguments.of("Add", "add 1 2", Map.of("left", 1, "right", 2)),
                 Arguments.of("Add", "add --left 1 --right 2", Map.of("left", 1, "right", 2)),
+                Arguments.of("Flags Out Of Order", "add --right 2 --left 1", Map.of("left", 1, "right", 2)),
+                Arguments.of("Equals Form", "add --left=1 --right=2", Map.of("left", 1, "right", 2)),
+                Arguments.of("Duplicate Flag", "add --left 1 --left 2", null),
                 Arguments.of("Missing Argument", "add 1", null),
                 Arguments.of("Extraneous Argument", "add 1 2 3", null),
                 Arguments.of("Not A Number", "add one two", null),
@@ -93,6 +96,8 @@ public class ScenariosTests {
                 Arguments.of("Div", "calc div 1.0 2.0", Map.of("denominator", 2.0, "numerator", 1.0)),
                 Arguments.of("Sub", "calc sub 1.0 2.0", null),
                 Arguments.of("Sqrt", "calc sqrt 4", Map.of("number", 4)),
+                Arguments.of("Unique Prefix", "calc sq 4", Map.of("number", 4)),
+                Arguments.of("Single Letter Prefix", "calc s 4", Map.of("number", 4)),
                 Arguments.of("Missing", "calc", null),
                 Arguments.of("Invalid", "calc unknown", null)
             );
@@ -112,7 +117,11 @@ public class ScenariosTests {
         public static Stream<Arguments> testDate() {
             return Stream.of(
                 Arguments.of("Date", "date 2024-01-01", Map.of("date", LocalDate.of(2024, 1, 1))),
-                Arguments.of("Invalid", "date 20240401", null)
+                Arguments.of("Leap Day", "date 2024-02-29", Map.of("date", LocalDate.of(2024, 2, 29))),
+                Arguments.of("Extended Year", "date +12345-06-07", Map.of("date", LocalDate.of(12345, 6, 7))),
+                Arguments.of("Invalid", "date 20240401", null),
+                Arguments.of("Invalid Day", "date 2023-02-29", null),
+                Arguments.of("Invalid Month", "date 2024-13-01", null)
             );
         }
     }
@@ -128,7 +137,8 @@ public class ScenariosTests {
         public static Stream<Arguments> testErrorHandling() {
             return Stream.of(
                     Arguments.of("Unrecognized Error", "add --middle 6 --right 5", null),
-                    Arguments.of("Mixed Positional and Flags", "add --left 6 5", null),
+                    Arguments.of("Mixed Positional and Flags", "add --left 6 5", Map.of("left", 6, "right", 5)),
+                    Arguments.of("Flag Repeats Positional", "add 5 --left 6", null),
                     Arguments.of("No Command", "6 5", null)
             );
         }
@@ -0,0 +1,96 @@
+package oop.project.cli;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.StringWriter;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+public class SocketServerTests {
+
+    @TempDir
+    Path directory;
+
+    private static String respond(String line) throws Exception {
+        StringWriter out = new StringWriter();
+        Main.respond(line, out);
+        return out.toString();
+    }
+
+    @Test
+    public void testPipelinedInOrder() throws Exception {
+        Path socket = directory.resolve("cli.sock");
+        List<String> lines = List.of("add 1 2", "sub --left 1.0 --right 2.0", "sqrt -1", "calc add 3 4");
+        try (SocketServer server = SocketServer.bind(socket)) {
+            Thread.ofVirtual().start(() -> {
+                try {
+                    server.serve();
+                } catch (Exception e) {
+                    throw new RuntimeException(e);
+                }
+            });
+            List<Thread> clients = new ArrayList<>();
+            List<Throwable> failures = new ArrayList<>();
+            for (int client = 0; client < 4; client++) {
+                clients.add(Thread.ofVirtual().start(() -> {
+                    try (SocketChannel channel = SocketChannel.open(StandardProtocolFamily.UNIX)) {
+                        channel.connect(UnixDomainSocketAddress.of(socket));
+                        // Every request is sent before any answer is read.
+                        ByteBuffer requests = StandardCharsets.UTF_8.encode(String.join("\n", lines) + "\n");
+                        while (requests.hasRemaining()) {
+                            channel.write(requests);
+                        }
+                        channel.shutdownOutput();
+                        BufferedReader answers = new BufferedReader(new InputStreamReader(
+                                Channels.newInputStream(channel), StandardCharsets.UTF_8));
+                        for (String line : lines) {
+                            Assertions.assertEquals(respond(line), answers.readLine());
+                        }
+                        Assertions.assertNull(answers.readLine());
+                    } catch (Throwable e) {
+                        synchronized (failures) {
+                            failures.add(e);
+                        }
+                    }
+                }));
+            }
+            for (Thread client : clients) {
+                client.join();
+            }
+            Assertions.assertEquals(List.of(), failures);
+        }
+        Assertions.assertFalse(Files.exists(socket));
+    }
+
+    @Test
+    public void testRefusesRegularFile() throws Exception {
+        Path file = Files.writeString(directory.resolve("notes.txt"), "keep");
+        Assertions.assertThrows(IOException.class, () -> SocketServer.bind(file));
+        Assertions.assertEquals("keep", Files.readString(file));
+    }
+
+    @Test
+    public void testCommandLine() throws Exception {
+        String[] words = { "date", "a b", "", "say \"hi\"", "back\\slash" };
+        Tokens tokens = Tokens.of(Main.commandLine(words));
+        List<String> actual = new ArrayList<>();
+        for (int i = 0; i < tokens.size(); i++) {
+            actual.add(tokens.toString(i));
+        }
+        Assertions.assertEquals(List.of(words), actual);
+    }
+
+}
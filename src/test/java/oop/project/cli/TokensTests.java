@@ -0,0 +1,76 @@
+package oop.project.cli;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+public class TokensTests {
+
+    @ParameterizedTest
+    @MethodSource
+    public void testTokenize(String name, String input, List<String> expected) throws Exception {
+        Tokens tokens = Tokens.of(input);
+        List<String> actual = new ArrayList<>();
+        for (int i = 0; i < tokens.size(); i++) {
+            actual.add(tokens.toString(i));
+        }
+        Assertions.assertEquals(expected, actual);
+    }
+
+    public static Stream<Arguments> testTokenize() {
+        return Stream.of(
+            Arguments.of("Plain", "add 1 2", List.of("add", "1", "2")),
+            Arguments.of("Extra Whitespace", "  add \t 1   2  ", List.of("add", "1", "2")),
+            Arguments.of("Empty", "", List.of()),
+            Arguments.of("Double Quotes", "echo \"hello world\"", List.of("echo", "hello world")),
+            Arguments.of("Single Quotes", "echo 'a \"b\" c'", List.of("echo", "a \"b\" c")),
+            Arguments.of("Escaped Quote", "echo \"say \\\"hi\\\"\"", List.of("echo", "say \"hi\"")),
+            Arguments.of("Escaped Space", "echo a\\ b", List.of("echo", "a b")),
+            Arguments.of("Joined Sections", "echo --name=\"a b\"", List.of("echo", "--name=a b")),
+            Arguments.of("Empty Quotes", "echo \"\"", List.of("echo", ""))
+        );
+    }
+
+    @Test
+    public void testUnterminatedQuote() {
+        Assertions.assertThrows(ParseException.class, () -> Tokens.of("echo \"hello"));
+    }
+
+    @Test
+    public void testSlicesAreNotCopied() throws Exception {
+        String line = "echo \"hello world\" plain";
+        Tokens tokens = Tokens.of(line);
+        Assertions.assertSame(line, tokens.text(1));
+        Assertions.assertSame(line, tokens.text(2));
+        Assertions.assertTrue(tokens.matches(2, "plain"));
+    }
+
+    @Test
+    public void testWords() throws Exception {
+        String[] argv = { "skip", "echo", "a \"b\" c", "" };
+        Tokens tokens = Tokens.of("echo a\\ b c").reset(argv, 1, 3);
+        Assertions.assertEquals(3, tokens.size());
+        Assertions.assertSame(argv[2], tokens.text(1));
+        Assertions.assertEquals("a \"b\" c", tokens.toString(1));
+        Assertions.assertEquals(List.of(0, 5, 13), List.of(tokens.offset(0), tokens.offset(1), tokens.offset(2)));
+        Assertions.assertEquals(0, tokens.length(2));
+        tokens.reset("sqrt 4");
+        Assertions.assertSame("sqrt 4", tokens.text(1));
+        Assertions.assertThrows(IndexOutOfBoundsException.class, () -> tokens.reset(argv, 2, 3));
+    }
+
+    @Test
+    public void testReset() throws Exception {
+        Tokens tokens = Tokens.of("echo a\\ b c");
+        tokens.reset("sqrt 4");
+        Assertions.assertEquals(2, tokens.size());
+        Assertions.assertEquals("4", tokens.toString(1));
+    }
+
+}